@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+// compares benchmark results with a JSON result file written by an earlier run
+public class BaselineComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private final Map<String, JsonNode> baseline = new HashMap<>();
+    private final double tolerance;
+
+    public BaselineComparison(File baselineFile, double tolerance) throws IOException {
+        for (JsonNode result : new ObjectMapper().readTree(baselineFile)) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            this.baseline.put(key(result.path("benchmark").asText(), result.path("mode").asText(), params), result);
+        }
+        this.tolerance = tolerance;
+    }
+
+    // prints one line per benchmark and returns the number of regressions
+    public int compare(Collection<RunResult> results, PrintStream out) {
+        int regressions = 0;
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Map<String, String> paramValues = new TreeMap<>();
+            for (String name : params.getParamsKeys()) {
+                paramValues.put(name, params.getParam(name));
+            }
+            String key = key(params.getBenchmark(), params.getMode().shortLabel(), paramValues);
+            JsonNode previous = this.baseline.get(key);
+            if (previous == null) {
+                out.printf("NEW        %s%n", key);
+                continue;
+            }
+            double score = result.getPrimaryResult().getScore();
+            double previousScore = previous.path("primaryMetric").path("score").asDouble();
+            // throughput should not drop, everything else is a time per operation and should not grow
+            boolean slower = params.getMode() == Mode.Throughput
+                    ? score < previousScore * (1 - this.tolerance)
+                    : score > previousScore * (1 + this.tolerance);
+            boolean allocates = false;
+            Double allocation = allocation(result);
+            JsonNode previousAllocation = findAllocation(previous.path("secondaryMetrics"));
+            if (allocation != null && previousAllocation != null) {
+                allocates = allocation > previousAllocation.path("score").asDouble() * (1 + this.tolerance);
+            }
+            String status = slower ? "SLOWER" : allocates ? "ALLOCATES" : "OK";
+            out.printf("%-10s %s: %.3f -> %.3f %s%n", status, key, previousScore, score,
+                    result.getPrimaryResult().getScoreUnit());
+            if (slower || allocates) {
+                regressions++;
+            }
+        }
+        return regressions;
+    }
+
+    private static Double allocation(RunResult result) {
+        for (Map.Entry<String, Result> metric : result.getSecondaryResults().entrySet()) {
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue().getScore();
+            }
+        }
+        return null;
+    }
+
+    // older JMH versions prefix the names of the GC profiler metrics with a dot
+    private static JsonNode findAllocation(JsonNode secondaryMetrics) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondaryMetrics.fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String key(String benchmark, String mode, Map<String, String> params) {
+        return benchmark + " " + mode + " " + params;
+    }
+}
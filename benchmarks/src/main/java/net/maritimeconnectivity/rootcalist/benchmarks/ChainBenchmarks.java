@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.benchmarks;
+
+import net.maritimeconnectivity.rootcalist.utils.CertificateCache;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and verification of the certificate chains that are submitted for attestors. The methods ending in
+ * Uncached bypass the certificate and signature caches of CryptoUtil and measure the actual work, the others measure
+ * the path the service takes for certificates it has seen before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChainBenchmarks {
+
+    @Param({"RSA_2048", "RSA_4096", "EC_P256", "EC_P384"})
+    private KeyType keyType;
+
+    @Param({"1", "3", "5"})
+    private int chainLength;
+
+    private String chainPem;
+    private String[] pems;
+    private X509CertificateHolder[] certificates;
+
+    @Setup
+    public void setup() throws Exception {
+        TestCertificates testCertificates = TestCertificates.generate(this.keyType, this.chainLength);
+        this.chainPem = testCertificates.getChainPem();
+        this.pems = testCertificates.getPems();
+        this.certificates = testCertificates.getCertificates();
+        CryptoUtil.verifyChain(CryptoUtil.extractCertificates(this.chainPem));
+    }
+
+    @Benchmark
+    public X509CertificateHolder[] extractCertificates() throws Exception {
+        return CryptoUtil.extractCertificates(this.chainPem);
+    }
+
+    @Benchmark
+    public void extractCertificatesUncached(Blackhole blackhole) throws Exception {
+        CertificateCache cache = new CertificateCache(this.pems.length);
+        for (String pem : this.pems) {
+            blackhole.consume(cache.getOrParse(pem));
+        }
+    }
+
+    @Benchmark
+    public void verifyChain() throws Exception {
+        CryptoUtil.verifyChain(this.certificates);
+    }
+
+    // the same checks as verifyChain without the signature cache
+    @Benchmark
+    public boolean verifyChainUncached() throws Exception {
+        boolean valid = true;
+        for (int i = 0; i < this.certificates.length - 1; i++) {
+            valid &= this.certificates[i].isSignatureValid(CryptoUtil.getVerifierProvider(this.certificates[i + 1]));
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.benchmarks;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.ECGenParameterSpec;
+
+// the kinds of keys the benchmarks generate their certificates with
+public enum KeyType {
+    RSA_2048("RSA", 2048, null, "SHA256withRSA"),
+    RSA_4096("RSA", 4096, null, "SHA256withRSA"),
+    EC_P256("EC", 0, "secp256r1", "SHA256withECDSA"),
+    EC_P384("EC", 0, "secp384r1", "SHA384withECDSA");
+
+    private final String keyAlgorithm;
+    private final int keySize;
+    private final String curve;
+    private final String signatureAlgorithm;
+
+    KeyType(String keyAlgorithm, int keySize, String curve, String signatureAlgorithm) {
+        this.keyAlgorithm = keyAlgorithm;
+        this.keySize = keySize;
+        this.curve = curve;
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    public String getSignatureAlgorithm() {
+        return this.signatureAlgorithm;
+    }
+
+    public KeyPairGenerator keyPairGenerator() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(this.keyAlgorithm);
+        if (this.curve != null) {
+            generator.initialize(new ECGenParameterSpec(this.curve));
+        } else {
+            generator.initialize(this.keySize);
+        }
+        return generator;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.benchmarks;
+
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.SignatureAlgorithms;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.util.encoders.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Signature;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The checks made when a root CA is submitted and when an attestor signs one. The content of the attestation signature
+ * is the PEM of the root CA, like in the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureBenchmarks {
+
+    @Param({"RSA_2048", "RSA_4096", "EC_P256", "EC_P384"})
+    private KeyType keyType;
+
+    private X509CertificateHolder root;
+    private Attestor attestor;
+    private String content;
+    private String signature;
+
+    @Setup
+    public void setup() throws Exception {
+        TestCertificates rootCA = TestCertificates.generate(this.keyType, 1);
+        TestCertificates attestorCertificates = TestCertificates.generate(this.keyType, 1);
+        this.root = rootCA.getRoot();
+        this.content = rootCA.getChainPem();
+        this.attestor = new Attestor();
+        this.attestor.setCertificate(attestorCertificates.getChainPem());
+        Signature signer = Signature.getInstance(this.keyType.getSignatureAlgorithm(), SignatureAlgorithms.getProvider());
+        signer.initSign(attestorCertificates.getKeyPair(0).getPrivate());
+        signer.update(this.content.getBytes(UTF_8));
+        this.signature = Hex.toHexString(signer.sign());
+        if (!CryptoUtil.isSelfSigned(this.root) || !isSignatureValid()) {
+            throw new IllegalStateException("The generated certificates could not be verified");
+        }
+    }
+
+    @Benchmark
+    public boolean isSelfSigned() {
+        return CryptoUtil.isSelfSigned(this.root);
+    }
+
+    // the same check as isSelfSigned without the signature cache
+    @Benchmark
+    public boolean isSelfSignedUncached() throws Exception {
+        return this.root.isSignatureValid(CryptoUtil.getVerifierProvider(this.root));
+    }
+
+    @Benchmark
+    public boolean isSignatureValid() throws Exception {
+        return CryptoUtil.isSignatureValid(this.signature, this.keyType.getSignatureAlgorithm(), this.attestor, this.content);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.benchmarks;
+
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.SignatureAlgorithms;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// generates certificate chains for the benchmarks, the leaf certificate comes first and the root CA last
+public class TestCertificates {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final KeyPair[] keyPairs;
+    private final X509CertificateHolder[] certificates;
+    private final String[] pems;
+
+    private TestCertificates(KeyPair[] keyPairs, X509CertificateHolder[] certificates, String[] pems) {
+        this.keyPairs = keyPairs;
+        this.certificates = certificates;
+        this.pems = pems;
+    }
+
+    // a chain of length 1 only consists of a self-signed root CA
+    public static TestCertificates generate(KeyType keyType, int chainLength)
+            throws GeneralSecurityException, OperatorCreationException, IOException {
+        KeyPairGenerator generator = keyType.keyPairGenerator();
+        KeyPair[] keyPairs = new KeyPair[chainLength];
+        X509CertificateHolder[] certificates = new X509CertificateHolder[chainLength];
+        String[] pems = new String[chainLength];
+        Date notBefore = new Date(System.currentTimeMillis() - DAY);
+        Date notAfter = new Date(System.currentTimeMillis() + 365 * DAY);
+        X500Name issuer = null;
+        // issued from the root CA downwards
+        for (int i = chainLength - 1; i >= 0; i--) {
+            keyPairs[i] = generator.generateKeyPair();
+            X500Name subject = new X500Name("CN=Benchmark " + keyType + " " + i);
+            KeyPair signer = i == chainLength - 1 ? keyPairs[i] : keyPairs[i + 1];
+            JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuer != null ? issuer : subject,
+                    BigInteger.valueOf(i + 1L), notBefore, notAfter, subject, keyPairs[i].getPublic());
+            if (i > 0 || chainLength == 1) {
+                builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+                builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign | KeyUsage.digitalSignature));
+            }
+            certificates[i] = builder.build(new JcaContentSignerBuilder(keyType.getSignatureAlgorithm())
+                    .setProvider(SignatureAlgorithms.getProvider()).build(signer.getPrivate()));
+            pems[i] = CryptoUtil.toPem(certificates[i]);
+            issuer = subject;
+        }
+        return new TestCertificates(keyPairs, certificates, pems);
+    }
+
+    public KeyPair getKeyPair(int index) {
+        return this.keyPairs[index];
+    }
+
+    public X509CertificateHolder[] getCertificates() {
+        return this.certificates;
+    }
+
+    public X509CertificateHolder getRoot() {
+        return this.certificates[this.certificates.length - 1];
+    }
+
+    public String[] getPems() {
+        return this.pems;
+    }
+
+    public String getChainPem() {
+        return String.join("", this.pems);
+    }
+}
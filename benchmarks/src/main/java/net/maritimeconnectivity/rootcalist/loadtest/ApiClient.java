@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+// a minimal HTTP client for the API, connections are kept alive by HttpURLConnection as long as responses are read fully
+public class ApiClient {
+
+    private static final int TIMEOUT = 60000;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+
+    public ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    public Response execute(Request request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + request.getPath()).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        connection.setRequestMethod(request.getMethod());
+        if (request.getAccept() != null) {
+            connection.setRequestProperty("Accept", request.getAccept());
+        }
+        if (request.getBody() != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", request.getContentType());
+            connection.setFixedLengthStreamingMode(request.getBody().length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request.getBody());
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in == null) {
+            return new Response(status, new byte[0]);
+        }
+        try {
+            if (request.isEventStream()) {
+                // the stream never ends, only the first event is read
+                byte[] event = readEvent(in);
+                connection.disconnect();
+                return new Response(status, event);
+            }
+            return new Response(status, readAll(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    public JsonNode getJson(String path) throws IOException {
+        return expectSuccess(execute(Request.get(path))).json();
+    }
+
+    public JsonNode postJson(String path, String contentType, byte[] body) throws IOException {
+        return expectSuccess(execute(Request.post(path, contentType, body, null))).json();
+    }
+
+    private static Response expectSuccess(Response response) throws IOException {
+        if (response.getStatus() >= 400) {
+            throw new IOException("Request failed with status " + response.getStatus() + ": " + new String(response.getBody()));
+        }
+        return response;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    // reads until the blank line that ends a server-sent event
+    private static byte[] readEvent(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int previous = -1;
+        int read;
+        while ((read = in.read()) >= 0) {
+            out.write(read);
+            if (read == '\n' && previous == '\n') {
+                break;
+            }
+            previous = read;
+        }
+        return out.toByteArray();
+    }
+
+    public static class Response {
+
+        private final int status;
+        private final byte[] body;
+
+        public Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return this.status;
+        }
+
+        public byte[] getBody() {
+            return this.body;
+        }
+
+        public JsonNode json() throws IOException {
+            return OBJECT_MAPPER.readTree(this.body);
+        }
+    }
+}
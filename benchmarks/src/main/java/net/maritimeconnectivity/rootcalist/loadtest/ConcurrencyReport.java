@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+// latency percentiles and throughput over all endpoints for each number of connections in flight
+public class ConcurrencyReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 100};
+
+    private final ArrayNode levels = ApiClient.getObjectMapper().createArrayNode();
+
+    // takes the total of a measurement right after it, before the recorder is reset for the next one
+    public void add(int connections, EndpointRecorder total, int durationSeconds) {
+        double[] percentiles = total.getPercentiles(PERCENTILES);
+        ObjectNode level = this.levels.addObject();
+        level.put("connections", connections);
+        level.put("requests", total.getCount());
+        level.put("errors", total.getErrors());
+        level.put("throughput", (double) total.getCount() / durationSeconds);
+        level.put("p50", percentiles[0]);
+        level.put("p90", percentiles[1]);
+        level.put("p99", percentiles[2]);
+        level.put("max", percentiles[3]);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%11s %8s %7s %9s %9s %9s %9s %9s%n",
+                "Connections", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        this.levels.forEach(level -> out.printf("%11d %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                level.path("connections").asInt(), level.path("requests").asInt(), level.path("errors").asInt(),
+                level.path("throughput").asDouble(), level.path("p50").asDouble(), level.path("p90").asDouble(),
+                level.path("p99").asDouble(), level.path("max").asDouble()));
+    }
+
+    public void write(File file) throws IOException {
+        ApiClient.getObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, this.levels);
+    }
+}
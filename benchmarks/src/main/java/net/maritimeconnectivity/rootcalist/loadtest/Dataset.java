@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import net.maritimeconnectivity.rootcalist.utils.SignatureAlgorithms;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// what the load test knows about the data of the service, entities created during the load test are added as well
+public class Dataset {
+
+    private final String signatureAlgorithm;
+    private final List<AttestorEntry> attestors = new ArrayList<>();
+    // the attestors whose keys are known
+    private final List<AttestorEntry> signers = new ArrayList<>();
+    private final List<RootEntry> roots = new ArrayList<>();
+    private final List<Long> attestations = new ArrayList<>();
+    private final List<Long> revocations = new ArrayList<>();
+    // attestations made with a known key that can still be revoked
+    private final Queue<AttestationEntry> revocable = new ConcurrentLinkedQueue<>();
+    private final Set<String> attestedPairs = ConcurrentHashMap.newKeySet();
+    private String validationChain;
+
+    public Dataset(String signatureAlgorithm) {
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    public String getSignatureAlgorithm() {
+        return this.signatureAlgorithm;
+    }
+
+    public String sign(KeyPair keyPair, String content) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance(this.signatureAlgorithm, SignatureAlgorithms.getProvider());
+        signature.initSign(keyPair.getPrivate());
+        signature.update(content.getBytes(UTF_8));
+        return Hex.toHexString(signature.sign());
+    }
+
+    public void addAttestor(AttestorEntry attestor) {
+        synchronized (this.attestors) {
+            this.attestors.add(attestor);
+        }
+        if (attestor.getKeyPair() != null) {
+            synchronized (this.signers) {
+                this.signers.add(attestor);
+            }
+        }
+    }
+
+    public void addRoot(RootEntry root) {
+        synchronized (this.roots) {
+            this.roots.add(root);
+        }
+    }
+
+    public void addAttestation(long id, long rootId, long attestorId, AttestationEntry revocable) {
+        this.attestedPairs.add(rootId + "/" + attestorId);
+        synchronized (this.attestations) {
+            this.attestations.add(id);
+        }
+        if (revocable != null) {
+            this.revocable.add(revocable);
+        }
+    }
+
+    public void addRevocation(long id) {
+        synchronized (this.revocations) {
+            this.revocations.add(id);
+        }
+    }
+
+    public AttestorEntry randomAttestor(Random random) {
+        return random(this.attestors, random);
+    }
+
+    public AttestorEntry getAttestor(int index) {
+        synchronized (this.attestors) {
+            return this.attestors.get(index);
+        }
+    }
+
+    public List<RootEntry> getRoots() {
+        synchronized (this.roots) {
+            return new ArrayList<>(this.roots);
+        }
+    }
+
+    public RootEntry randomRoot(Random random) {
+        return random(this.roots, random);
+    }
+
+    public Long randomAttestation(Random random) {
+        return random(this.attestations, random);
+    }
+
+    public Long randomRevocation(Random random) {
+        return random(this.revocations, random);
+    }
+
+    public int getRootCount() {
+        synchronized (this.roots) {
+            return this.roots.size();
+        }
+    }
+
+    public int getAttestorCount() {
+        synchronized (this.attestors) {
+            return this.attestors.size();
+        }
+    }
+
+    // picks a root CA and an attestor with a known key that have no attestation yet, or returns false
+    public boolean claimPair(Random random, RootEntry[] root, AttestorEntry[] attestor) {
+        for (int i = 0; i < 10; i++) {
+            RootEntry candidateRoot = randomRoot(random);
+            AttestorEntry candidateAttestor = random(this.signers, random);
+            if (candidateRoot == null || candidateAttestor == null) {
+                return false;
+            }
+            if (this.attestedPairs.add(candidateRoot.getId() + "/" + candidateAttestor.getId())) {
+                root[0] = candidateRoot;
+                attestor[0] = candidateAttestor;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public AttestationEntry pollRevocable() {
+        return this.revocable.poll();
+    }
+
+    public String getValidationChain() {
+        return this.validationChain;
+    }
+
+    public void setValidationChain(String validationChain) {
+        this.validationChain = validationChain;
+    }
+
+    private static <T> T random(List<T> list, Random random) {
+        synchronized (list) {
+            return list.isEmpty() ? null : list.get(random.nextInt(list.size()));
+        }
+    }
+
+    public static class AttestorEntry {
+
+        private final long id;
+        // null for attestors that were not created by the load test
+        private final KeyPair keyPair;
+
+        public AttestorEntry(long id, KeyPair keyPair) {
+            this.id = id;
+            this.keyPair = keyPair;
+        }
+
+        public long getId() {
+            return this.id;
+        }
+
+        public KeyPair getKeyPair() {
+            return this.keyPair;
+        }
+    }
+
+    public static class RootEntry {
+
+        private final long id;
+        private final String pem;
+        private final String fingerprint;
+
+        public RootEntry(long id, String pem, String fingerprint) {
+            this.id = id;
+            this.pem = pem;
+            this.fingerprint = fingerprint;
+        }
+
+        public long getId() {
+            return this.id;
+        }
+
+        public String getPem() {
+            return this.pem;
+        }
+
+        public String getFingerprint() {
+            return this.fingerprint;
+        }
+    }
+
+    public static class AttestationEntry {
+
+        private final long id;
+        private final long rootId;
+        private final AttestorEntry attestor;
+        private final String signature;
+
+        public AttestationEntry(long id, long rootId, AttestorEntry attestor, String signature) {
+            this.id = id;
+            this.rootId = rootId;
+            this.attestor = attestor;
+            this.signature = signature;
+        }
+
+        public long getId() {
+            return this.id;
+        }
+
+        public long getRootId() {
+            return this.rootId;
+        }
+
+        public AttestorEntry getAttestor() {
+            return this.attestor;
+        }
+
+        public String getSignature() {
+            return this.signature;
+        }
+    }
+}
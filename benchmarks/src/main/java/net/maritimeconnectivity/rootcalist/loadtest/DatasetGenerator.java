@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.maritimeconnectivity.rootcalist.benchmarks.KeyType;
+import net.maritimeconnectivity.rootcalist.benchmarks.TestCertificates;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fills the service with root CAs, attestors, attestations and revocations through its API, so it works with whatever
+ * database the service runs on. Entities that already exist are loaded first and kept.
+ */
+public class DatasetGenerator {
+
+    // the limit of the batch endpoints of the service
+    private static final int BATCH_SIZE = 1000;
+
+    private final ApiClient client;
+    private final KeyType keyType;
+    private final Dataset dataset;
+    private final WriteRequests writeRequests;
+
+    public DatasetGenerator(ApiClient client, KeyType keyType) {
+        this.client = client;
+        this.keyType = keyType;
+        this.dataset = new Dataset(keyType.getSignatureAlgorithm());
+        this.writeRequests = new WriteRequests(this.dataset, keyType);
+    }
+
+    public Dataset generate(int rootCount, int attestorCount, int attestationCount, int revocationCount) throws Exception {
+        loadExisting();
+
+        List<Dataset.AttestorEntry> attestors = new ArrayList<>();
+        for (int i = 0; i < attestorCount; i++) {
+            int before = this.dataset.getAttestorCount();
+            execute(this.writeRequests.createAttestor());
+            attestors.add(this.dataset.getAttestor(before));
+        }
+        System.out.printf("Created %d attestors%n", attestors.size());
+
+        // a root CA with an intermediate CA and a leaf for the validation endpoint
+        TestCertificates chain = TestCertificates.generate(this.keyType, 3);
+        execute(this.writeRequests.createRoot(chain.getPems()[2]));
+        this.dataset.setValidationChain(chain.getPems()[0] + chain.getPems()[1]);
+
+        List<TestCertificates> certificates = IntStream.range(0, rootCount).parallel()
+                .mapToObj(i -> generateRoot())
+                .collect(Collectors.toList());
+        for (int i = 0; i < certificates.size(); i += BATCH_SIZE) {
+            execute(this.writeRequests.createRoots(certificates.subList(i, Math.min(i + BATCH_SIZE, certificates.size()))));
+        }
+        System.out.printf("Created %d root CAs%n", certificates.size() + 1);
+
+        // each attestor attests the root CAs in turn, so every pair is unique
+        List<Dataset.RootEntry> roots = this.dataset.getRoots();
+        int count = attestors.isEmpty() ? 0 : Math.min(attestationCount, roots.size() * attestors.size());
+        for (int i = 0; i < count; i += BATCH_SIZE) {
+            List<Dataset.RootEntry> batchRoots = new ArrayList<>();
+            List<Dataset.AttestorEntry> batchAttestors = new ArrayList<>();
+            for (int j = i; j < Math.min(i + BATCH_SIZE, count); j++) {
+                batchRoots.add(roots.get(j % roots.size()));
+                batchAttestors.add(attestors.get(j / roots.size()));
+            }
+            execute(this.writeRequests.attestBatch(batchRoots, batchAttestors));
+        }
+        System.out.printf("Created %d attestations%n", count);
+
+        int revoked = 0;
+        while (revoked < revocationCount) {
+            Request request = this.writeRequests.revokeBatch(Math.min(BATCH_SIZE, revocationCount - revoked));
+            if (request == null) {
+                break;
+            }
+            execute(request);
+            revoked += BATCH_SIZE;
+        }
+        System.out.printf("Created %d revocations%n", Math.min(revoked, revocationCount));
+        return this.dataset;
+    }
+
+    private void loadExisting() throws IOException {
+        for (JsonNode rootCA : this.client.getJson("/api/roots")) {
+            String pem = rootCA.path("certificate").asText();
+            this.dataset.addRoot(new Dataset.RootEntry(rootCA.path("id").asLong(), pem, CryptoUtil.fingerprint(pem)));
+        }
+        for (JsonNode attestor : this.client.getJson("/api/attestors")) {
+            this.dataset.addAttestor(new Dataset.AttestorEntry(attestor.path("id").asLong(), null));
+        }
+        for (JsonNode attestation : this.client.getJson("/api/attestations")) {
+            this.dataset.addAttestation(attestation.path("id").asLong(), attestation.path("rootCA").asLong(),
+                    attestation.path("attestor").asLong(), null);
+        }
+        for (JsonNode revocation : this.client.getJson("/api/revocations")) {
+            this.dataset.addRevocation(revocation.path("id").asLong());
+        }
+        System.out.printf("Loaded %d existing root CAs and %d attestors%n", this.dataset.getRootCount(), this.dataset.getAttestorCount());
+    }
+
+    private TestCertificates generateRoot() {
+        try {
+            return TestCertificates.generate(this.keyType, 1);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not generate a root CA certificate", e);
+        }
+    }
+
+    private void execute(Request request) throws IOException {
+        ApiClient.Response response = this.client.execute(request);
+        if (response.getStatus() >= 400) {
+            throw new IOException(request.getMethod() + " " + request.getPath() + " failed with status "
+                    + response.getStatus() + ": " + new String(response.getBody()));
+        }
+        request.onSuccess(response);
+    }
+}
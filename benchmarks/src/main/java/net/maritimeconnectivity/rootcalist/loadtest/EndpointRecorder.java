@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import java.util.Arrays;
+
+// the latencies of the requests to one endpoint, kept in full so the percentiles are exact
+public class EndpointRecorder {
+
+    private final String name;
+    private final String pattern;
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    public EndpointRecorder(String name, String pattern) {
+        this.name = name;
+        this.pattern = pattern;
+    }
+
+    public synchronized void record(long nanos, boolean error) {
+        if (this.count == this.latencies.length) {
+            this.latencies = Arrays.copyOf(this.latencies, this.latencies.length * 2);
+        }
+        this.latencies[this.count++] = nanos;
+        if (error) {
+            this.errors++;
+        }
+    }
+
+    public synchronized void reset() {
+        this.count = 0;
+        this.errors = 0;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    public synchronized int getCount() {
+        return this.count;
+    }
+
+    public synchronized int getErrors() {
+        return this.errors;
+    }
+
+    // returns the latencies in milliseconds at the given percentiles, or zeros if there were no requests
+    public synchronized double[] getPercentiles(double... percentiles) {
+        long[] sorted = Arrays.copyOf(this.latencies, this.count);
+        Arrays.sort(sorted);
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length && sorted.length > 0; i++) {
+            int index = (int) Math.ceil(percentiles[i] / 100 * sorted.length) - 1;
+            values[i] = sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sends requests to every endpoint of the API from a number of threads for a given time. Each request is a write with
+ * the given probability, the endpoint is then picked by weight from the reads or the writes. Only the time of the
+ * request itself is measured, generating certificates and signatures is not.
+ */
+public class LoadDriver {
+
+    private static final String DIAGNOSTICS_PATH = "/api/diagnostics/sql-statements";
+
+    private final ApiClient client;
+    private final Dataset dataset;
+    private final WriteRequests writeRequests;
+    private final List<Operation> reads = new ArrayList<>();
+    private final List<Operation> writes = new ArrayList<>();
+    private final Map<String, EndpointRecorder> recorders = new LinkedHashMap<>();
+    // every request to any endpoint
+    private final EndpointRecorder total = new EndpointRecorder("Total", null);
+
+    public LoadDriver(ApiClient client, Dataset dataset, WriteRequests writeRequests) {
+        this.client = client;
+        this.dataset = dataset;
+        this.writeRequests = writeRequests;
+
+        read("GET /api/roots", 3, random -> Request.get("/api/roots"));
+        read("GET /api/roots?attestorId", 2, random -> withAttestor(random, id -> Request.get("/api/roots?attestorId=" + id)));
+        read("GET /api/roots?after&limit", 2, random -> withRoot(random, root -> Request.get("/api/roots?after=" + root.getId() + "&limit=100")));
+        read("GET /api/roots.bin", 1, random -> Request.get("/api/roots.bin"));
+        read("GET /api/roots.pem", 1, random -> Request.get("/api/roots.pem"));
+        read("GET /api/root/{id}", 3, random -> withRoot(random, root -> Request.get("/api/root/" + root.getId())));
+        read("GET /api/root/by-fingerprint/{fingerprint}", 3, random ->
+                withRoot(random, root -> Request.get("/api/root/by-fingerprint/" + root.getFingerprint())));
+        read("POST /api/roots/contains", 1, this::contains);
+        read("GET /api/attestors", 1, random -> Request.get("/api/attestors"));
+        read("GET /api/attestor/{id}", 2, random -> withAttestor(random, id -> Request.get("/api/attestor/" + id)));
+        read("GET /api/attestations", 1, random -> Request.get("/api/attestations"));
+        read("GET /api/attestations?after&limit", 1, random ->
+                withId(dataset.randomAttestation(random), id -> Request.get("/api/attestations?after=" + id + "&limit=100")));
+        read("GET /api/attestations (ndjson)", 1, random -> Request.get("/api/attestations", "application/x-ndjson"));
+        read("GET /api/attestation/{id}", 2, random -> withId(dataset.randomAttestation(random), id -> Request.get("/api/attestation/" + id)));
+        read("GET /api/revocations", 1, random -> Request.get("/api/revocations"));
+        read("GET /api/revocations (ndjson)", 1, random -> Request.get("/api/revocations", "application/x-ndjson"));
+        read("GET /api/revocation/{id}", 1, random -> withId(dataset.randomRevocation(random), id -> Request.get("/api/revocation/" + id)));
+        read("GET /api/changes", 2, random -> Request.get("/api/changes?limit=100&since=" + random.nextInt(Math.max(1, dataset.getRootCount()))));
+        read("POST /api/validate", 2, random -> dataset.getValidationChain() == null ? null
+                : Request.post("/api/validate", "application/pem-certificate-chain", dataset.getValidationChain().getBytes(UTF_8), null));
+        read("GET /api/events", 1, random -> Request.eventStream("/api/events"));
+
+        write("POST /api/root", 3, random -> writeRequests.createRoot());
+        write("POST /api/roots/bulk", 1, random -> writeRequests.createRoots(10));
+        write("POST /api/attestor", 1, random -> writeRequests.createAttestor());
+        write("POST /api/attestor/chain", 1, random -> writeRequests.createAttestorFromChain());
+        write("POST /api/attestation", 3, writeRequests::attest);
+        write("POST /api/attestations/batch", 1, random -> writeRequests.attestBatch(random, 10));
+        write("POST /api/revocation", 2, random -> writeRequests.revoke());
+        write("POST /api/revocations/batch", 1, random -> writeRequests.revokeBatch(10));
+    }
+
+    // runs the warmup without recording, then measures for the given duration
+    public LoadReport run(int threads, double writeRatio, int warmupSeconds, int durationSeconds) throws Exception {
+        if (warmupSeconds > 0) {
+            System.out.printf("Warming up for %d seconds%n", warmupSeconds);
+            runPhase(threads, writeRatio, warmupSeconds, false);
+        }
+        boolean diagnostics = this.client.execute(Request.delete(DIAGNOSTICS_PATH)).getStatus() < 400;
+        if (!diagnostics) {
+            System.out.println("SQL statements are not counted, start the service with rootcalist.diagnostics.sql-statements=true to count them");
+        }
+        System.out.printf("Measuring for %d seconds with %d threads and %.0f%% writes%n", durationSeconds, threads, writeRatio * 100);
+        for (EndpointRecorder recorder : this.recorders.values()) {
+            recorder.reset();
+        }
+        this.total.reset();
+        runPhase(threads, writeRatio, durationSeconds, true);
+
+        Map<String, long[]> statements = new LinkedHashMap<>();
+        if (diagnostics) {
+            for (JsonNode endpoint : this.client.getJson(DIAGNOSTICS_PATH)) {
+                statements.put(endpoint.path("endpoint").asText(),
+                        new long[]{endpoint.path("requests").asLong(), endpoint.path("statements").asLong()});
+            }
+        }
+        return new LoadReport(new ArrayList<>(this.recorders.values()), statements, durationSeconds);
+    }
+
+    // the requests of the last measurement over all endpoints
+    public EndpointRecorder getTotal() {
+        return this.total;
+    }
+
+    private void runPhase(int threads, double writeRatio, int seconds, boolean record) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Operation operation = pick(random.nextDouble() < writeRatio ? this.writes : this.reads, random);
+                    execute(operation, random, record);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 120L, TimeUnit.SECONDS);
+    }
+
+    private void execute(Operation operation, Random random, boolean record) {
+        Request request;
+        try {
+            request = operation.factory.create(random);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not prepare " + operation.recorder.getName(), e);
+        }
+        if (request == null) {
+            // nothing left to do for this endpoint, e.g. no attestations left to revoke
+            return;
+        }
+        long start = System.nanoTime();
+        boolean error;
+        try {
+            ApiClient.Response response = this.client.execute(request);
+            error = response.getStatus() >= 400;
+            if (!error) {
+                request.onSuccess(response);
+            }
+        } catch (IOException e) {
+            error = true;
+        }
+        if (record) {
+            long nanos = System.nanoTime() - start;
+            operation.recorder.record(nanos, error);
+            this.total.record(nanos, error);
+        }
+    }
+
+    private Request contains(Random random) throws IOException {
+        ArrayNode fingerprints = ApiClient.getObjectMapper().createArrayNode();
+        byte[] unknown = new byte[32];
+        for (int i = 0; i < 100; i++) {
+            Dataset.RootEntry root = this.dataset.randomRoot(random);
+            if (root != null && random.nextBoolean()) {
+                fingerprints.add(root.getFingerprint());
+            } else {
+                random.nextBytes(unknown);
+                fingerprints.add(Hex.toHexString(unknown));
+            }
+        }
+        return Request.post("/api/roots/contains", "application/json", ApiClient.getObjectMapper().writeValueAsBytes(fingerprints), null);
+    }
+
+    private Request withRoot(Random random, RequestFunction<Dataset.RootEntry> function) throws Exception {
+        Dataset.RootEntry root = this.dataset.randomRoot(random);
+        return root != null ? function.apply(root) : null;
+    }
+
+    private Request withAttestor(Random random, RequestFunction<Long> function) throws Exception {
+        Dataset.AttestorEntry attestor = this.dataset.randomAttestor(random);
+        return attestor != null ? function.apply(attestor.getId()) : null;
+    }
+
+    private static Request withId(Long id, RequestFunction<Long> function) throws Exception {
+        return id != null ? function.apply(id) : null;
+    }
+
+    private static Operation pick(List<Operation> operations, Random random) {
+        int total = 0;
+        for (Operation operation : operations) {
+            total += operation.weight;
+        }
+        int value = random.nextInt(total);
+        for (Operation operation : operations) {
+            value -= operation.weight;
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private void read(String name, int weight, RequestFactory factory) {
+        this.reads.add(operation(name, weight, factory));
+    }
+
+    private void write(String name, int weight, RequestFactory factory) {
+        this.writes.add(operation(name, weight, factory));
+    }
+
+    // the statements are counted by the service per path pattern, the name is cut down to that
+    private Operation operation(String name, int weight, RequestFactory factory) {
+        String pattern = name.split("\\?| \\(")[0];
+        EndpointRecorder recorder = new EndpointRecorder(name, pattern);
+        this.recorders.put(name, recorder);
+        return new Operation(recorder, weight, factory);
+    }
+
+    private interface RequestFactory {
+
+        // returns null if the request can not be made right now
+        Request create(Random random) throws Exception;
+    }
+
+    private interface RequestFunction<T> {
+
+        Request apply(T value) throws Exception;
+    }
+
+    private static class Operation {
+
+        private final EndpointRecorder recorder;
+        private final int weight;
+        private final RequestFactory factory;
+
+        private Operation(EndpointRecorder recorder, int weight, RequestFactory factory) {
+            this.recorder = recorder;
+            this.weight = weight;
+            this.factory = factory;
+        }
+    }
+}
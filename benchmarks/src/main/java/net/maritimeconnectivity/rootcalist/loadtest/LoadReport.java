@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+// latency percentiles, throughput and SQL statements per endpoint
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 100};
+
+    private final List<EndpointRecorder> recorders;
+    // requests and statements counted by the service, by method and path pattern
+    private final Map<String, long[]> statements;
+    private final int durationSeconds;
+
+    public LoadReport(List<EndpointRecorder> recorders, Map<String, long[]> statements, int durationSeconds) {
+        this.recorders = recorders;
+        this.statements = statements;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-45s %8s %7s %9s %9s %9s %9s %9s %8s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "SQL/req");
+        int total = 0;
+        for (EndpointRecorder recorder : this.recorders) {
+            double[] percentiles = recorder.getPercentiles(PERCENTILES);
+            Double sql = statementsPerRequest(recorder);
+            out.printf("%-45s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %8s%n", recorder.getName(), recorder.getCount(),
+                    recorder.getErrors(), (double) recorder.getCount() / this.durationSeconds, percentiles[0],
+                    percentiles[1], percentiles[2], percentiles[3], sql != null ? String.format("%.1f", sql) : "-");
+            total += recorder.getCount();
+        }
+        out.printf("%nTotal: %d requests, %.1f requests per second%n", total, (double) total / this.durationSeconds);
+    }
+
+    public void write(File file) throws IOException {
+        ArrayNode endpoints = ApiClient.getObjectMapper().createArrayNode();
+        for (EndpointRecorder recorder : this.recorders) {
+            double[] percentiles = recorder.getPercentiles(PERCENTILES);
+            ObjectNode endpoint = endpoints.addObject();
+            endpoint.put("endpoint", recorder.getName());
+            endpoint.put("requests", recorder.getCount());
+            endpoint.put("errors", recorder.getErrors());
+            endpoint.put("throughput", (double) recorder.getCount() / this.durationSeconds);
+            endpoint.put("p50", percentiles[0]);
+            endpoint.put("p90", percentiles[1]);
+            endpoint.put("p99", percentiles[2]);
+            endpoint.put("max", percentiles[3]);
+            Double sql = statementsPerRequest(recorder);
+            if (sql != null) {
+                endpoint.put("sqlStatementsPerRequest", sql);
+            }
+        }
+        ApiClient.getObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, endpoints);
+    }
+
+    // variants of an endpoint, e.g. with different query parameters, share the count of their path pattern
+    private Double statementsPerRequest(EndpointRecorder recorder) {
+        long[] counts = this.statements.get(recorder.getPattern());
+        if (counts == null || counts[0] == 0) {
+            return null;
+        }
+        return (double) counts[1] / counts[0];
+    }
+}
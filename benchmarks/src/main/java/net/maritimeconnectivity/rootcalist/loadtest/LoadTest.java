@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import net.maritimeconnectivity.rootcalist.benchmarks.KeyType;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fills a running service with a synthetic dataset and then puts it under load. Options are given as --name=value:
+ * url, roots, attestors, attestations, revocations, keyType, threads, writes (the share of write requests between 0
+ * and 1), warmup and duration (in seconds) and report (a file to write the results to as JSON).
+ * With concurrency, a comma separated list of thread counts, the load is run once per count instead of with threads,
+ * and the report shows the latency over all endpoints against the number of connections in flight.
+ */
+public class LoadTest {
+
+    private LoadTest() {
+
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options must be given as --name=value: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int[] concurrency = options.containsKey("concurrency")
+                ? Arrays.stream(options.get("concurrency").split(",")).mapToInt(Integer::parseInt).toArray() : null;
+        if (concurrency != null) {
+            // each thread keeps its connection open, by default only 5 idle connections are kept alive
+            System.setProperty("http.maxConnections", String.valueOf(Arrays.stream(concurrency).max().getAsInt()));
+        }
+        ApiClient client = new ApiClient(options.getOrDefault("url", "http://localhost:8080"));
+        KeyType keyType = KeyType.valueOf(options.getOrDefault("keyType", KeyType.EC_P256.name()));
+
+        DatasetGenerator generator = new DatasetGenerator(client, keyType);
+        Dataset dataset = generator.generate(intOption(options, "roots", 1000), intOption(options, "attestors", 10),
+                intOption(options, "attestations", 2000), intOption(options, "revocations", 200));
+
+        int duration = intOption(options, "duration", 60);
+        if (duration > 0) {
+            LoadDriver driver = new LoadDriver(client, dataset, new WriteRequests(dataset, keyType));
+            double writes = Double.parseDouble(options.getOrDefault("writes", "0.05"));
+            int warmup = intOption(options, "warmup", 10);
+            if (concurrency != null) {
+                ConcurrencyReport report = new ConcurrencyReport();
+                for (int threads : concurrency) {
+                    driver.run(threads, writes, warmup, duration);
+                    report.add(threads, driver.getTotal(), duration);
+                }
+                report.print(System.out);
+                if (options.containsKey("report")) {
+                    report.write(new File(options.get("report")));
+                }
+            } else {
+                LoadReport report = driver.run(intOption(options, "threads", 8), writes, warmup, duration);
+                report.print(System.out);
+                if (options.containsKey("report")) {
+                    report.write(new File(options.get("report")));
+                }
+            }
+        }
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import java.io.IOException;
+
+// a request that has been prepared before it is timed, the callback updates the dataset with what has been created
+public class Request {
+
+    private final String method;
+    private final String path;
+    private final String contentType;
+    private final String accept;
+    private final byte[] body;
+    private final boolean eventStream;
+    private final Callback callback;
+
+    private Request(String method, String path, String contentType, String accept, byte[] body, boolean eventStream,
+                    Callback callback) {
+        this.method = method;
+        this.path = path;
+        this.contentType = contentType;
+        this.accept = accept;
+        this.body = body;
+        this.eventStream = eventStream;
+        this.callback = callback;
+    }
+
+    public static Request get(String path) {
+        return new Request("GET", path, null, null, null, false, null);
+    }
+
+    public static Request get(String path, String accept) {
+        return new Request("GET", path, null, accept, null, false, null);
+    }
+
+    public static Request eventStream(String path) {
+        return new Request("GET", path, null, null, null, true, null);
+    }
+
+    public static Request post(String path, String contentType, byte[] body, Callback callback) {
+        return new Request("POST", path, contentType, null, body, false, callback);
+    }
+
+    public static Request delete(String path) {
+        return new Request("DELETE", path, null, null, null, false, null);
+    }
+
+    public String getMethod() {
+        return this.method;
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    public String getAccept() {
+        return this.accept;
+    }
+
+    public byte[] getBody() {
+        return this.body;
+    }
+
+    public boolean isEventStream() {
+        return this.eventStream;
+    }
+
+    public void onSuccess(ApiClient.Response response) throws IOException {
+        if (this.callback != null) {
+            this.callback.onSuccess(response);
+        }
+    }
+
+    public interface Callback {
+
+        void onSuccess(ApiClient.Response response) throws IOException;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.maritimeconnectivity.rootcalist.benchmarks.KeyType;
+import net.maritimeconnectivity.rootcalist.benchmarks.TestCertificates;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// builds the requests that create entities, with new certificates and valid signatures
+public class WriteRequests {
+
+    private static final String PEM_FILE = "application/x-pem-file";
+    private static final String PEM_CHAIN = "application/pem-certificate-chain";
+    private static final String JSON = "application/json";
+
+    private final Dataset dataset;
+    private final KeyType keyType;
+
+    public WriteRequests(Dataset dataset, KeyType keyType) {
+        this.dataset = dataset;
+        this.keyType = keyType;
+    }
+
+    public Request createRoot() throws Exception {
+        return createRoot(TestCertificates.generate(this.keyType, 1).getChainPem());
+    }
+
+    public Request createRoot(String pem) {
+        return Request.post("/api/root", PEM_FILE, pem.getBytes(UTF_8), response -> addRoot(response.json()));
+    }
+
+    public Request createRoots(int count) throws Exception {
+        List<TestCertificates> certificates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            certificates.add(TestCertificates.generate(this.keyType, 1));
+        }
+        return createRoots(certificates);
+    }
+
+    public Request createRoots(List<TestCertificates> certificates) {
+        StringBuilder bundle = new StringBuilder();
+        for (TestCertificates certificate : certificates) {
+            bundle.append(certificate.getChainPem());
+        }
+        return Request.post("/api/roots/bulk", PEM_FILE, bundle.toString().getBytes(UTF_8), response -> {
+            for (JsonNode item : response.json().path("items")) {
+                if ("CREATED".equals(item.path("status").asText())) {
+                    addRoot(item.path("result"));
+                }
+            }
+        });
+    }
+
+    public Request createAttestor() throws Exception {
+        TestCertificates certificate = TestCertificates.generate(this.keyType, 1);
+        return Request.post("/api/attestor", PEM_FILE, certificate.getChainPem().getBytes(UTF_8), response ->
+                this.dataset.addAttestor(new Dataset.AttestorEntry(response.json().path("id").asLong(), certificate.getKeyPair(0))));
+    }
+
+    // the attestor is issued by a new intermediate CA, it is not added to the dataset since the service stores the
+    // chain as its certificate
+    public Request createAttestorFromChain() throws Exception {
+        TestCertificates chain = TestCertificates.generate(this.keyType, 3);
+        String body = chain.getPems()[0] + chain.getPems()[1];
+        return Request.post("/api/attestor/chain", PEM_CHAIN, body.getBytes(UTF_8), null);
+    }
+
+    // returns null if there is no root CA and attestor left that have no attestation yet
+    public Request attest(Random random) throws Exception {
+        Dataset.RootEntry[] root = new Dataset.RootEntry[1];
+        Dataset.AttestorEntry[] attestor = new Dataset.AttestorEntry[1];
+        if (!this.dataset.claimPair(random, root, attestor)) {
+            return null;
+        }
+        String signature = this.dataset.sign(attestor[0].getKeyPair(), root[0].getPem());
+        ObjectNode body = attestation(root[0], attestor[0], signature);
+        return Request.post("/api/attestation", JSON, ApiClient.getObjectMapper().writeValueAsBytes(body), response ->
+                addAttestation(response.json(), root[0], attestor[0], signature));
+    }
+
+    public Request attestBatch(Random random, int size) throws Exception {
+        List<Dataset.RootEntry> roots = new ArrayList<>();
+        List<Dataset.AttestorEntry> attestors = new ArrayList<>();
+        Dataset.RootEntry[] root = new Dataset.RootEntry[1];
+        Dataset.AttestorEntry[] attestor = new Dataset.AttestorEntry[1];
+        while (roots.size() < size && this.dataset.claimPair(random, root, attestor)) {
+            roots.add(root[0]);
+            attestors.add(attestor[0]);
+        }
+        return roots.isEmpty() ? null : attestBatch(roots, attestors);
+    }
+
+    // the root CAs and attestors are given as pairs, one attestation is made for each index
+    public Request attestBatch(List<Dataset.RootEntry> roots, List<Dataset.AttestorEntry> attestors) throws Exception {
+        ArrayNode body = ApiClient.getObjectMapper().createArrayNode();
+        List<String> signatures = new ArrayList<>(roots.size());
+        for (int i = 0; i < roots.size(); i++) {
+            String signature = this.dataset.sign(attestors.get(i).getKeyPair(), roots.get(i).getPem());
+            signatures.add(signature);
+            body.add(attestation(roots.get(i), attestors.get(i), signature));
+        }
+        return Request.post("/api/attestations/batch", JSON, ApiClient.getObjectMapper().writeValueAsBytes(body), response -> {
+            for (JsonNode item : response.json()) {
+                int index = item.path("index").asInt();
+                if ("CREATED".equals(item.path("status").asText())) {
+                    addAttestation(item.path("result"), roots.get(index), attestors.get(index), signatures.get(index));
+                }
+            }
+        });
+    }
+
+    // returns null if there is nothing left to revoke
+    public Request revoke() throws Exception {
+        Dataset.AttestationEntry attestation = this.dataset.pollRevocable();
+        if (attestation == null) {
+            return null;
+        }
+        ObjectNode body = revocation(attestation);
+        return Request.post("/api/revocation", JSON, ApiClient.getObjectMapper().writeValueAsBytes(body), response ->
+                this.dataset.addRevocation(response.json().path("id").asLong()));
+    }
+
+    public Request revokeBatch(int size) throws Exception {
+        ArrayNode body = ApiClient.getObjectMapper().createArrayNode();
+        Dataset.AttestationEntry attestation;
+        while (body.size() < size && (attestation = this.dataset.pollRevocable()) != null) {
+            body.add(revocation(attestation));
+        }
+        if (body.size() == 0) {
+            return null;
+        }
+        return Request.post("/api/revocations/batch", JSON, ApiClient.getObjectMapper().writeValueAsBytes(body), response -> {
+            for (JsonNode item : response.json()) {
+                if ("CREATED".equals(item.path("status").asText())) {
+                    this.dataset.addRevocation(item.path("result").path("id").asLong());
+                }
+            }
+        });
+    }
+
+    private void addRoot(JsonNode rootCA) throws IOException {
+        String pem = rootCA.path("certificate").asText();
+        this.dataset.addRoot(new Dataset.RootEntry(rootCA.path("id").asLong(), pem, CryptoUtil.fingerprint(pem)));
+    }
+
+    private void addAttestation(JsonNode attestation, Dataset.RootEntry root, Dataset.AttestorEntry attestor, String signature) {
+        long id = attestation.path("id").asLong();
+        this.dataset.addAttestation(id, root.getId(), attestor.getId(), new Dataset.AttestationEntry(id, root.getId(), attestor, signature));
+    }
+
+    private ObjectNode attestation(Dataset.RootEntry root, Dataset.AttestorEntry attestor, String signature) {
+        ObjectNode attestation = ApiClient.getObjectMapper().createObjectNode();
+        attestation.put("attestorId", attestor.getId());
+        attestation.put("rootCAid", root.getId());
+        attestation.put("signature", signature);
+        attestation.put("algorithmIdentifier", this.dataset.getSignatureAlgorithm());
+        return attestation;
+    }
+
+    // a revocation is signed over the HEX encoded signature of the attestation
+    private ObjectNode revocation(Dataset.AttestationEntry attestation) throws Exception {
+        ObjectNode revocation = ApiClient.getObjectMapper().createObjectNode();
+        revocation.put("attestorId", attestation.getAttestor().getId());
+        revocation.put("rootCAid", attestation.getRootId());
+        revocation.put("attestationId", attestation.getId());
+        revocation.put("signature", this.dataset.sign(attestation.getAttestor().getKeyPair(), attestation.getSignature()));
+        revocation.put("algorithmIdentifier", this.dataset.getSignatureAlgorithm());
+        return revocation;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.utils.SignatureAlgorithms;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+@Slf4j
+@Configuration
+public class CryptoConfig {
+
+    // resolves the supported signature algorithms at startup instead of on the first submission
+    @PostConstruct
+    public void init() {
+        log.info("Registered {} signature algorithms from provider {}", SignatureAlgorithms.getSupported().size(),
+                SignatureAlgorithms.getProvider().getName());
+    }
+
+    // signature verification is CPU bound, so it runs on its own pool that is bounded by the number of cores
+    @Bean(destroyMethod = "shutdown")
+    public CryptoExecutor cryptoExecutor(@Value("${rootcalist.crypto.pool-size:0}") int poolSize,
+                                         @Value("${rootcalist.crypto.queue-capacity:1000}") int queueCapacity,
+                                         MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new CryptoExecutor(threads, queueCapacity, meterRegistry);
+    }
+
+    // stores wait for the lock of the change log sequence, a few threads are enough to keep the writes going
+    @Bean(destroyMethod = "shutdown")
+    public SubmissionExecutor submissionExecutor(CryptoExecutor cryptoExecutor, EntityManagerFactory entityManagerFactory,
+                                                 @Value("${rootcalist.submission.pool-size:2}") int poolSize,
+                                                 @Value("${rootcalist.submission.queue-capacity:1000}") int queueCapacity,
+                                                 @Value("${rootcalist.crypto.retry-after:1}") long retryAfterSeconds,
+                                                 MeterRegistry meterRegistry) {
+        return new SubmissionExecutor(cryptoExecutor, entityManagerFactory, poolSize, queueCapacity, retryAfterSeconds,
+                meterRegistry);
+    }
+}
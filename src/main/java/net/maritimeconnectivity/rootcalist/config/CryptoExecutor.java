@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool for CPU bound cryptographic work such as signature verification. It deliberately does not implement
+ * {@link java.util.concurrent.Executor} so that it is never picked up as the general purpose task executor.
+ * The queue depth, the time tasks wait in the queue and their execution time are published as the executor metrics
+ * with the name crypto.
+ */
+public class CryptoExecutor {
+
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+
+    public CryptoExecutor(int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("crypto-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, this.pool, "crypto", Tags.empty());
+    }
+
+    // when the queue is full the submitting thread does the work itself, which throttles the submitter
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, this.executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.supplyAsync(supplier, Runnable::run);
+        }
+    }
+
+    // throws RejectedExecutionException when the queue is full, for submitters that would rather give up than wait
+    public <T> CompletableFuture<T> trySupplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this.executor);
+    }
+
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+}
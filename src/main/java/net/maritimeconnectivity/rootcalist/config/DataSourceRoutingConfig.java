@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the data source of Spring Boot with one that sends read-only transactions of GET requests to the replicas
+ * given in rootcalist.datasource.replica-urls. The replicas use the same credentials and pool settings as the primary.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "rootcalist.datasource.replica-urls")
+public class DataSourceRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadRoutingDataSource readRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                       MeterRegistry meterRegistry,
+                                                       @Value("${rootcalist.datasource.replica-urls}") String[] replicaUrls,
+                                                       @Value("${rootcalist.datasource.max-replica-lag:5s}") Duration maxLag,
+                                                       @Value("${rootcalist.datasource.replica-check-interval:2s}") Duration checkInterval) {
+        HikariDataSource primary = createPool(properties, environment, meterRegistry, properties.determineUrl(), "primary");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = createPool(properties, environment, meterRegistry, replicaUrls[i].trim(), name);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        ReadRoutingDataSource dataSource = new ReadRoutingDataSource(primary, replicas, maxLag, checkInterval);
+        log.info("Routing read-only transactions to {} replicas with a maximum lag of {}", replicas.size(), maxLag);
+        return dataSource;
+    }
+
+    // the replicas are only checked once the schema of the primary has been created or migrated
+    @EventListener(ApplicationReadyEvent.class)
+    public void startReplicaChecks(ApplicationReadyEvent event) {
+        event.getApplicationContext().getBean(ReadRoutingDataSource.class).start();
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(ReadRoutingDataSource readRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readRoutingDataSource);
+    }
+
+    // Spring makes Hibernate keep the connection of the first transaction until the end of the request, which would make
+    // a write after a read in the same request use the connection of the replica
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    // otherwise Spring fetches the connection of read-only transactions to prepare it and expects to get the same one
+    // back when the transaction ends, which is not the case once it is released after the transaction
+    @Bean
+    public static BeanPostProcessor unpreparedConnections() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HibernateJpaVendorAdapter) {
+                    ((HibernateJpaVendorAdapter) bean).setPrepareConnection(false);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadRoutingFilter> readRoutingFilter(ReadRoutingDataSource readRoutingDataSource,
+                                                                       @Value("${rootcalist.datasource.read-your-writes:10s}") Duration sticky) {
+        FilterRegistrationBean<ReadRoutingFilter> registration = new FilterRegistrationBean<>(new ReadRoutingFilter(readRoutingDataSource, sticky));
+        registration.addUrlPatterns("/api/*");
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder replicaMetrics(ReadRoutingDataSource readRoutingDataSource) {
+        return registry -> {
+            for (ReadRoutingDataSource.Replica replica : readRoutingDataSource.getReplicas()) {
+                Gauge.builder("rootcalist.datasource.replica.lag", replica, ReadRoutingDataSource.Replica::getLag)
+                        .tag("replica", replica.getName())
+                        .description("How far the replica lags behind the primary, -1 if it could not be checked")
+                        .baseUnit("milliseconds")
+                        .register(registry);
+                Gauge.builder("rootcalist.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                        .tag("replica", replica.getName())
+                        .description("Whether read-only transactions are sent to the replica")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties, Environment environment,
+                                               MeterRegistry meterRegistry, String url, String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
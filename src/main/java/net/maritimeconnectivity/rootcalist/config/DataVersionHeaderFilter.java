@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Adds the validators that {@link DataVersionInterceptor} has chosen for a request once the response turns out to be
+ * successful. The interceptor runs before the handler, so if it set them itself an error response, like the 404 for
+ * an unknown ID, would carry the validators of the data. They are added when the response is about to be committed,
+ * which does not hold back streamed responses.
+ */
+public class DataVersionHeaderFilter extends OncePerRequestFilter {
+
+    static final String ETAG_ATTRIBUTE = DataVersionHeaderFilter.class.getName() + ".eTag";
+    static final String LAST_MODIFIED_ATTRIBUTE = DataVersionHeaderFilter.class.getName() + ".lastModified";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ValidatingResponse validatingResponse = new ValidatingResponse(request, response);
+        filterChain.doFilter(request, validatingResponse);
+        // responses without a body are only committed after the filter chain
+        validatingResponse.addValidators();
+    }
+
+    private static final class ValidatingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private boolean done;
+
+        private ValidatingResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        private void addValidators() {
+            if (this.done) {
+                return;
+            }
+            this.done = true;
+            String eTag = (String) this.request.getAttribute(ETAG_ATTRIBUTE);
+            if (eTag == null || isCommitted() || getStatus() / 100 != 2) {
+                return;
+            }
+            if (getHeader(HttpHeaders.ETAG) == null) {
+                setHeader(HttpHeaders.ETAG, eTag);
+            }
+            Long lastModified = (Long) this.request.getAttribute(LAST_MODIFIED_ATTRIBUTE);
+            if (lastModified != null && getHeader(HttpHeaders.LAST_MODIFIED) == null) {
+                setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addValidators();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addValidators();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addValidators();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            this.done = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            this.done = true;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            this.done = true;
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.services.DataVersionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Set;
+
+// answers conditional GET requests with 304 before the handler has run any query or serialized anything. The
+// validators of other responses are added by DataVersionHeaderFilter once they are known to be successful
+public class DataVersionInterceptor implements HandlerInterceptor {
+
+    private final DataVersionService dataVersionService;
+    private final boolean negotiated;
+
+    public DataVersionInterceptor(DataVersionService dataVersionService) {
+        this(dataVersionService, false);
+    }
+
+    // negotiated is set for paths that serve several representations depending on the Accept header
+    public DataVersionInterceptor(DataVersionService dataVersionService, boolean negotiated) {
+        this.dataVersionService = dataVersionService;
+        this.negotiated = negotiated;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        // If-None-Match takes precedence over If-Modified-Since. Last-Modified only has a granularity of one second, a
+        // client that got it in the same second as the change and only sends If-Modified-Since would miss a later
+        // change in that second, so it is left out until the second is over and only the ETag is used. It is also
+        // left out as long as there has not been any change
+        long lastModified = this.dataVersionService.getLastModified();
+        if (lastModified <= 0 || lastModified / 1000 >= System.currentTimeMillis() / 1000) {
+            lastModified = -1;
+        }
+        String eTag = this.dataVersionService.getETag();
+        // a request that may be served by a replica gets the version the replicas had applied, so its validators are
+        // never newer than the data. Such requests are never conditional, see ReadRoutingFilter
+        Long replicaSequence = (Long) request.getAttribute(ReadRoutingFilter.REPLICA_SEQUENCE_ATTRIBUTE);
+        if (replicaSequence != null && replicaSequence < this.dataVersionService.getVersion()) {
+            eTag = "\"" + replicaSequence + "\"";
+            lastModified = -1;
+        }
+        if (this.negotiated) {
+            // a strong ETag must differ between the representations of the same data
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            eTag = withRepresentation(eTag, request);
+        }
+        // checked without the response first, as the validators must not be set before it is known to be successful
+        if (new ServletWebRequest(request).checkNotModified(eTag, lastModified)) {
+            new ServletWebRequest(request, response).checkNotModified(eTag, lastModified);
+            return false;
+        }
+        request.setAttribute(DataVersionHeaderFilter.ETAG_ATTRIBUTE, eTag);
+        if (lastModified > 0) {
+            request.setAttribute(DataVersionHeaderFilter.LAST_MODIFIED_ATTRIBUTE, lastModified);
+        }
+        return true;
+    }
+
+    // the JSON representation keeps the plain ETag, any other gets the subtype of its media type appended
+    @SuppressWarnings("unchecked")
+    private static String withRepresentation(String eTag, HttpServletRequest request) {
+        Set<MediaType> mediaTypes = (Set<MediaType>) request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+        if (mediaTypes == null || mediaTypes.isEmpty()) {
+            return eTag;
+        }
+        MediaType mediaType = mediaTypes.iterator().next();
+        if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + "-" + mediaType.getSubtype() + "\"";
+    }
+}
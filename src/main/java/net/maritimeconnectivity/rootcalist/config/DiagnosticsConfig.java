@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.utils.SqlStatementCounter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// counts the SQL statements per endpoint for load tests, see DiagnosticsController. Not meant for production
+@Configuration
+@ConditionalOnProperty(name = "rootcalist.diagnostics.sql-statements", havingValue = "true")
+public class DiagnosticsConfig {
+
+    @Bean
+    public SqlStatementStatistics sqlStatementStatistics() {
+        return new SqlStatementStatistics();
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementCountFilter> sqlStatementCountFilter(SqlStatementStatistics statistics) {
+        FilterRegistrationBean<SqlStatementCountFilter> registration = new FilterRegistrationBean<>(new SqlStatementCountFilter(statistics));
+        registration.addUrlPatterns("/api/*");
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounter() {
+        return properties -> properties.put("hibernate.session_factory.statement_inspector", new SqlStatementCounter());
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.controllers.EventStreamServlet;
+import net.maritimeconnectivity.rootcalist.services.EventStreamService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EventStreamConfig {
+
+    // a client whose queued events exceed this is disconnected and can resume with Last-Event-ID
+    @Bean
+    public ServletRegistrationBean<EventStreamServlet> eventStreamServlet(EventStreamService eventStreamService,
+                                                                          @Value("${rootcalist.events.max-pending-bytes:1048576}") int maxPendingBytes) {
+        ServletRegistrationBean<EventStreamServlet> registration =
+                new ServletRegistrationBean<>(new EventStreamServlet(eventStreamService, maxPendingBytes), "/api/events");
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.LruCache;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// the request timers, Hikari pool and Hibernate metrics are set up by Spring Boot, this adds the ones of the service
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cryptoCacheMetrics() {
+        return registry -> {
+            bindCache(registry, "certificates", CryptoUtil.getCertificateCache());
+            bindCache(registry, "signatures", CryptoUtil.getSignatureCache());
+            bindCache(registry, "verifier_providers", CryptoUtil.getVerifierProviderCache());
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseSizeFilter> responseSizeFilter(MeterRegistry registry) {
+        FilterRegistrationBean<ResponseSizeFilter> registration = new FilterRegistrationBean<>(new ResponseSizeFilter(registry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    // same names and tags as the caches that Micrometer instruments itself
+    private static void bindCache(MeterRegistry registry, String name, LruCache<?, ?> cache) {
+        FunctionCounter.builder("cache.gets", cache, LruCache::getHits)
+                .tags("cache", name, "result", "hit")
+                .description("The number of times a cache lookup has returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, LruCache::getMisses)
+                .tags("cache", name, "result", "miss")
+                .description("The number of times a cache lookup has not found a value")
+                .register(registry);
+        Gauge.builder("cache.size", cache, LruCache::size)
+                .tags("cache", name)
+                .description("The number of entries in the cache")
+                .register(registry);
+    }
+}
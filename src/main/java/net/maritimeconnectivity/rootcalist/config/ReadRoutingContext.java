@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks whether the read-only transactions of the current thread may be served by a replica of the database. This is
+ * only allowed for the requests that {@link ReadRoutingFilter} lets through, everything else uses the primary.
+ */
+public class ReadRoutingContext {
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private ReadRoutingContext() {
+
+    }
+
+    public static boolean isReplicaAllowed() {
+        return Boolean.TRUE.equals(REPLICA_ALLOWED.get());
+    }
+
+    public static void setReplicaAllowed(boolean replicaAllowed) {
+        if (replicaAllowed) {
+            REPLICA_ALLOWED.set(Boolean.TRUE);
+        } else {
+            REPLICA_ALLOWED.remove();
+        }
+    }
+
+    // runs the given code against the primary even if the current request may use a replica
+    public static <T> T onPrimary(Supplier<T> supplier) {
+        boolean replicaAllowed = isReplicaAllowed();
+        setReplicaAllowed(false);
+        try {
+            return supplier.get();
+        } finally {
+            setReplicaAllowed(replicaAllowed);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica of the database if the current request allows it, see
+ * {@link ReadRoutingContext}, and everything else to the primary. Replicas are checked periodically and only used while
+ * they can be reached and lag no more than the given time behind the primary. The lag is measured with the change log:
+ * it is the age of the oldest change that the primary has and the replica has not.
+ * <p>
+ * Has to be wrapped in a LazyConnectionDataSourceProxy, as the transaction is only marked read-only after its
+ * connection has been requested.
+ */
+@Slf4j
+public class ReadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String SEQUENCE_QUERY = "SELECT MAX(sequence) FROM change_log";
+    private static final String CHANGE_TIME_QUERY = "SELECT created_at FROM change_log WHERE sequence = ?";
+    private static final int QUERY_TIMEOUT_SECONDS = 5;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-check-"));
+
+    public ReadRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                 Duration checkInterval) {
+        this.primary = primary;
+        this.maxLagMillis = maxLag.toMillis();
+        this.checkIntervalMillis = checkInterval.toMillis();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            this.replicas.add(new Replica(name, dataSource));
+            targets.put(name, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public List<Replica> getReplicas() {
+        return Collections.unmodifiableList(this.replicas);
+    }
+
+    // the lowest change log sequence that the replicas had applied when they were last checked, whatever is read from a
+    // replica afterwards is at least that new. 0 while a replica has not been checked yet
+    public long getReplicaSequence() {
+        long sequence = Long.MAX_VALUE;
+        for (Replica replica : this.replicas) {
+            sequence = Math.min(sequence, Math.max(replica.sequence, 0));
+        }
+        return sequence;
+    }
+
+    // until then all transactions go to the primary
+    public void start() {
+        this.executor.scheduleWithFixedDelay(this::checkReplicas, 0, this.checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void close() {
+        this.executor.shutdownNow();
+        closeQuietly(this.primary);
+        this.replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!ReadRoutingContext.isReplicaAllowed() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        // round robin over the replicas that are available
+        int size = this.replicas.size();
+        int start = Math.floorMod(this.next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = this.replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private void checkReplicas() {
+        long primarySequence;
+        try {
+            primarySequence = querySequence(this.primary);
+        } catch (SQLException | RuntimeException e) {
+            log.warn("The change log of the primary database could not be read, keeping the state of the replicas: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : this.replicas) {
+            long lag;
+            try {
+                long sequence = querySequence(replica.dataSource);
+                replica.sequence = sequence;
+                lag = sequence >= primarySequence ? 0 : System.currentTimeMillis() - queryChangeTime(sequence + 1);
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Replica {} could not be checked", replica.name, e);
+                lag = -1;
+            }
+            boolean available = lag >= 0 && lag <= this.maxLagMillis;
+            if (available != replica.available) {
+                if (available) {
+                    log.info("Replica {} is available again", replica.name);
+                } else {
+                    log.warn("Replica {} is not used as it can not be reached or lags behind by {} ms", replica.name, lag);
+                }
+            }
+            replica.lag = lag;
+            replica.available = available;
+        }
+    }
+
+    private static long querySequence(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SEQUENCE_QUERY)) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    private long queryChangeTime(long sequence) throws SQLException {
+        try (Connection connection = this.primary.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CHANGE_TIME_QUERY)) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            statement.setLong(1, sequence);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                Timestamp createdAt = resultSet.next() ? resultSet.getTimestamp(1) : null;
+                if (createdAt == null) {
+                    throw new SQLException("Change " + sequence + " does not exist on the primary");
+                }
+                return createdAt.getTime();
+            }
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof Closeable) {
+            try {
+                ((Closeable) dataSource).close();
+            } catch (IOException e) {
+                log.warn("Data source could not be closed", e);
+            }
+        }
+    }
+
+    @Getter
+    public static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        // not available until the first check has passed, -1 if the replica could not be checked
+        private volatile boolean available;
+        private volatile long lag = -1;
+        private volatile long sequence = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
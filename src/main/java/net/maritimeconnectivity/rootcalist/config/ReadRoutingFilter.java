@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Lets GET requests read from the replicas. A client that has sent any other request gets a cookie that keeps its reads
+ * on the primary for a while, so it sees its own writes even if the replicas have not caught up yet.
+ * <p>
+ * The ETag and Last-Modified of the data version describe the primary. Conditional requests and the change log, which
+ * clients use to catch up from a sequence number, are therefore always read from the primary. For the other requests
+ * that may use a replica the sequence that the replicas have applied is stored in the request, so that
+ * {@link DataVersionInterceptor} never hands out validators that are newer than the data of a lagging replica.
+ */
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "rootcalist-primary-until";
+    static final String REPLICA_SEQUENCE_ATTRIBUTE = ReadRoutingFilter.class.getName() + ".replicaSequence";
+    private static final Set<String> PRIMARY_PATHS = Collections.singleton("/api/changes");
+
+    private final ReadRoutingDataSource dataSource;
+    private final long stickyMillis;
+
+    public ReadRoutingFilter(ReadRoutingDataSource dataSource, Duration sticky) {
+        this.dataSource = dataSource;
+        this.stickyMillis = sticky.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            boolean replicaAllowed = !isSticky(request) && !isConditional(request)
+                    && !PRIMARY_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+            if (replicaAllowed) {
+                // read before the handler runs, the replicas can only have advanced by the time it queries them
+                request.setAttribute(REPLICA_SEQUENCE_ATTRIBUTE, this.dataSource.getReplicaSequence());
+            }
+            ReadRoutingContext.setReplicaAllowed(replicaAllowed);
+        } else {
+            // set before the response is committed, a failed write just means a few more reads from the primary
+            long until = System.currentTimeMillis() + this.stickyMillis;
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+            cookie.setPath(request.getContextPath() + "/api");
+            cookie.setMaxAge((int) ((this.stickyMillis + 999) / 1000));
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRoutingContext.setReplicaAllowed(false);
+        }
+    }
+
+    private static boolean isConditional(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private static boolean isSticky(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Second-level cache of Hibernate for the entities, which never change once they have been created. Every region has
+ * to be listed in rootcalist.cache.regions with its maximum number of entries, so no cache grows without bounds.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "rootcalist.cache.enabled", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        Map<String, Region> regions = getRegions(environment);
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        regions.forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+            configuration.setStatisticsEnabled(region.isStatistics());
+            cacheManager.createCache(name, configuration);
+        });
+        log.info("Created {} second-level cache regions", regions.size());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", "true");
+            properties.put("hibernate.cache.use_query_cache", "true");
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            // a region that is not configured is an error instead of an unbounded cache
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // the collections are only changed from the other side of the association, so they have to be evicted
+            properties.put("hibernate.cache.auto_evict_collection_cache", "true");
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager, Environment environment) {
+        Map<String, Region> regions = getRegions(environment);
+        return registry -> regions.forEach((name, region) -> {
+            if (region.isStatistics()) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(name));
+            }
+        });
+    }
+
+    private static Map<String, Region> getRegions(Environment environment) {
+        return Binder.get(environment)
+                .bind("rootcalist.cache.regions", Bindable.mapOf(String.class, Region.class))
+                .orElse(Collections.emptyMap());
+    }
+
+    @Getter
+    @Setter
+    public static class Region {
+
+        private long maxSize = 10000;
+        // publishes the JCache statistics of the region as metrics, Hibernate keeps its own statistics regardless
+        private boolean statistics;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.utils.SqlStatementCounter;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// attributes the statements of each request to the path pattern of the handler, so /api/root/1 and /api/root/2 add up.
+// Asynchronous requests are recorded when their async dispatch ends
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    private static final String COUNT_ATTRIBUTE = SqlStatementCountFilter.class.getName() + ".COUNT";
+
+    private final SqlStatementStatistics statistics;
+
+    public SqlStatementCountFilter(SqlStatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicLong count = (AtomicLong) request.getAttribute(COUNT_ATTRIBUTE);
+        if (count != null) {
+            SqlStatementCounter.resume(count);
+        } else {
+            SqlStatementCounter.start();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.setAttribute(COUNT_ATTRIBUTE, SqlStatementCounter.suspend());
+            } else {
+                long statements = SqlStatementCounter.stop();
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                this.statistics.record(request.getMethod() + " " + (pattern != null ? pattern : request.getServletPath()), statements);
+            }
+        }
+    }
+}
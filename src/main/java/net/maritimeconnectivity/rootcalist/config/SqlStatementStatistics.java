@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.model.EndpointStatistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// the number of requests and SQL statements per endpoint since the last reset
+public class SqlStatementStatistics {
+
+    private final Map<String, LongAdder[]> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long statements) {
+        LongAdder[] counters = this.endpoints.computeIfAbsent(endpoint, k -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        counters[0].increment();
+        counters[1].add(statements);
+    }
+
+    public List<EndpointStatistics> getStatistics() {
+        List<EndpointStatistics> statistics = new ArrayList<>();
+        this.endpoints.forEach((endpoint, counters) ->
+                statistics.add(new EndpointStatistics(endpoint, counters[0].sum(), counters[1].sum())));
+        statistics.sort(Comparator.comparing(EndpointStatistics::getEndpoint));
+        return statistics;
+    }
+
+    public void reset() {
+        this.endpoints.clear();
+    }
+}
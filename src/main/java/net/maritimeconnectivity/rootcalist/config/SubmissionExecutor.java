@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
+import net.maritimeconnectivity.rootcalist.exception.ServiceUnavailableException;
+import net.maritimeconnectivity.rootcalist.utils.SqlStatementCounter;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs single submissions without holding a request thread. The request thread only looks up the entities that the
+ * submission refers to, the parsing and signature verification run on the {@link CryptoExecutor} and the verified
+ * entity is stored on a small pool of its own. Stores wait for the lock of the change log sequence, so they must not
+ * occupy the threads of the CPU bound work. When the queue of either pool is full the submission is rejected with a
+ * 503 and a Retry-After header instead of waiting for a free thread.
+ * The queue depth and waiting time of the store pool are published as the executor metrics with the name submission.
+ */
+public class SubmissionExecutor {
+
+    private final CryptoExecutor cryptoExecutor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+
+    public SubmissionExecutor(CryptoExecutor cryptoExecutor, EntityManagerFactory entityManagerFactory, int threads,
+                              int queueCapacity, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.cryptoExecutor = cryptoExecutor;
+        this.entityManagerFactory = entityManagerFactory;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("submission-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, this.pool, "submission", Tags.empty());
+    }
+
+    // the returned future fails with the BasicRestException of the submission, which Spring MVC hands to the resolver
+    public <E, T> CompletableFuture<T> submit(HttpServletRequest request, Verification<E> verification,
+                                              Persistence<E, T> persistence) throws ServiceUnavailableException {
+        String path = request.getServletPath();
+        CompletableFuture<E> verified;
+        try {
+            verified = this.cryptoExecutor.trySupplyAsync(() -> verify(verification));
+        } catch (RejectedExecutionException e) {
+            throw unavailable(path);
+        }
+        AtomicLong statements = SqlStatementCounter.current();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        verified.whenComplete((entity, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                return;
+            }
+            try {
+                this.executor.execute(() -> persist(persistence, entity, statements, result));
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(unavailable(path));
+            }
+        });
+        return result;
+    }
+
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    private static <E> E verify(Verification<E> verification) {
+        try {
+            return verification.verify();
+        } catch (BasicRestException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    // like the request threads with open-in-view, each store uses one entity manager for everything it does
+    private <E, T> void persist(Persistence<E, T> persistence, E entity, AtomicLong statements, CompletableFuture<T> result) {
+        SqlStatementCounter.resume(statements);
+        EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(this.entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            result.complete(persistence.persist(entity));
+        } catch (BasicRestException | RuntimeException e) {
+            result.completeExceptionally(e);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(this.entityManagerFactory);
+            EntityManagerFactoryUtils.closeEntityManager(entityManager);
+            SqlStatementCounter.suspend();
+        }
+    }
+
+    private ServiceUnavailableException unavailable(String path) {
+        return new ServiceUnavailableException("Too many submissions are being processed, try again later", path,
+                this.retryAfterSeconds);
+    }
+
+    // parses and verifies the submission and returns the entity to store, only CPU bound work
+    @FunctionalInterface
+    public interface Verification<E> {
+        E verify() throws BasicRestException;
+    }
+
+    // stores the verified entity and returns the response
+    @FunctionalInterface
+    public interface Persistence<E, T> {
+        T persist(E entity) throws BasicRestException;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Handles the requests of the embedded Tomcat, and with them the JPA and JDBC calls, on one virtual thread each instead
+ * of the bounded pool of platform threads, when rootcalist.threads.virtual is true and the service runs on Java 21 or
+ * later. The service is still built for Java 8, so the virtual threads are created by reflection, and on older runtimes
+ * the platform threads are kept. The crypto executor stays on platform threads as its work is CPU bound.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "rootcalist.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final String PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+    private static final String MAX_POOL_SIZE_PROPERTY = "jdk.virtualThreadScheduler.maxPoolSize";
+    // the default maximum number of carrier threads of the JDK
+    private static final int DEFAULT_MAX_POOL_SIZE = 256;
+
+    // not a bean, so that it is never picked up as the general purpose task executor
+    private ExecutorService executor;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadCustomizer(Environment environment) {
+        // must happen before the first virtual thread is started, which creates the scheduler
+        sizeCarrierThreads(environment);
+        this.executor = newVirtualThreadExecutor("http-virtual-");
+        if (this.executor == null) {
+            log.warn("Virtual threads are not available on Java {}, requests are handled on platform threads",
+                    System.getProperty("java.version"));
+            return protocolHandler -> {
+            };
+        }
+        log.info("Requests are handled on virtual threads with {} carrier threads", System.getProperty(PARALLELISM_PROPERTY));
+        return protocolHandler -> protocolHandler.setExecutor(this.executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    // JDBC drivers such as MySQL Connector/J hold a monitor while they wait for the database, which pins the virtual
+    // thread to its carrier. Only threads holding a pooled connection can be pinned that way, so there is one carrier
+    // per connection on top of one per core, and the other requests keep running while all connections are waiting
+    private static void sizeCarrierThreads(Environment environment) {
+        if (System.getProperty(PARALLELISM_PROPERTY) != null) {
+            return;
+        }
+        int pools = 1 + environment.getProperty("rootcalist.datasource.replica-urls", String[].class, new String[0]).length;
+        int connections = pools * environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int parallelism = Runtime.getRuntime().availableProcessors() + connections;
+        System.setProperty(PARALLELISM_PROPERTY, String.valueOf(parallelism));
+        if (System.getProperty(MAX_POOL_SIZE_PROPERTY) == null && parallelism > DEFAULT_MAX_POOL_SIZE) {
+            System.setProperty(MAX_POOL_SIZE_PROPERTY, String.valueOf(parallelism));
+        }
+    }
+
+    // Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory()), or null before Java 21
+    private static ExecutorService newVirtualThreadExecutor(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // also thrown on Java 19 and 20, where virtual threads are a preview feature
+            log.debug("Virtual threads could not be created", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.services.DataVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    public void setDataVersionService(DataVersionService dataVersionService) {
+        this.dataVersionService = dataVersionService;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DataVersionInterceptor(this.dataVersionService))
+                .addPathPatterns("/api/roots", "/api/roots.bin", "/api/roots.pem", "/api/root/*",
+                        "/api/root/by-fingerprint/*", "/api/attestors", "/api/attestor/*", "/api/attestation/*",
+                        "/api/revocation/*", "/api/changes");
+        // served as JSON or NDJSON depending on the Accept header
+        registry.addInterceptor(new DataVersionInterceptor(this.dataVersionService, true))
+                .addPathPatterns("/api/attestations", "/api/revocations");
+    }
+
+    @Bean
+    public FilterRegistrationBean<DataVersionHeaderFilter> dataVersionHeaderFilter() {
+        FilterRegistrationBean<DataVersionHeaderFilter> registration = new FilterRegistrationBean<>(new DataVersionHeaderFilter());
+        registration.addUrlPatterns("/api/*");
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+}
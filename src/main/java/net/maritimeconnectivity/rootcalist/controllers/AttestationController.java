@@ -16,20 +16,31 @@
 
 package net.maritimeconnectivity.rootcalist.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.config.SubmissionExecutor;
 import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
 import net.maritimeconnectivity.rootcalist.model.AttestationRequest;
+import net.maritimeconnectivity.rootcalist.model.BatchItemResult;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
 import net.maritimeconnectivity.rootcalist.model.database.Attestation;
 import net.maritimeconnectivity.rootcalist.model.database.Attestor;
 import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
 import net.maritimeconnectivity.rootcalist.services.AttestationService;
 import net.maritimeconnectivity.rootcalist.services.AttestorService;
+import net.maritimeconnectivity.rootcalist.services.BatchService;
 import net.maritimeconnectivity.rootcalist.services.RootCAService;
 import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.MetricsUtil;
+import net.maritimeconnectivity.rootcalist.utils.NdjsonWriter;
+import net.maritimeconnectivity.rootcalist.utils.PaginationUtil;
+import net.maritimeconnectivity.rootcalist.utils.SignatureAlgorithms;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -38,16 +49,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
 import java.security.SignatureException;
 import java.security.cert.CertificateException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -57,6 +70,9 @@ public class AttestationController {
     private AttestationService attestationService;
     private AttestorService attestorService;
     private RootCAService rootCAService;
+    private BatchService batchService;
+    private ObjectMapper objectMapper;
+    private SubmissionExecutor submissionExecutor;
 
     @Autowired
     public void setAttestationService(AttestationService attestationService) {
@@ -73,18 +89,53 @@ public class AttestationController {
         this.rootCAService = rootCAService;
     }
 
+    @Autowired
+    public void setBatchService(BatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setSubmissionExecutor(SubmissionExecutor submissionExecutor) {
+        this.submissionExecutor = submissionExecutor;
+    }
+
     @GetMapping(
             value = "/attestations",
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     @Operation(
-            description = "Gets the list of all attestations."
+            description = "Gets the list of all attestations. The list can be paged by giving the ID of the last " +
+                    "element of the previous page in the after query parameter and the page size in the limit query parameter."
     )
-    public ResponseEntity<List<Attestation>> getAttestations() {
-        List<Attestation> attestations = this.attestationService.listAll();
+    public ResponseEntity<List<AttestationView>> getAttestations(@RequestParam(required = false) @Parameter(description = "Only return attestations with an ID greater than this") Long after,
+                                                             @RequestParam(required = false) @Parameter(description = "The maximum number of attestations to return") Integer limit) {
+        if (PaginationUtil.isPaged(after, limit)) {
+            Slice<AttestationView> slice = this.attestationService.listViewsAfter(PaginationUtil.after(after), PaginationUtil.limit(limit));
+            return new ResponseEntity<>(slice.getContent(), PaginationUtil.linkHeaders(slice, AttestationView::getId), HttpStatus.OK);
+        }
+        List<AttestationView> attestations = this.attestationService.listAllViews();
         return new ResponseEntity<>(attestations, HttpStatus.OK);
     }
 
+    @GetMapping(
+            value = "/attestations",
+            produces = NdjsonWriter.MEDIA_TYPE
+    )
+    @Operation(
+            description = "Streams all attestations as newline delimited JSON, one attestation per line."
+    )
+    public void exportAttestations(HttpServletResponse response) throws IOException {
+        response.setContentType(NdjsonWriter.MEDIA_TYPE);
+        NdjsonWriter<AttestationView> writer = new NdjsonWriter<>(this.objectMapper, AttestationView.class, response.getOutputStream());
+        this.attestationService.forEachView(writer);
+        writer.flush();
+    }
+
     @GetMapping(
             value = "/attestation/{id}",
             produces = MediaType.APPLICATION_JSON_VALUE
@@ -92,8 +143,8 @@ public class AttestationController {
     @Operation(
             description = "Gets a specific attestation based on the given ID."
     )
-    public ResponseEntity<Attestation> getAttestation(@PathVariable @Parameter(description = "The ID of the attestation") Long id) {
-        Attestation attestation = this.attestationService.getById(id);
+    public ResponseEntity<AttestationView> getAttestation(@PathVariable @Parameter(description = "The ID of the attestation") Long id) {
+        AttestationView attestation = this.attestationService.getViewById(id);
         if (attestation != null) {
             return new ResponseEntity<>(attestation, HttpStatus.OK);
         }
@@ -108,28 +159,61 @@ public class AttestationController {
     @Operation(
             description = "Creates a new attestation of a specified root CA by a specified attestor."
     )
-    public ResponseEntity<Attestation> createAttestation(HttpServletRequest request, @RequestBody AttestationRequest input) throws BasicRestException {
+    public CompletableFuture<ResponseEntity<AttestationView>> createAttestation(HttpServletRequest request, @RequestBody AttestationRequest input) throws BasicRestException {
+        if (input.getAlgorithmIdentifier() != null && !SignatureAlgorithms.isSupported(input.getAlgorithmIdentifier())) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The signature algorithm is not supported", request.getServletPath());
+        }
         if (input.getAttestorId() != null && input.getRootCAid() != null) {
             Attestor attestor = this.attestorService.getById(input.getAttestorId());
             RootCA rootCA = this.rootCAService.getById(input.getRootCAid());
             if (attestor != null && rootCA != null && input.getSignature() != null && input.getAlgorithmIdentifier() != null) {
-                try {
-                    if (CryptoUtil.isSignatureValid(input.getSignature(), input.getAlgorithmIdentifier(), attestor, rootCA.getCertificate())) {
-                        Attestation temp = new Attestation(input);
-                        temp.setRootCA(rootCA);
-                        temp.setAttestor(attestor);
-                        Attestation newAttestation = this.attestationService.save(temp);
-                        return new ResponseEntity<>(newAttestation, HttpStatus.OK);
-                    }
-                } catch (IOException | SignatureException | InvalidKeyException | CertificateException | NoSuchAlgorithmException | NoSuchProviderException e) {
-                    log.error("Signature could not be verified", e);
-                    throw new BasicRestException(HttpStatus.BAD_REQUEST, "The signature of the attestation could not be verified", request.getServletPath());
-                } catch (DataIntegrityViolationException e) {
-                    log.error("Attestation could not be persisted because it already exists", e);
-                    throw new BasicRestException(HttpStatus.BAD_REQUEST, "A similar attestation already exists", request.getServletPath());
-                }
+                String path = request.getServletPath();
+                return this.submissionExecutor.submit(request, () -> verifyAttestation(path, input, attestor, rootCA),
+                        attestation -> saveAttestation(path, attestation));
             }
         }
         throw new BasicRestException(HttpStatus.BAD_REQUEST, "The request did not contain all required attributes", request.getServletPath());
     }
+
+    private Attestation verifyAttestation(String path, AttestationRequest input, Attestor attestor, RootCA rootCA) throws BasicRestException {
+        try {
+            if (CryptoUtil.isSignatureValid(input.getSignature(), input.getAlgorithmIdentifier(), attestor, rootCA.getCertificate())) {
+                Attestation attestation = new Attestation(input);
+                attestation.setRootCA(rootCA);
+                attestation.setAttestor(attestor);
+                return attestation;
+            }
+        } catch (IOException | SignatureException | InvalidKeyException | CertificateException | NoSuchAlgorithmException e) {
+            log.error("Signature could not be verified", e);
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The signature of the attestation could not be verified", path);
+        }
+        throw new BasicRestException(HttpStatus.BAD_REQUEST, "The request did not contain all required attributes", path);
+    }
+
+    private ResponseEntity<AttestationView> saveAttestation(String path, Attestation attestation) throws BasicRestException {
+        try {
+            Attestation newAttestation = this.attestationService.save(attestation);
+            return new ResponseEntity<>(new AttestationView(newAttestation), HttpStatus.OK);
+        } catch (DataIntegrityViolationException e) {
+            log.error("Attestation could not be persisted because it already exists", e);
+            MetricsUtil.countDuplicate(EntityType.ATTESTATION, "constraint");
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "A similar attestation already exists", path);
+        }
+    }
+
+    @PostMapping(
+            value = "/attestations/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Creates multiple attestations of root CAs at once. All signatures are verified and the valid items are " +
+                    "created together. The response contains a result for each item in the order they were submitted."
+    )
+    public ResponseEntity<List<BatchItemResult<AttestationView>>> createAttestationsBatch(HttpServletRequest request, @RequestBody List<AttestationRequest> input) throws BasicRestException {
+        if (input == null || input.isEmpty() || input.size() > BatchService.MAX_BATCH_SIZE) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "A batch must contain between 1 and " + BatchService.MAX_BATCH_SIZE + " items", request.getServletPath());
+        }
+        return new ResponseEntity<>(this.batchService.saveAttestations(input), HttpStatus.OK);
+    }
 }
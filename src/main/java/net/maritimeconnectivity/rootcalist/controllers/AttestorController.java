@@ -19,22 +19,27 @@ package net.maritimeconnectivity.rootcalist.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.config.SubmissionExecutor;
 import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
+import net.maritimeconnectivity.rootcalist.exception.DuplicateCertificateException;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
 import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.view.AttestorView;
 import net.maritimeconnectivity.rootcalist.services.AttestorService;
 import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.MetricsUtil;
+import net.maritimeconnectivity.rootcalist.utils.PaginationUtil;
+import net.maritimeconnectivity.rootcalist.utils.ParsedCertificate;
 import org.bouncycastle.asn1.x500.RDN;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x500.style.BCStyle;
 import org.bouncycastle.asn1.x500.style.IETFUtils;
 import org.bouncycastle.cert.CertException;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.openssl.PEMParser;
 import org.bouncycastle.operator.OperatorCreationException;
-import org.bouncycastle.util.io.pem.PemObject;
-import org.bouncycastle.util.io.pem.PemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -43,14 +48,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.security.cert.CertificateException;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -58,21 +64,33 @@ import java.util.List;
 public class AttestorController {
 
     private AttestorService attestorService;
+    private SubmissionExecutor submissionExecutor;
 
     @Autowired
     public void setAttestorService(AttestorService attestorService) {
         this.attestorService = attestorService;
     }
 
+    @Autowired
+    public void setSubmissionExecutor(SubmissionExecutor submissionExecutor) {
+        this.submissionExecutor = submissionExecutor;
+    }
+
     @GetMapping(
             value = "/attestors",
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     @Operation(
-            description = "Gets the list of all attestors."
+            description = "Gets the list of all attestors. The list can be paged by giving the ID of the last " +
+                    "element of the previous page in the after query parameter and the page size in the limit query parameter."
     )
-    public ResponseEntity<List<Attestor>> getAttestors() {
-        List<Attestor> attestors = this.attestorService.listAll();
+    public ResponseEntity<List<AttestorView>> getAttestors(@RequestParam(required = false) @Parameter(description = "Only return attestors with an ID greater than this") Long after,
+                                                       @RequestParam(required = false) @Parameter(description = "The maximum number of attestors to return") Integer limit) {
+        if (PaginationUtil.isPaged(after, limit)) {
+            Slice<AttestorView> slice = this.attestorService.listViewsAfter(PaginationUtil.after(after), PaginationUtil.limit(limit));
+            return new ResponseEntity<>(slice.getContent(), PaginationUtil.linkHeaders(slice, AttestorView::getId), HttpStatus.OK);
+        }
+        List<AttestorView> attestors = this.attestorService.listAllViews();
         return new ResponseEntity<>(attestors, HttpStatus.OK);
     }
 
@@ -83,8 +101,8 @@ public class AttestorController {
     @Operation(
             description = "Gets a specific attestor based on the given ID."
     )
-    public ResponseEntity<Attestor> getAttestor(@PathVariable @Parameter(description = "The ID of the attestor") Long id) {
-        Attestor attestor = this.attestorService.getById(id);
+    public ResponseEntity<AttestorView> getAttestor(@PathVariable @Parameter(description = "The ID of the attestor") Long id) {
+        AttestorView attestor = this.attestorService.getViewById(id);
         if (attestor != null) {
             return new ResponseEntity<>(attestor, HttpStatus.OK);
         }
@@ -100,32 +118,47 @@ public class AttestorController {
             description = "Creates a new attestor. The body of the request must contain the PEM encoded certificate" +
                     "of the attestor that is going to be created."
     )
-    public ResponseEntity<Attestor> createAttestor(HttpServletRequest request, @RequestBody String attestorCert) throws BasicRestException {
-        PEMParser pemParser = new PEMParser(new StringReader(attestorCert));
+    public CompletableFuture<ResponseEntity<AttestorView>> createAttestor(HttpServletRequest request, @RequestBody String attestorCert) throws BasicRestException {
+        String path = request.getServletPath();
+        return this.submissionExecutor.submit(request, () -> verifyAttestor(path, attestorCert), attestor -> saveAttestor(path, attestor));
+    }
+
+    private Attestor verifyAttestor(String path, String attestorCert) throws BasicRestException {
         try {
-            X509CertificateHolder certificateHolder = (X509CertificateHolder) pemParser.readObject();
-            pemParser.close();
+            ParsedCertificate parsedCertificate = CryptoUtil.parseCertificate(attestorCert);
+            X509CertificateHolder certificateHolder = parsedCertificate != null ? parsedCertificate.getCertificateHolder() : null;
             if (certificateHolder != null && certificateHolder.isValidOn(new Date())) {
                 Attestor attestor = new Attestor();
                 attestor.setCertificate(attestorCert);
                 X500Name x500Name = certificateHolder.getSubject();
                 if (x500Name == null || x500Name.getRDNs(BCStyle.CN).length < 1) {
-                    throw new BasicRestException(HttpStatus.BAD_REQUEST, "The provided certificate must contain at least one CN", request.getServletPath());
+                    throw new BasicRestException(HttpStatus.BAD_REQUEST, "The provided certificate must contain at least one CN", path);
                 }
                 RDN cn = x500Name.getRDNs(BCStyle.CN)[0];
                 String cnString = IETFUtils.valueToString(cn.getFirst().getValue());
                 attestor.setName(cnString);
-                Attestor newAttestor = this.attestorService.save(attestor);
-                return new ResponseEntity<>(newAttestor, HttpStatus.OK);
+                return attestor;
             }
-        } catch (IOException e) {
+        } catch (IOException | CertificateException e) {
             log.error("New attestor certificate could not be parsed", e);
-            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The provided attestor certificate could not be parsed", request.getServletPath());
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The provided attestor certificate could not be parsed", path);
+        }
+        throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while creating new attestor", path);
+    }
+
+    private ResponseEntity<AttestorView> saveAttestor(String path, Attestor attestor) throws BasicRestException {
+        try {
+            Attestor newAttestor = this.attestorService.save(attestor);
+            return new ResponseEntity<>(new AttestorView(newAttestor), HttpStatus.OK);
+        } catch (DuplicateCertificateException e) {
+            log.debug("New attestor was rejected because a certificate with fingerprint {} already exists", e.getFingerprint());
+            MetricsUtil.countDuplicate(EntityType.ATTESTOR, "fingerprint");
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "An attestor with the same certificate already exists", path);
         } catch (DataIntegrityViolationException e) {
             log.error("New attestor could not be persisted because it already exists", e);
-            throw new BasicRestException(HttpStatus.BAD_REQUEST, "An attestor with the same certificate already exists", request.getServletPath());
+            MetricsUtil.countDuplicate(EntityType.ATTESTOR, "constraint");
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "An attestor with the same certificate already exists", path);
         }
-        throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while creating new attestor", request.getServletPath());
     }
 
     @PostMapping(
@@ -138,55 +171,45 @@ public class AttestorController {
                     "consisting of either only the certificate of the attestor or the same followed by the remaining " +
                     "trust chain of the certificate."
     )
-    public ResponseEntity<Attestor> createAttestorFromCertChain(HttpServletRequest request, @RequestBody String certChain) throws BasicRestException {
+    public CompletableFuture<ResponseEntity<AttestorView>> createAttestorFromCertChain(HttpServletRequest request, @RequestBody String certChain) throws BasicRestException {
+        String path = request.getServletPath();
+        return this.submissionExecutor.submit(request, () -> verifyAttestorChain(path, certChain), attestor -> saveAttestor(path, attestor));
+    }
+
+    private Attestor verifyAttestorChain(String path, String certChain) throws BasicRestException {
         X509CertificateHolder[] certificateHolders;
         try {
             certificateHolders = CryptoUtil.extractCertificates(certChain);
             if (certificateHolders.length == 0) {
-                throw new BasicRestException(HttpStatus.BAD_REQUEST, "The request did not contain any valid certificates", request.getServletPath());
+                throw new BasicRestException(HttpStatus.BAD_REQUEST, "The request did not contain any valid certificates", path);
             }
             CryptoUtil.verifyChain(certificateHolders);
         } catch (IOException | CertException | OperatorCreationException e) {
-            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The provided certificate chain could not be verified", request.getServletPath());
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The provided certificate chain could not be verified", path);
         }
         Attestor attestor = new Attestor();
-        StringWriter stringWriter = new StringWriter();
-        PemWriter pemWriter = new PemWriter(stringWriter);
         if (certificateHolders.length > 1) {
             try {
-                pemWriter.writeObject(new PemObject("CERTIFICATE", certificateHolders[1].getEncoded()));
-                pemWriter.flush();
-                attestor.setIssuer(stringWriter.toString());
-                stringWriter.flush();
+                attestor.setIssuer(CryptoUtil.toPem(certificateHolders[1]));
             } catch (IOException e) {
                 log.error("Could not write issuer certificate", e);
-                throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while writing the issuer certificate", request.getServletPath());
+                throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while writing the issuer certificate", path);
             }
         }
         try {
-            pemWriter.writeObject(new PemObject("CERTIFICATE", certificateHolders[0].getEncoded()));
-            pemWriter.flush();
-            attestor.setCertificate(stringWriter.toString());
-            pemWriter.close();
-            stringWriter.flush();
+            // only the certificate of the attestor itself, as that is what its fingerprint has to be computed from
+            attestor.setCertificate(CryptoUtil.toPem(certificateHolders[0]));
             X500Name x500Name = certificateHolders[0].getSubject();
             if (x500Name == null || x500Name.getRDNs(BCStyle.CN).length < 1) {
-                throw new BasicRestException(HttpStatus.BAD_REQUEST, "Attestor certificate must contain at least one CN", request.getServletPath());
+                throw new BasicRestException(HttpStatus.BAD_REQUEST, "Attestor certificate must contain at least one CN", path);
             }
             RDN cn = x500Name.getRDNs(BCStyle.CN)[0];
             String cnString = IETFUtils.valueToString(cn.getFirst().getValue());
             attestor.setName(cnString);
         } catch (IOException e) {
             log.error("Could not write certificate", e);
-            throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while writing attestor certificate", request.getServletPath());
-        }
-        Attestor newAttestor;
-        try {
-            newAttestor = this.attestorService.save(attestor);
-        } catch (DataIntegrityViolationException e) {
-            log.error("New attestor could not persisted because it already exists", e);
-            throw new BasicRestException(HttpStatus.BAD_REQUEST, "An attestor with the same certificate already exists", request.getServletPath());
+            throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while writing attestor certificate", path);
         }
-        return new ResponseEntity<>(newAttestor, HttpStatus.OK);
+        return attestor;
     }
 }
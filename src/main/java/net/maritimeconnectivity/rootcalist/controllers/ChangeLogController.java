@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
+import net.maritimeconnectivity.rootcalist.model.ChangeSet;
+import net.maritimeconnectivity.rootcalist.services.ChangeLogService;
+import net.maritimeconnectivity.rootcalist.utils.PaginationUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api")
+public class ChangeLogController {
+
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    public void setChangeLogService(ChangeLogService changeLogService) {
+        this.changeLogService = changeLogService;
+    }
+
+    @GetMapping(
+            value = "/changes",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Gets the root CAs, attestors, attestations and revocations that have been saved or deleted " +
+                    "after the change with the sequence number given in the since query parameter, oldest first. " +
+                    "Saved entities are returned in their current state. The returned sequence number is the one to " +
+                    "give as since in the next request, if more is true there are further changes to fetch right away."
+    )
+    public ResponseEntity<ChangeSet> getChanges(HttpServletRequest request,
+                                                @RequestParam(required = false, defaultValue = "0") @Parameter(description = "The sequence number of the last change the client has seen") Long since,
+                                                @RequestParam(required = false) @Parameter(description = "The maximum number of changes to return") Integer limit) throws BasicRestException {
+        if (since < 0) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The since parameter must not be negative", request.getServletPath());
+        }
+        return new ResponseEntity<>(this.changeLogService.getChanges(since, PaginationUtil.limit(limit)), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import net.maritimeconnectivity.rootcalist.config.SqlStatementStatistics;
+import net.maritimeconnectivity.rootcalist.model.EndpointStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// only available when rootcalist.diagnostics.sql-statements is enabled
+@RestController
+@RequestMapping("/api")
+@ConditionalOnProperty(name = "rootcalist.diagnostics.sql-statements", havingValue = "true")
+public class DiagnosticsController {
+
+    private SqlStatementStatistics sqlStatementStatistics;
+
+    @Autowired
+    public void setSqlStatementStatistics(SqlStatementStatistics sqlStatementStatistics) {
+        this.sqlStatementStatistics = sqlStatementStatistics;
+    }
+
+    @GetMapping(
+            value = "/diagnostics/sql-statements",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Gets the number of requests and executed SQL statements per endpoint since the last reset."
+    )
+    public ResponseEntity<List<EndpointStatistics>> getSqlStatements() {
+        return new ResponseEntity<>(this.sqlStatementStatistics.getStatistics(), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/diagnostics/sql-statements")
+    @Operation(
+            description = "Resets the SQL statement counts."
+    )
+    public ResponseEntity<Void> resetSqlStatements() {
+        this.sqlStatementStatistics.reset();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
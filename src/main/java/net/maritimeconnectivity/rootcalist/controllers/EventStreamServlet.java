@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.controllers;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.model.JsonSerializable;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.ChangeView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.services.EventStreamService;
+import net.maritimeconnectivity.rootcalist.services.EventSubscriber;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Server-Sent Events stream of the changes to the trust list at /api/events. This is a plain servlet rather than a
+ * controller because it uses non-blocking output: a subscriber only holds its queued events between writes, so idle
+ * connections do not tie up a request thread and a slow client can never hold up the others.
+ */
+@Slf4j
+public class EventStreamServlet extends HttpServlet {
+
+    private static final byte[] CONNECTED = ": connected\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final transient EventStreamService eventStreamService;
+    private final int maxPendingBytes;
+
+    public EventStreamServlet(EventStreamService eventStreamService, int maxPendingBytes) {
+        this.eventStreamService = eventStreamService;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Set<Long> attestorIds = null;
+        Long lastEventId = null;
+        try {
+            String[] attestorIdValues = request.getParameterValues("attestorId");
+            if (attestorIdValues != null) {
+                attestorIds = new HashSet<>();
+                for (String attestorId : attestorIdValues) {
+                    attestorIds.add(Long.valueOf(attestorId));
+                }
+            }
+            String lastEventIdValue = request.getHeader("Last-Event-ID");
+            if (lastEventIdValue != null && !lastEventIdValue.isEmpty()) {
+                lastEventId = Long.valueOf(lastEventIdValue);
+            }
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "The attestorId parameter and the Last-Event-ID header must be numbers");
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "no-cache");
+        // tells nginx not to buffer the stream
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0);
+        Subscription subscription = new Subscription(asyncContext, attestorIds);
+        asyncContext.addListener(subscription);
+        subscription.send(CONNECTED);
+        subscription.start(response.getOutputStream());
+        this.eventStreamService.subscribe(subscription, lastEventId);
+    }
+
+    private class Subscription implements EventSubscriber, WriteListener, AsyncListener {
+
+        private final AsyncContext asyncContext;
+        // null if the subscriber wants the events of every attestor
+        private final Set<Long> attestorIds;
+        private final Deque<byte[]> queue = new ArrayDeque<>();
+        private int pendingBytes;
+        private boolean started;
+        private boolean unflushed;
+        private boolean closing;
+        private boolean closed;
+
+        private Subscription(AsyncContext asyncContext, Set<Long> attestorIds) {
+            this.asyncContext = asyncContext;
+            this.attestorIds = attestorIds;
+        }
+
+        @Override
+        public boolean accepts(ChangeView change) {
+            if (this.attestorIds == null) {
+                return true;
+            }
+            JsonSerializable data = change.getData();
+            switch (change.getType()) {
+                case ATTESTOR:
+                    return this.attestorIds.contains(change.getId());
+                case ATTESTATION:
+                    // deleted entities can not be attributed to an attestor so they are always sent
+                    return !(data instanceof AttestationView) || this.attestorIds.contains(((AttestationView) data).getAttestor());
+                case REVOCATION:
+                    return !(data instanceof RevocationView) || this.attestorIds.contains(((RevocationView) data).getAttestor());
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public synchronized boolean send(byte[] event) {
+            if (this.closing || this.closed) {
+                return false;
+            }
+            if (this.pendingBytes + event.length > maxPendingBytes) {
+                // the client does not keep up, it gets what has been queued and can resume from there with Last-Event-ID
+                log.debug("Closing event stream of a client that does not keep up");
+                close();
+                return false;
+            }
+            this.queue.add(event);
+            this.pendingBytes += event.length;
+            write();
+            return true;
+        }
+
+        private synchronized void start(ServletOutputStream out) {
+            this.started = true;
+            out.setWriteListener(this);
+        }
+
+        @Override
+        public synchronized void close() {
+            this.closing = true;
+            write();
+        }
+
+        @Override
+        public void onWritePossible() {
+            write();
+        }
+
+        // writes as much as the connection takes without blocking, the container calls onWritePossible for the rest
+        private synchronized void write() {
+            // nothing can be written before the write listener is registered
+            if (!this.started || this.closed) {
+                return;
+            }
+            try {
+                ServletOutputStream out = this.asyncContext.getResponse().getOutputStream();
+                while (out.isReady()) {
+                    byte[] event = this.queue.poll();
+                    if (event == null) {
+                        if (this.unflushed) {
+                            this.unflushed = false;
+                            out.flush();
+                        } else {
+                            if (this.closing) {
+                                complete();
+                            }
+                            return;
+                        }
+                    } else {
+                        this.pendingBytes -= event.length;
+                        this.unflushed = true;
+                        out.write(event);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            log.debug("Event stream closed with an error", throwable);
+            complete();
+        }
+
+        private synchronized void complete() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.queue.clear();
+            eventStreamService.unsubscribe(this);
+            try {
+                this.asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // already completed by the container
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // nothing to do
+        }
+    }
+}
@@ -16,22 +16,33 @@
 
 package net.maritimeconnectivity.rootcalist.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.config.SubmissionExecutor;
 import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
+import net.maritimeconnectivity.rootcalist.model.BatchItemResult;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
 import net.maritimeconnectivity.rootcalist.model.RevocationRequest;
 import net.maritimeconnectivity.rootcalist.model.database.Attestation;
 import net.maritimeconnectivity.rootcalist.model.database.Attestor;
 import net.maritimeconnectivity.rootcalist.model.database.Revocation;
 import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
 import net.maritimeconnectivity.rootcalist.services.AttestationService;
 import net.maritimeconnectivity.rootcalist.services.AttestorService;
+import net.maritimeconnectivity.rootcalist.services.BatchService;
 import net.maritimeconnectivity.rootcalist.services.RevocationService;
 import net.maritimeconnectivity.rootcalist.services.RootCAService;
 import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.MetricsUtil;
+import net.maritimeconnectivity.rootcalist.utils.NdjsonWriter;
+import net.maritimeconnectivity.rootcalist.utils.PaginationUtil;
+import net.maritimeconnectivity.rootcalist.utils.SignatureAlgorithms;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -40,16 +51,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
 import java.security.SignatureException;
 import java.security.cert.CertificateException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -60,6 +73,9 @@ public class RevocationController {
     private AttestationService attestationService;
     private RootCAService rootCAService;
     private AttestorService attestorService;
+    private BatchService batchService;
+    private SubmissionExecutor submissionExecutor;
+    private ObjectMapper objectMapper;
 
     @Autowired
     public void setRevocationService(RevocationService revocationService) {
@@ -81,18 +97,53 @@ public class RevocationController {
         this.attestorService = attestorService;
     }
 
+    @Autowired
+    public void setBatchService(BatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setSubmissionExecutor(SubmissionExecutor submissionExecutor) {
+        this.submissionExecutor = submissionExecutor;
+    }
+
     @GetMapping(
             value = "/revocations",
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     @Operation(
-            description = "Gets the list of all revocations."
+            description = "Gets the list of all revocations. The list can be paged by giving the ID of the last " +
+                    "element of the previous page in the after query parameter and the page size in the limit query parameter."
     )
-    public ResponseEntity<List<Revocation>> getRevocations() {
-        List<Revocation> revocations = this.revocationService.listAll();
+    public ResponseEntity<List<RevocationView>> getRevocations(@RequestParam(required = false) @Parameter(description = "Only return revocations with an ID greater than this") Long after,
+                                                           @RequestParam(required = false) @Parameter(description = "The maximum number of revocations to return") Integer limit) {
+        if (PaginationUtil.isPaged(after, limit)) {
+            Slice<RevocationView> slice = this.revocationService.listViewsAfter(PaginationUtil.after(after), PaginationUtil.limit(limit));
+            return new ResponseEntity<>(slice.getContent(), PaginationUtil.linkHeaders(slice, RevocationView::getId), HttpStatus.OK);
+        }
+        List<RevocationView> revocations = this.revocationService.listAllViews();
         return new ResponseEntity<>(revocations, HttpStatus.OK);
     }
 
+    @GetMapping(
+            value = "/revocations",
+            produces = NdjsonWriter.MEDIA_TYPE
+    )
+    @Operation(
+            description = "Streams all revocations as newline delimited JSON, one revocation per line."
+    )
+    public void exportRevocations(HttpServletResponse response) throws IOException {
+        response.setContentType(NdjsonWriter.MEDIA_TYPE);
+        NdjsonWriter<RevocationView> writer = new NdjsonWriter<>(this.objectMapper, RevocationView.class, response.getOutputStream());
+        this.revocationService.forEachView(writer);
+        writer.flush();
+    }
+
     @GetMapping(
             value = "/revocation/{id}",
             produces = MediaType.APPLICATION_JSON_VALUE
@@ -100,8 +151,8 @@ public class RevocationController {
     @Operation(
             description = "Gets a specific revocation based on the given ID."
     )
-    public ResponseEntity<Revocation> getRevocation(@PathVariable @Parameter(description = "The ID of the revocation") Long id) {
-        Revocation revocation = this.revocationService.getById(id);
+    public ResponseEntity<RevocationView> getRevocation(@PathVariable @Parameter(description = "The ID of the revocation") Long id) {
+        RevocationView revocation = this.revocationService.getViewById(id);
         if (revocation == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -116,30 +167,64 @@ public class RevocationController {
     @Operation(
             description = "Creates a new revocation of a previous attestation."
     )
-    public ResponseEntity<Revocation> createRevocation(HttpServletRequest request, @RequestBody RevocationRequest input) throws BasicRestException {
+    public CompletableFuture<ResponseEntity<RevocationView>> createRevocation(HttpServletRequest request, @RequestBody RevocationRequest input) throws BasicRestException {
+        if (input.getAlgorithmIdentifier() != null && !SignatureAlgorithms.isSupported(input.getAlgorithmIdentifier())) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The signature algorithm is not supported", request.getServletPath());
+        }
         if (input.getAttestorId() != null && input.getRootCAid() != null && input.getAttestationId() != null) {
             Attestor attestor = this.attestorService.getById(input.getAttestorId());
             Attestation attestation = this.attestationService.getById(input.getAttestationId());
             RootCA rootCA = this.rootCAService.getById(input.getRootCAid());
             if (attestation != null && attestation.getRootCA().equals(rootCA) && attestation.getAttestor().equals(attestor)) {
-                try {
-                    if (CryptoUtil.isSignatureValid(input.getSignature(), input.getAlgorithmIdentifier(), attestor, attestation.getSignature())) {
-                        Revocation temp = new Revocation(input);
-                        temp.setAttestation(attestation);
-                        temp.setAttestor(attestor);
-                        temp.setRootCA(rootCA);
-                        Revocation newRevocation = this.revocationService.save(temp);
-                        return new ResponseEntity<>(newRevocation, HttpStatus.OK);
-                    }
-                } catch (IOException | SignatureException | InvalidKeyException | CertificateException | NoSuchAlgorithmException | NoSuchProviderException e) {
-                    log.error("Signature could not be verified", e);
-                    throw new BasicRestException(HttpStatus.BAD_REQUEST, "The signature of the revocation could not be verified", request.getServletPath());
-                } catch (DataIntegrityViolationException e) {
-                    log.error("New revocation could not be persisted because it already exists", e);
-                    throw new BasicRestException(HttpStatus.BAD_REQUEST, "A similar revocation already exists", request.getServletPath());
-                }
+                String path = request.getServletPath();
+                return this.submissionExecutor.submit(request, () -> verifyRevocation(path, input, attestor, attestation, rootCA),
+                        revocation -> saveRevocation(path, revocation));
             }
         }
         throw new BasicRestException(HttpStatus.BAD_REQUEST, "The request did not contain all required attributes", request.getServletPath());
     }
+
+    private Revocation verifyRevocation(String path, RevocationRequest input, Attestor attestor,
+                                        Attestation attestation, RootCA rootCA) throws BasicRestException {
+        try {
+            if (CryptoUtil.isSignatureValid(input.getSignature(), input.getAlgorithmIdentifier(), attestor, attestation.getSignature())) {
+                Revocation revocation = new Revocation(input);
+                revocation.setAttestation(attestation);
+                revocation.setAttestor(attestor);
+                revocation.setRootCA(rootCA);
+                return revocation;
+            }
+        } catch (IOException | SignatureException | InvalidKeyException | CertificateException | NoSuchAlgorithmException e) {
+            log.error("Signature could not be verified", e);
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The signature of the revocation could not be verified", path);
+        }
+        throw new BasicRestException(HttpStatus.BAD_REQUEST, "The request did not contain all required attributes", path);
+    }
+
+    private ResponseEntity<RevocationView> saveRevocation(String path, Revocation revocation) throws BasicRestException {
+        try {
+            Revocation newRevocation = this.revocationService.save(revocation);
+            return new ResponseEntity<>(new RevocationView(newRevocation), HttpStatus.OK);
+        } catch (DataIntegrityViolationException e) {
+            log.error("New revocation could not be persisted because it already exists", e);
+            MetricsUtil.countDuplicate(EntityType.REVOCATION, "constraint");
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "A similar revocation already exists", path);
+        }
+    }
+
+    @PostMapping(
+            value = "/revocations/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Creates multiple revocations of previous attestations at once. All signatures are verified and the valid items are " +
+                    "created together. The response contains a result for each item in the order they were submitted."
+    )
+    public ResponseEntity<List<BatchItemResult<RevocationView>>> createRevocationsBatch(HttpServletRequest request, @RequestBody List<RevocationRequest> input) throws BasicRestException {
+        if (input == null || input.isEmpty() || input.size() > BatchService.MAX_BATCH_SIZE) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "A batch must contain between 1 and " + BatchService.MAX_BATCH_SIZE + " items", request.getServletPath());
+        }
+        return new ResponseEntity<>(this.batchService.saveRevocations(input), HttpStatus.OK);
+    }
 }
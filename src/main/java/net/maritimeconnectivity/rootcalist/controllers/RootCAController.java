@@ -19,18 +19,35 @@ package net.maritimeconnectivity.rootcalist.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.config.SubmissionExecutor;
 import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
+import net.maritimeconnectivity.rootcalist.exception.DuplicateCertificateException;
+import net.maritimeconnectivity.rootcalist.model.AttestorMatch;
+import net.maritimeconnectivity.rootcalist.model.BulkImportSummary;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.FingerprintMatch;
+import net.maritimeconnectivity.rootcalist.model.SnapshotFile;
+import net.maritimeconnectivity.rootcalist.model.SnapshotFormat;
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
 import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.services.BatchService;
+import net.maritimeconnectivity.rootcalist.services.FingerprintIndexService;
 import net.maritimeconnectivity.rootcalist.services.RootCAService;
+import net.maritimeconnectivity.rootcalist.services.SnapshotFileService;
+import net.maritimeconnectivity.rootcalist.services.TrustListExportService;
+import net.maritimeconnectivity.rootcalist.services.TrustListService;
+import net.maritimeconnectivity.rootcalist.utils.CertificateBundleReader;
 import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
-import org.bouncycastle.asn1.x500.RDN;
-import org.bouncycastle.asn1.x500.X500Name;
-import org.bouncycastle.asn1.x500.style.BCStyle;
-import org.bouncycastle.asn1.x500.style.IETFUtils;
+import net.maritimeconnectivity.rootcalist.utils.FileTransferUtil;
+import net.maritimeconnectivity.rootcalist.utils.HashUtil;
+import net.maritimeconnectivity.rootcalist.utils.MetricsUtil;
+import net.maritimeconnectivity.rootcalist.utils.PaginationUtil;
+import net.maritimeconnectivity.rootcalist.utils.ParsedCertificate;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.openssl.PEMParser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -43,10 +60,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.StringReader;
+import java.security.cert.CertificateException;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -54,26 +73,120 @@ import java.util.List;
 public class RootCAController {
 
     private RootCAService rootCAService;
+    private TrustListService trustListService;
+    private BatchService batchService;
+    private TrustListExportService trustListExportService;
+    private SnapshotFileService snapshotFileService;
+    private SubmissionExecutor submissionExecutor;
+    private FingerprintIndexService fingerprintIndexService;
 
     @Autowired
     public void setRootCAService(RootCAService rootCAService) {
         this.rootCAService = rootCAService;
     }
 
+    @Autowired
+    public void setTrustListService(TrustListService trustListService) {
+        this.trustListService = trustListService;
+    }
+
+    @Autowired
+    public void setBatchService(BatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    @Autowired
+    public void setTrustListExportService(TrustListExportService trustListExportService) {
+        this.trustListExportService = trustListExportService;
+    }
+
+    @Autowired
+    public void setSnapshotFileService(SnapshotFileService snapshotFileService) {
+        this.snapshotFileService = snapshotFileService;
+    }
+
+    @Autowired
+    public void setFingerprintIndexService(FingerprintIndexService fingerprintIndexService) {
+        this.fingerprintIndexService = fingerprintIndexService;
+    }
+
+    @Autowired
+    public void setSubmissionExecutor(SubmissionExecutor submissionExecutor) {
+        this.submissionExecutor = submissionExecutor;
+    }
+
     @GetMapping(
             value = "/roots",
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     @Operation(
             description = "Gets the list of root CAs. Can also be used to get only root CAs that are attested by " +
-                    "specific attestors using the attestorId query parameter."
+                    "specific attestors using the attestorId query parameter. The list can be paged by giving the ID " +
+                    "of the last element of the previous page in the after query parameter and the page size in the " +
+                    "limit query parameter. With match=any (the default) a root CA is returned if at least one of the " +
+                    "given attestors has attested it, with match=all only if every one of them has. Revoked " +
+                    "attestations are not taken into account."
     )
-    public ResponseEntity<List<RootCA>> getRootCAs(@RequestParam(required = false, name = "attestorId") @Parameter(description = "The ID of an attestor") List<Long> attestorIds) {
+    public ResponseEntity<List<RootCAView>> getRootCAs(HttpServletRequest request, HttpServletResponse response,
+                                                       @RequestParam(required = false, name = "attestorId") @Parameter(description = "The ID of an attestor") List<Long> attestorIds,
+                                                       @RequestParam(required = false) @Parameter(description = "Whether a root CA must be attested by any or all of the given attestors") String match,
+                                                       @RequestParam(required = false) @Parameter(description = "Only return root CAs with an ID greater than this") Long after,
+                                                       @RequestParam(required = false) @Parameter(description = "The maximum number of root CAs to return") Integer limit) throws BasicRestException, IOException {
+        AttestorMatch attestorMatch = AttestorMatch.fromString(match);
+        if (attestorMatch == null) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The match parameter must be either any or all", request.getServletPath());
+        }
+        TrustListSnapshot snapshot = this.trustListService.getSnapshot();
+        if (PaginationUtil.isPaged(after, limit)) {
+            Slice<RootCAView> slice = snapshot.getRootCAs(attestorIds, attestorMatch, PaginationUtil.after(after), PaginationUtil.limit(limit));
+            return new ResponseEntity<>(slice.getContent(), PaginationUtil.linkHeaders(slice, RootCAView::getId), HttpStatus.OK);
+        }
         if (attestorIds != null) {
-            List<RootCA> rootCAS = this.rootCAService.listByAttestors(attestorIds);
+            List<RootCAView> rootCAS = snapshot.getRootCAs(attestorIds, attestorMatch);
             return new ResponseEntity<>(rootCAS, HttpStatus.OK);
         }
-        return new ResponseEntity<>(this.rootCAService.listAll(), HttpStatus.OK);
+        if (transferSnapshotFile(SnapshotFormat.JSON, request, response)) {
+            return null;
+        }
+        return new ResponseEntity<>(snapshot.getRootCAs(), HttpStatus.OK);
+    }
+
+    @GetMapping(
+            value = "/roots.bin",
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE
+    )
+    @Operation(
+            description = "Gets the complete trust list in a compact binary format. Every root CA is included with its " +
+                    "DER encoded certificate, the SHA-256 fingerprint of the certificate and its attestations. The " +
+                    "entries are indexed by fingerprint so that a client can look up a certificate without decoding " +
+                    "the whole list."
+    )
+    public ResponseEntity<byte[]> getRootCAsBinary(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (transferSnapshotFile(SnapshotFormat.BINARY, request, response)) {
+            return null;
+        }
+        return new ResponseEntity<>(this.trustListExportService.getBinaryExport(), HttpStatus.OK);
+    }
+
+    @GetMapping(
+            value = "/roots.pem",
+            produces = "application/x-pem-file"
+    )
+    @Operation(
+            description = "Gets the certificates of all root CAs as a PEM bundle."
+    )
+    public ResponseEntity<String> getRootCAsPem(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (transferSnapshotFile(SnapshotFormat.PEM, request, response)) {
+            return null;
+        }
+        StringBuilder bundle = new StringBuilder();
+        for (RootCAView rootCA : this.trustListService.getSnapshot().getRootCAs()) {
+            bundle.append(rootCA.getCertificate());
+            if (!rootCA.getCertificate().endsWith("\n")) {
+                bundle.append('\n');
+            }
+        }
+        return new ResponseEntity<>(bundle.toString(), HttpStatus.OK);
     }
 
     @GetMapping(
@@ -83,14 +196,56 @@ public class RootCAController {
     @Operation(
             description = "Gets a specific root CA based on its ID."
     )
-    public ResponseEntity<RootCA> getRootCA(@PathVariable @Parameter(description = "The ID of the requested root CA") Long id) {
-        RootCA rootCA = this.rootCAService.getById(id);
+    public ResponseEntity<RootCAView> getRootCA(@PathVariable @Parameter(description = "The ID of the requested root CA") Long id) {
+        RootCAView rootCA = this.trustListService.getSnapshot().getRootCA(id);
+        if (rootCA != null) {
+            return new ResponseEntity<>(rootCA, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    @GetMapping(
+            value = "/root/by-fingerprint/{fingerprint}",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Gets a root CA based on the HEX encoded SHA-256 fingerprint of its DER encoded certificate. " +
+                    "The fingerprint may be in upper case and contain colons between the bytes."
+    )
+    public ResponseEntity<RootCAView> getRootCAByFingerprint(HttpServletRequest request,
+                                                             @PathVariable @Parameter(description = "The SHA-256 fingerprint of the root CA certificate") String fingerprint) throws BasicRestException {
+        if (HashUtil.normalizeSha256(fingerprint) == null) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The fingerprint must be a HEX encoded SHA-256 hash", request.getServletPath());
+        }
+        RootCAView rootCA = this.fingerprintIndexService.findByFingerprint(fingerprint);
         if (rootCA != null) {
             return new ResponseEntity<>(rootCA, HttpStatus.OK);
         }
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    @PostMapping(
+            value = "/roots/contains",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Checks which of the given SHA-256 certificate fingerprints belong to a root CA in the trust " +
+                    "list. Up to 10000 fingerprints can be checked in one request, the result contains one element per " +
+                    "fingerprint in the same order with the ID of the matching root CA, if there is one."
+    )
+    public ResponseEntity<List<FingerprintMatch>> containsRootCAs(HttpServletRequest request, @RequestBody List<String> fingerprints) throws BasicRestException {
+        if (fingerprints.isEmpty() || fingerprints.size() > FingerprintIndexService.MAX_LOOKUP_SIZE) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "Between 1 and " + FingerprintIndexService.MAX_LOOKUP_SIZE + " fingerprints must be given", request.getServletPath());
+        }
+        for (int i = 0; i < fingerprints.size(); i++) {
+            if (HashUtil.normalizeSha256(fingerprints.get(i)) == null) {
+                throw new BasicRestException(HttpStatus.BAD_REQUEST, "The fingerprint at index " + i + " is not a HEX encoded SHA-256 hash", request.getServletPath());
+            }
+        }
+        return new ResponseEntity<>(this.fingerprintIndexService.match(fingerprints), HttpStatus.OK);
+    }
+
     @PostMapping(
             value = "/root",
             consumes = "application/x-pem-file",
@@ -100,30 +255,76 @@ public class RootCAController {
             description = "Creates a new root CA. The root CA certificate must be sent in PEM format in the body of " +
                     "the request."
     )
-    public ResponseEntity<RootCA> createRootCA(HttpServletRequest request, @RequestBody String rootCACert) throws BasicRestException {
-        PEMParser pemParser = new PEMParser(new StringReader(rootCACert));
+    public CompletableFuture<ResponseEntity<RootCAView>> createRootCA(HttpServletRequest request, @RequestBody String rootCACert) throws BasicRestException {
+        String path = request.getServletPath();
+        return this.submissionExecutor.submit(request, () -> verifyRootCA(path, rootCACert), rootCA -> saveRootCA(path, rootCA));
+    }
+
+    private RootCA verifyRootCA(String path, String rootCACert) throws BasicRestException {
         try {
-            X509CertificateHolder certificateHolder = (X509CertificateHolder) pemParser.readObject();
-            pemParser.close();
+            ParsedCertificate parsedCertificate = CryptoUtil.parseCertificate(rootCACert);
+            X509CertificateHolder certificateHolder = parsedCertificate != null ? parsedCertificate.getCertificateHolder() : null;
             if (certificateHolder != null && certificateHolder.isValidOn(new Date()) && CryptoUtil.isSelfSigned(certificateHolder)) {
                 RootCA rootCA = new RootCA();
                 rootCA.setCertificate(rootCACert);
-                X500Name x500Name = certificateHolder.getSubject();
-                if (x500Name != null && x500Name.getRDNs(BCStyle.CN).length > 0) {
-                    RDN cn = x500Name.getRDNs(BCStyle.CN)[0];
-                    String cnString = IETFUtils.valueToString(cn.getFirst().getValue());
+                String cnString = CryptoUtil.getCommonName(certificateHolder);
+                if (cnString != null) {
                     rootCA.setName(cnString);
-                    RootCA newRootCA = this.rootCAService.save(rootCA);
-                    return new ResponseEntity<>(newRootCA, HttpStatus.OK);
+                    return rootCA;
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | CertificateException e) {
             log.error("New root CA certificate could not be parsed");
-            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The certificate could not be verified", request.getServletPath());
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The certificate could not be verified", path);
+        }
+        throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while creating new Root CA", path);
+    }
+
+    private ResponseEntity<RootCAView> saveRootCA(String path, RootCA rootCA) throws BasicRestException {
+        try {
+            RootCA newRootCA = this.rootCAService.save(rootCA);
+            return new ResponseEntity<>(new RootCAView(newRootCA), HttpStatus.OK);
+        } catch (DuplicateCertificateException e) {
+            log.debug("New root CA was rejected because a certificate with fingerprint {} already exists", e.getFingerprint());
+            MetricsUtil.countDuplicate(EntityType.ROOT_CA, "fingerprint");
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "A root CA with the same certificate already exists", path);
         } catch (DataIntegrityViolationException e) {
             log.error("New root CA could not be persisted because it already exists", e);
-            throw new BasicRestException(HttpStatus.BAD_REQUEST, "A root CA with the same certificate already exists", request.getServletPath());
+            MetricsUtil.countDuplicate(EntityType.ROOT_CA, "constraint");
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "A root CA with the same certificate already exists", path);
+        }
+    }
+
+    @PostMapping(
+            value = "/roots/bulk",
+            consumes = {"application/x-pem-file", "application/pkcs7-mime", "application/x-pkcs7-certificates"},
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Creates root CAs from a bundle of certificates. The body can either be a concatenation " +
+                    "of PEM encoded certificates and PKCS#7 structures, or a DER encoded PKCS#7 certs-only " +
+                    "structure. Certificates that already exist are skipped, and certificates that are not valid, " +
+                    "self-signed root CA certificates are rejected. The response summarizes the result of each " +
+                    "certificate in the order they appear in the bundle."
+    )
+    public ResponseEntity<BulkImportSummary<RootCAView>> createRootCAs(HttpServletRequest request) throws BasicRestException {
+        boolean pem = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf("application/x-pem-file"));
+        try (CertificateBundleReader reader = pem ? CertificateBundleReader.fromPem(request.getInputStream())
+                : CertificateBundleReader.fromPkcs7(request.getInputStream())) {
+            return new ResponseEntity<>(this.batchService.importRootCAs(reader), HttpStatus.OK);
+        } catch (IOException e) {
+            log.error("Root CA bundle could not be read", e);
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The certificate bundle could not be read: " + e.getMessage(), request.getServletPath());
+        }
+    }
+
+    // serves the pre-rendered file if it is up to date, the response has then been written and null must be returned
+    private boolean transferSnapshotFile(SnapshotFormat format, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SnapshotFile file = this.snapshotFileService.getFile(format);
+        if (file == null) {
+            return false;
         }
-        throw new BasicRestException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while creating new Root CA", request.getServletPath());
+        FileTransferUtil.transfer(file, request, response);
+        return true;
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
+import net.maritimeconnectivity.rootcalist.model.AttestorMatch;
+import net.maritimeconnectivity.rootcalist.model.ValidationResult;
+import net.maritimeconnectivity.rootcalist.services.ChainValidationService;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class ValidationController {
+
+    private ChainValidationService chainValidationService;
+
+    @Autowired
+    public void setChainValidationService(ChainValidationService chainValidationService) {
+        this.chainValidationService = chainValidationService;
+    }
+
+    @PostMapping(
+            value = "/validate",
+            consumes = "application/pem-certificate-chain",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            description = "Validates a certificate chain against the trust list. The body must contain a PEM " +
+                    "certificate chain starting with the certificate to validate, followed by any intermediate " +
+                    "certificates. The chain is valid if a path can be built to a root CA that currently has an " +
+                    "attestation that has not been revoked. With the attestorId query parameter the root CA must " +
+                    "instead be attested by any (match=any, the default) or all (match=all) of the given attestors."
+    )
+    public ResponseEntity<ValidationResult> validate(HttpServletRequest request, @RequestBody String certChain,
+                                                     @RequestParam(required = false, name = "attestorId") @Parameter(description = "The ID of an attestor") List<Long> attestorIds,
+                                                     @RequestParam(required = false) @Parameter(description = "Whether the root CA must be attested by any or all of the given attestors") String match) throws BasicRestException {
+        AttestorMatch attestorMatch = AttestorMatch.fromString(match);
+        if (attestorMatch == null) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The match parameter must be either any or all", request.getServletPath());
+        }
+        X509CertificateHolder[] certificateHolders;
+        try {
+            certificateHolders = CryptoUtil.extractCertificates(certChain);
+        } catch (IOException e) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The certificate chain could not be read", request.getServletPath());
+        }
+        if (certificateHolders.length == 0) {
+            throw new BasicRestException(HttpStatus.BAD_REQUEST, "The request did not contain any valid certificates", request.getServletPath());
+        }
+        return new ResponseEntity<>(this.chainValidationService.validate(certificateHolders, attestorIds, attestorMatch), HttpStatus.OK);
+    }
+}
@@ -16,22 +16,47 @@
 
 package net.maritimeconnectivity.rootcalist.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import net.maritimeconnectivity.rootcalist.model.ExceptionModel;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
 
 @ControllerAdvice
 public class BasicRestExceptionResolver {
 
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(BasicRestException.class)
-    public ResponseEntity<ExceptionModel> processRestError(BasicRestException e) {
+    public ResponseEntity<ExceptionModel> processRestError(BasicRestException e, HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        this.meterRegistry.counter("rootcalist.requests.rejected", "method", request.getMethod(),
+                "uri", pattern != null ? pattern.toString() : "UNKNOWN", "status", String.valueOf(e.getStatus().value()))
+                .increment();
         // mimics the standard spring error structure on exceptions
         ExceptionModel exp = new ExceptionModel(e.getTimestamp(), e.getStatus().value(), e.getError(), e.getErrorMessage(), e.path);
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setContentType(MediaType.APPLICATION_JSON);
         return new ResponseEntity<>(exp, httpHeaders, e.getStatus());
     }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ExceptionModel> processUnavailable(ServiceUnavailableException e, HttpServletRequest request) {
+        ResponseEntity<ExceptionModel> response = processRestError(e, request);
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.putAll(response.getHeaders());
+        httpHeaders.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ResponseEntity<>(response.getBody(), httpHeaders, response.getStatusCode());
+    }
 }
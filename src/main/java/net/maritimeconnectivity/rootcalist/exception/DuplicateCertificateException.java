@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.exception;
+
+import lombok.Getter;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// thrown before an insert when an entity with the same certificate fingerprint already exists, so code that handles
+// the unique constraint of the database handles this the same way
+@Getter
+public class DuplicateCertificateException extends DataIntegrityViolationException {
+
+    private final String fingerprint;
+
+    public DuplicateCertificateException(String fingerprint) {
+        super("A certificate with the fingerprint " + fingerprint + " already exists");
+        this.fingerprint = fingerprint;
+    }
+
+    // duplicates are expected and reported to the client, a stack trace would only be noise
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
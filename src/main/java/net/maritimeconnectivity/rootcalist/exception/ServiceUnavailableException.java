@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+// tells the client that the request was not processed because the service is busy and when to try again
+@Getter
+public class ServiceUnavailableException extends BasicRestException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String errorMessage, String path, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, errorMessage, path);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
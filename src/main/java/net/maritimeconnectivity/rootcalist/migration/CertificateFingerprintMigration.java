@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.HashUtil;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Replaces the hash column that MySQL generated from the PEM string with a fingerprint column computed by
+ * CryptoUtil.fingerprint. This has to be done in Java because the database can not decode the certificates.
+ * Attestors that were created from a certificate chain were stored with the issuer certificate in front of their own
+ * one, so the issuer certificate is removed from them first.
+ * If several rows turn out to hold the same certificate the migration fails before anything has been changed and
+ * lists them, so that the duplicates can be cleaned up by hand.
+ */
+@Slf4j
+@Component
+public class CertificateFingerprintMigration implements JavaMigration {
+
+    private static final String[] TABLES = {"root_ca", "attestor"};
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("4");
+    }
+
+    @Override
+    public String getDescription() {
+        return "certificate fingerprints";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean isUndo() {
+        return false;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        normalizeChainAttestors(connection);
+        // all fingerprints are computed and checked before the schema is changed, as MySQL can not roll back DDL
+        Map<String, Map<Long, String>> fingerprints = new LinkedHashMap<>();
+        List<String> collisions = new ArrayList<>();
+        for (String table : TABLES) {
+            Map<Long, String> tableFingerprints = computeFingerprints(connection, table);
+            fingerprints.put(table, tableFingerprints);
+            collisions.addAll(findCollisions(table, tableFingerprints));
+        }
+        if (!collisions.isEmpty()) {
+            collisions.forEach(log::error);
+            throw new FlywayException("Rows with the same certificate have to be merged or removed before the unique " +
+                    "fingerprint column can be added: " + String.join("; ", collisions));
+        }
+        for (String table : TABLES) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE `" + table + "` ADD COLUMN `fingerprint` VARCHAR(64) NULL");
+            }
+            int count = 0;
+            try (PreparedStatement update = connection.prepareStatement("UPDATE `" + table + "` SET `fingerprint` = ? WHERE `id` = ?")) {
+                for (Map.Entry<Long, String> entry : fingerprints.get(table).entrySet()) {
+                    update.setString(1, entry.getValue());
+                    update.setLong(2, entry.getKey());
+                    update.addBatch();
+                    if (++count % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+                update.executeBatch();
+            }
+            // the unique index of the hash column is dropped together with it
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE `" + table + "` DROP COLUMN `hash`, " +
+                        "MODIFY `fingerprint` VARCHAR(64) NOT NULL, ADD UNIQUE INDEX `" + table + "_fingerprint` (`fingerprint`)");
+            }
+            log.info("Computed the certificate fingerprints of {} rows in {}", count, table);
+        }
+    }
+
+    // otherwise all attestors of the same issuer would get the fingerprint of the issuer
+    private static void normalizeChainAttestors(Connection connection) throws SQLException {
+        Map<Long, String> certificates = new LinkedHashMap<>();
+        try (Statement select = connection.createStatement();
+             ResultSet resultSet = select.executeQuery("SELECT `id`, `certificate`, `issuer` FROM `attestor` WHERE `issuer` IS NOT NULL")) {
+            while (resultSet.next()) {
+                String certificate = withoutIssuer(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3));
+                if (certificate != null) {
+                    certificates.put(resultSet.getLong(1), certificate);
+                }
+            }
+        }
+        int count = 0;
+        try (PreparedStatement update = connection.prepareStatement("UPDATE `attestor` SET `certificate` = ? WHERE `id` = ?")) {
+            for (Map.Entry<Long, String> entry : certificates.entrySet()) {
+                update.setString(1, entry.getValue());
+                update.setLong(2, entry.getKey());
+                update.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+        log.info("Removed the issuer certificate from the certificate of {} attestors", count);
+    }
+
+    // returns the certificates that follow the issuer certificate, or null if the certificate does not start with it
+    private static String withoutIssuer(long id, String certificate, String issuer) {
+        try {
+            X509CertificateHolder[] certificateHolders = CryptoUtil.extractCertificates(certificate);
+            X509CertificateHolder[] issuerHolders = CryptoUtil.extractCertificates(issuer);
+            if (certificateHolders.length < 2 || issuerHolders.length == 0 || !certificateHolders[0].equals(issuerHolders[0])) {
+                return null;
+            }
+            StringBuilder pem = new StringBuilder();
+            for (int i = 1; i < certificateHolders.length; i++) {
+                pem.append(CryptoUtil.toPem(certificateHolders[i]));
+            }
+            return pem.toString();
+        } catch (IOException e) {
+            log.warn("The certificate of attestor {} could not be parsed, it is left as it is", id, e);
+            return null;
+        }
+    }
+
+    private static Map<Long, String> computeFingerprints(Connection connection, String table) throws SQLException {
+        Map<Long, String> fingerprints = new LinkedHashMap<>();
+        try (Statement select = connection.createStatement();
+             ResultSet resultSet = select.executeQuery("SELECT `id`, `certificate` FROM `" + table + "`")) {
+            while (resultSet.next()) {
+                fingerprints.put(resultSet.getLong(1), fingerprint(table, resultSet.getLong(1), resultSet.getString(2)));
+            }
+        }
+        return fingerprints;
+    }
+
+    // the old hash column only caught certificates with exactly the same PEM string, so rows that only differ in the
+    // formatting of the PEM or in trailing issuer certificates get the same fingerprint now
+    private static List<String> findCollisions(String table, Map<Long, String> fingerprints) {
+        Map<String, List<Long>> idsByFingerprint = new LinkedHashMap<>();
+        fingerprints.forEach((id, fingerprint) -> idsByFingerprint.computeIfAbsent(fingerprint, k -> new ArrayList<>()).add(id));
+        List<String> collisions = new ArrayList<>();
+        idsByFingerprint.forEach((fingerprint, ids) -> {
+            if (ids.size() > 1) {
+                collisions.add(String.format("%s rows %s have the same certificate with fingerprint %s", table, ids, fingerprint));
+            }
+        });
+        return collisions;
+    }
+
+    private static String fingerprint(String table, long id, String certificate) {
+        try {
+            String fingerprint = CryptoUtil.fingerprint(certificate);
+            if (fingerprint != null) {
+                return fingerprint;
+            }
+        } catch (IOException e) {
+            log.debug("Certificate could not be parsed", e);
+        }
+        // keeps the row unique the same way as the old hash column did
+        log.warn("The certificate of {} {} could not be parsed, its fingerprint is computed from the PEM string", table, id);
+        return HashUtil.sha256(certificate.replaceAll("[\r\n\t ]+", "").getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+/**
+ * How a list of attestors is matched against the attestations of a root CA. Only attestations that have not been
+ * revoked are taken into account.
+ */
+public enum AttestorMatch {
+    // the root CA is attested by at least one of the attestors
+    ANY,
+    // the root CA is attested by every one of the attestors
+    ALL;
+
+    public static AttestorMatch fromString(String value) {
+        if (value == null) {
+            return ANY;
+        }
+        for (AttestorMatch match : values()) {
+            if (match.name().equalsIgnoreCase(value)) {
+                return match;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BatchItemResult<T> implements JsonSerializable {
+
+    public enum Status {
+        CREATED,
+        SKIPPED,
+        REJECTED
+    }
+
+    @ApiModelProperty(value = "The position of the item in the submitted batch, starting from 0")
+    private final int index;
+    @ApiModelProperty(value = "Whether the item was created, skipped because it already exists or rejected")
+    private final Status status;
+    @ApiModelProperty(value = "The reason why the item was skipped or rejected")
+    private final String message;
+    @ApiModelProperty(value = "The created object")
+    private final T result;
+
+    private BatchItemResult(int index, Status status, String message, T result) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+        this.result = result;
+    }
+
+    public static <T> BatchItemResult<T> created(int index, T result) {
+        return new BatchItemResult<>(index, Status.CREATED, null, result);
+    }
+
+    public static <T> BatchItemResult<T> skipped(int index, String message) {
+        return new BatchItemResult<>(index, Status.SKIPPED, message, null);
+    }
+
+    public static <T> BatchItemResult<T> rejected(int index, String message) {
+        return new BatchItemResult<>(index, Status.REJECTED, message, null);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class BulkImportSummary<T> implements JsonSerializable {
+
+    @ApiModelProperty(value = "The number of items that were created")
+    private final int added;
+    @ApiModelProperty(value = "The number of items that were skipped because they already exist")
+    private final int skipped;
+    @ApiModelProperty(value = "The number of items that were rejected")
+    private final int rejected;
+    @ApiModelProperty(value = "The result of each item in the order they were read")
+    private final List<BatchItemResult<T>> items;
+
+    public BulkImportSummary(List<BatchItemResult<T>> items) {
+        int addedCount = 0;
+        int skippedCount = 0;
+        for (BatchItemResult<T> item : items) {
+            if (item.getStatus() == BatchItemResult.Status.CREATED) {
+                addedCount++;
+            } else if (item.getStatus() == BatchItemResult.Status.SKIPPED) {
+                skippedCount++;
+            }
+        }
+        this.added = addedCount;
+        this.skipped = skippedCount;
+        this.rejected = items.size() - addedCount - skippedCount;
+        this.items = items;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+import net.maritimeconnectivity.rootcalist.model.view.ChangeView;
+
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+@ToString
+public class ChangeSet implements JsonSerializable {
+
+    @ApiModelProperty(value = "The sequence number to pass as since in the next request")
+    private final long sequence;
+    @ApiModelProperty(value = "Whether there are more changes after the ones that were returned")
+    private final boolean more;
+    @ApiModelProperty(value = "The changes in the order they were made")
+    private final List<ChangeView> changes;
+
+    public ChangeSet(long sequence, boolean more, List<ChangeView> changes) {
+        this.sequence = sequence;
+        this.more = more;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class EndpointStatistics implements JsonSerializable {
+
+    @ApiModelProperty(value = "The HTTP method and the path pattern of the endpoint")
+    private final String endpoint;
+    @ApiModelProperty(value = "The number of requests that have been made to the endpoint")
+    private final long requests;
+    @ApiModelProperty(value = "The number of SQL statements that were executed while handling the requests")
+    private final long statements;
+
+    public EndpointStatistics(String endpoint, long requests, long statements) {
+        this.endpoint = endpoint;
+        this.requests = requests;
+        this.statements = statements;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.database.TimestampModel;
+
+// the kinds of entities that are recorded in the change log
+public enum EntityType {
+    ROOT_CA,
+    ATTESTOR,
+    ATTESTATION,
+    REVOCATION;
+
+    public static EntityType of(TimestampModel entity) {
+        if (entity instanceof RootCA) {
+            return ROOT_CA;
+        } else if (entity instanceof Attestor) {
+            return ATTESTOR;
+        } else if (entity instanceof Attestation) {
+            return ATTESTATION;
+        } else if (entity instanceof Revocation) {
+            return REVOCATION;
+        }
+        return null;
+    }
+}
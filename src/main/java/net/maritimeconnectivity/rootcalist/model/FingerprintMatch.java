@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class FingerprintMatch implements JsonSerializable {
+
+    @ApiModelProperty(value = "The fingerprint as it was given")
+    private final String fingerprint;
+    @ApiModelProperty(value = "The ID of the root CA with the fingerprint, left out if the trust list does not contain it")
+    private final Long rootCA;
+
+    public FingerprintMatch(String fingerprint, Long rootCA) {
+        this.fingerprint = fingerprint;
+        this.rootCA = rootCA;
+    }
+}
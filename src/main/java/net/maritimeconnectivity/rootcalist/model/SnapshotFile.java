@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+@Getter
+public class SnapshotFile {
+
+    private final SnapshotFormat format;
+    private final Path path;
+    private final long length;
+    // the data version the file was rendered from
+    private final String eTag;
+
+    public SnapshotFile(SnapshotFormat format, Path path, long length, String eTag) {
+        this.format = format;
+        this.path = path;
+        this.length = length;
+        this.eTag = eTag;
+    }
+}
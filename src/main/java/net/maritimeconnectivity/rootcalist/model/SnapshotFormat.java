@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import lombok.Getter;
+
+/**
+ * The representations of the complete trust list that are pre-rendered to files whenever the data changes.
+ */
+@Getter
+public enum SnapshotFormat {
+    JSON("roots.json", "application/json"),
+    PEM("roots.pem", "application/x-pem-file"),
+    BINARY("roots.bin", "application/octet-stream");
+
+    private final String fileName;
+    private final String mediaType;
+
+    SnapshotFormat(String fileName, String mediaType) {
+        this.fileName = fileName;
+        this.mediaType = mediaType;
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.AttestorView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable in-memory copy of the trust list. Every modification returns a new snapshot that shares all unchanged
+ * parts with the previous one, so a snapshot can be handed out to any number of readers without locking.
+ */
+public final class TrustListSnapshot {
+
+    private final long version;
+    private final SortedMap<Long, RootCAView> rootCAs;
+    private final SortedMap<Long, AttestorView> attestors;
+    private final SortedMap<Long, AttestationView> attestations;
+    private final SortedMap<Long, RevocationView> revocations;
+    private final List<RootCAView> rootCAList;
+
+    private TrustListSnapshot(long version, SortedMap<Long, RootCAView> rootCAs, SortedMap<Long, AttestorView> attestors,
+                              SortedMap<Long, AttestationView> attestations, SortedMap<Long, RevocationView> revocations) {
+        this.version = version;
+        this.rootCAs = rootCAs;
+        this.attestors = attestors;
+        this.attestations = attestations;
+        this.revocations = revocations;
+        this.rootCAList = Collections.unmodifiableList(new ArrayList<>(rootCAs.values()));
+    }
+
+    public static TrustListSnapshot empty() {
+        return new TrustListSnapshot(0, new TreeMap<>(), new TreeMap<>(), new TreeMap<>(), new TreeMap<>());
+    }
+
+    public static TrustListSnapshot build(Collection<RootCAView> rootCAs, Collection<AttestorView> attestors,
+                                          Collection<AttestationView> attestations, Collection<RevocationView> revocations) {
+        SortedMap<Long, RevocationView> revocationMap = new TreeMap<>();
+        Map<Long, RevocationView> revocationsByAttestation = new HashMap<>();
+        for (RevocationView revocation : revocations) {
+            revocationMap.put(revocation.getId(), revocation);
+            revocationsByAttestation.put(revocation.getAttestation(), revocation);
+        }
+        SortedMap<Long, AttestationView> attestationMap = new TreeMap<>();
+        for (AttestationView attestation : attestations) {
+            RevocationView revocation = revocationsByAttestation.get(attestation.getId());
+            attestationMap.put(attestation.getId(), revocation != null ? attestation.withRevocation(revocation) : attestation);
+        }
+        Map<Long, List<AttestationView>> attestationsByRootCA = new HashMap<>();
+        for (AttestationView attestation : attestationMap.values()) {
+            attestationsByRootCA.computeIfAbsent(attestation.getRootCA(), k -> new ArrayList<>()).add(attestation);
+        }
+        SortedMap<Long, RootCAView> rootCAMap = new TreeMap<>();
+        for (RootCAView rootCA : rootCAs) {
+            rootCAMap.put(rootCA.getId(), rootCA.withAttestations(
+                    attestationsByRootCA.getOrDefault(rootCA.getId(), Collections.emptyList())));
+        }
+        SortedMap<Long, AttestorView> attestorMap = new TreeMap<>();
+        for (AttestorView attestor : attestors) {
+            attestorMap.put(attestor.getId(), attestor);
+        }
+        return new TrustListSnapshot(0, rootCAMap, attestorMap, attestationMap, revocationMap);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<RootCAView> getRootCAs() {
+        return rootCAList;
+    }
+
+    // returns the root CAs that have non-revoked attestations by any or all of the given attestors
+    public List<RootCAView> getRootCAs(Collection<Long> attestorIds, AttestorMatch match) {
+        List<RootCAView> result = new ArrayList<>();
+        for (RootCAView rootCA : rootCAList) {
+            if (rootCA.isAttestedBy(attestorIds, match)) {
+                result.add(rootCA);
+            }
+        }
+        return result;
+    }
+
+    // keyset pagination over the root CAs with an ID greater than after, optionally restricted to given attestors
+    public Slice<RootCAView> getRootCAs(Collection<Long> attestorIds, AttestorMatch match, long after, int limit) {
+        List<RootCAView> content = new ArrayList<>(limit);
+        boolean hasNext = false;
+        for (RootCAView rootCA : rootCAs.tailMap(after).values()) {
+            if (rootCA.getId() == after || (attestorIds != null && !rootCA.isAttestedBy(attestorIds, match))) {
+                continue;
+            }
+            if (content.size() == limit) {
+                hasNext = true;
+                break;
+            }
+            content.add(rootCA);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, limit), hasNext);
+    }
+
+    public RootCAView getRootCA(Long id) {
+        return rootCAs.get(id);
+    }
+
+    public Collection<AttestorView> getAttestors() {
+        return Collections.unmodifiableCollection(attestors.values());
+    }
+
+    public AttestorView getAttestor(Long id) {
+        return attestors.get(id);
+    }
+
+    public Collection<AttestationView> getAttestations() {
+        return Collections.unmodifiableCollection(attestations.values());
+    }
+
+    public AttestationView getAttestation(Long id) {
+        return attestations.get(id);
+    }
+
+    public Collection<RevocationView> getRevocations() {
+        return Collections.unmodifiableCollection(revocations.values());
+    }
+
+    public RevocationView getRevocation(Long id) {
+        return revocations.get(id);
+    }
+
+    public TrustListSnapshot withRootCA(RootCAView rootCA) {
+        return edit().withRootCA(rootCA).apply();
+    }
+
+    public TrustListSnapshot withoutRootCA(Long id) {
+        return edit().withoutRootCA(id).apply();
+    }
+
+    public TrustListSnapshot withAttestor(AttestorView attestor) {
+        return edit().withAttestor(attestor).apply();
+    }
+
+    public TrustListSnapshot withoutAttestor(Long id) {
+        return edit().withoutAttestor(id).apply();
+    }
+
+    public TrustListSnapshot withAttestation(AttestationView attestation) {
+        return edit().withAttestation(attestation).apply();
+    }
+
+    public TrustListSnapshot withoutAttestation(Long id) {
+        return edit().withoutAttestation(id).apply();
+    }
+
+    public TrustListSnapshot withRevocation(RevocationView revocation) {
+        return edit().withRevocation(revocation).apply();
+    }
+
+    public TrustListSnapshot withoutRevocation(Long id) {
+        return edit().withoutRevocation(id).apply();
+    }
+
+    // collects any number of changes that are turned into a single new snapshot, e.g. all changes of one transaction
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Applies changes to a snapshot without modifying it. Each map is copied at most once, on its first change, and
+     * the list of root CAs is only rebuilt by apply, so a batch of changes costs about as much as a single one.
+     */
+    public static final class Editor {
+
+        private final TrustListSnapshot base;
+        private SortedMap<Long, RootCAView> rootCAs;
+        private SortedMap<Long, AttestorView> attestors;
+        private SortedMap<Long, AttestationView> attestations;
+        private SortedMap<Long, RevocationView> revocations;
+        private boolean rootCAsCopied;
+        private boolean attestorsCopied;
+        private boolean attestationsCopied;
+        private boolean revocationsCopied;
+
+        private Editor(TrustListSnapshot base) {
+            this.base = base;
+            this.rootCAs = base.rootCAs;
+            this.attestors = base.attestors;
+            this.attestations = base.attestations;
+            this.revocations = base.revocations;
+        }
+
+        public Editor withRootCA(RootCAView rootCA) {
+            RootCAView existing = rootCAs.get(rootCA.getId());
+            mutableRootCAs().put(rootCA.getId(), existing != null ? rootCA.withAttestations(existing.getAttestations()) : rootCA);
+            return this;
+        }
+
+        // also removes the attestations of the root CA and their revocations, which cannot exist without it
+        public Editor withoutRootCA(Long id) {
+            RootCAView existing = rootCAs.get(id);
+            if (existing != null) {
+                mutableRootCAs().remove(id);
+                for (AttestationView attestation : existing.getAttestations()) {
+                    AttestationView current = attestations.get(attestation.getId());
+                    if (current == null) {
+                        continue;
+                    }
+                    mutableAttestations().remove(current.getId());
+                    if (current.getRevocation() != null && revocations.containsKey(current.getRevocation().getId())) {
+                        mutableRevocations().remove(current.getRevocation().getId());
+                    }
+                }
+            }
+            return this;
+        }
+
+        public Editor withAttestor(AttestorView attestor) {
+            mutableAttestors().put(attestor.getId(), attestor);
+            return this;
+        }
+
+        public Editor withoutAttestor(Long id) {
+            if (attestors.containsKey(id)) {
+                mutableAttestors().remove(id);
+            }
+            return this;
+        }
+
+        public Editor withAttestation(AttestationView attestation) {
+            AttestationView existing = attestations.get(attestation.getId());
+            if (existing != null && existing.getRevocation() != null) {
+                attestation = attestation.withRevocation(existing.getRevocation());
+            }
+            mutableAttestations().put(attestation.getId(), attestation);
+            replaceAttestation(attestation.getRootCA(), attestation.getId(), attestation);
+            return this;
+        }
+
+        public Editor withoutAttestation(Long id) {
+            AttestationView existing = attestations.get(id);
+            if (existing != null) {
+                mutableAttestations().remove(id);
+                replaceAttestation(existing.getRootCA(), id, null);
+            }
+            return this;
+        }
+
+        public Editor withRevocation(RevocationView revocation) {
+            mutableRevocations().put(revocation.getId(), revocation);
+            withRevokedAttestation(revocation.getAttestation(), revocation);
+            return this;
+        }
+
+        public Editor withoutRevocation(Long id) {
+            RevocationView existing = revocations.get(id);
+            if (existing != null) {
+                mutableRevocations().remove(id);
+                withRevokedAttestation(existing.getAttestation(), null);
+            }
+            return this;
+        }
+
+        // returns the snapshot itself if nothing has changed, otherwise a new snapshot with the next version
+        public TrustListSnapshot apply() {
+            if (!rootCAsCopied && !attestorsCopied && !attestationsCopied && !revocationsCopied) {
+                return base;
+            }
+            return new TrustListSnapshot(base.version + 1, rootCAs, attestors, attestations, revocations);
+        }
+
+        private void withRevokedAttestation(Long attestationId, RevocationView revocation) {
+            AttestationView attestation = attestations.get(attestationId);
+            if (attestation != null) {
+                attestation = attestation.withRevocation(revocation);
+                mutableAttestations().put(attestationId, attestation);
+                replaceAttestation(attestation.getRootCA(), attestationId, attestation);
+            }
+        }
+
+        // replaces or removes a single attestation in the list of its root CA, keeping the list ordered by ID
+        private void replaceAttestation(Long rootCAId, Long attestationId, AttestationView replacement) {
+            RootCAView rootCA = rootCAs.get(rootCAId);
+            if (rootCA == null) {
+                return;
+            }
+            List<AttestationView> rootAttestations = new ArrayList<>(rootCA.getAttestations().size() + 1);
+            boolean inserted = replacement == null;
+            for (AttestationView attestation : rootCA.getAttestations()) {
+                if (!inserted && attestation.getId() >= attestationId) {
+                    rootAttestations.add(replacement);
+                    inserted = true;
+                }
+                if (!attestation.getId().equals(attestationId)) {
+                    rootAttestations.add(attestation);
+                }
+            }
+            if (!inserted) {
+                rootAttestations.add(replacement);
+            }
+            mutableRootCAs().put(rootCAId, rootCA.withAttestations(rootAttestations));
+        }
+
+        private SortedMap<Long, RootCAView> mutableRootCAs() {
+            if (!rootCAsCopied) {
+                rootCAs = new TreeMap<>(rootCAs);
+                rootCAsCopied = true;
+            }
+            return rootCAs;
+        }
+
+        private SortedMap<Long, AttestorView> mutableAttestors() {
+            if (!attestorsCopied) {
+                attestors = new TreeMap<>(attestors);
+                attestorsCopied = true;
+            }
+            return attestors;
+        }
+
+        private SortedMap<Long, AttestationView> mutableAttestations() {
+            if (!attestationsCopied) {
+                attestations = new TreeMap<>(attestations);
+                attestationsCopied = true;
+            }
+            return attestations;
+        }
+
+        private SortedMap<Long, RevocationView> mutableRevocations() {
+            if (!revocationsCopied) {
+                revocations = new TreeMap<>(revocations);
+                revocationsCopied = true;
+            }
+            return revocations;
+        }
+    }
+}
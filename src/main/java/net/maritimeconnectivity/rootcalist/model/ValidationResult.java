@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+@ToString
+public class ValidationResult implements JsonSerializable {
+
+    @ApiModelProperty(value = "Whether a path to an attested root CA could be built")
+    private final boolean valid;
+    @ApiModelProperty(value = "Why the chain is not valid")
+    private final String reason;
+    @ApiModelProperty(value = "The ID of the root CA the path ends in")
+    private final Long rootCA;
+    @ApiModelProperty(value = "The IDs of the attestors that currently attest the root CA")
+    private final List<Long> attestors;
+    @ApiModelProperty(value = "The subjects of the certificates on the path, starting with the end entity")
+    private final List<String> path;
+
+    private ValidationResult(boolean valid, String reason, Long rootCA, List<Long> attestors, List<String> path) {
+        this.valid = valid;
+        this.reason = reason;
+        this.rootCA = rootCA;
+        this.attestors = attestors != null ? Collections.unmodifiableList(attestors) : null;
+        this.path = path != null ? Collections.unmodifiableList(path) : null;
+    }
+
+    public static ValidationResult valid(Long rootCA, List<Long> attestors, List<String> path) {
+        return new ValidationResult(true, null, rootCA, attestors, path);
+    }
+
+    public static ValidationResult invalid(String reason) {
+        return new ValidationResult(false, reason, null, null, null);
+    }
+}
@@ -19,13 +19,26 @@ package net.maritimeconnectivity.rootcalist.model.database;
 import lombok.Getter;
 import lombok.Setter;
 import net.maritimeconnectivity.rootcalist.model.AttestationRequest;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "attestation")
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "attestation")
+@Table(
+        name = "attestation",
+        uniqueConstraints = @UniqueConstraint(name = "attestor_root_ca", columnNames = {"id_attestor", "id_root_ca"}),
+        indexes = @Index(name = "attestation_root_ca", columnList = "id_root_ca")
+)
 @Getter
 @Setter
 public class Attestation extends SignatureModel {
@@ -19,7 +19,11 @@ package net.maritimeconnectivity.rootcalist.model.database;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.OneToMany;
@@ -27,18 +31,22 @@ import javax.persistence.Table;
 import java.util.Set;
 
 @Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "attestor")
 @Table(name = "attestor")
 @Getter
 @Setter
 public class Attestor extends EntityModel {
 
     @OneToMany(mappedBy = "attestor")
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "attestor_attestations")
     private Set<Attestation> attestations;
 
     @OneToMany(mappedBy = "attestor")
     private Set<Revocation> revocations;
 
     @ApiModelProperty(value = "The CA that has issued the certificate of this attestor")
-    @Column(name = "issuer")
+    @Column(name = "issuer", columnDefinition = "TEXT")
     private String issuer;
 }
@@ -16,6 +16,7 @@
 
 package net.maritimeconnectivity.rootcalist.model.database;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Getter;
 import lombok.Setter;
@@ -33,6 +34,11 @@ public abstract class EntityModel extends TimestampModel {
     protected String name;
 
     @ApiModelProperty(value = "PEM encoded certificate of the entity", required = true)
-    @Column(name = "certificate", nullable = false, unique = true)
+    @Column(name = "certificate", nullable = false, columnDefinition = "TEXT")
     protected String certificate;
+
+    // see CryptoUtil.fingerprint, set by the services before a new entity is saved
+    @JsonIgnore
+    @Column(name = "fingerprint", nullable = false, unique = true, updatable = false, length = 64)
+    protected String fingerprint;
 }
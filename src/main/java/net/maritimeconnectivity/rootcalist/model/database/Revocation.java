@@ -19,14 +19,25 @@ package net.maritimeconnectivity.rootcalist.model.database;
 import lombok.Getter;
 import lombok.Setter;
 import net.maritimeconnectivity.rootcalist.model.RevocationRequest;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 
 @Entity
-@Table(name = "revocation")
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "revocation")
+@Table(
+        name = "revocation",
+        indexes = @Index(name = "revocation_attestation", columnList = "id_attestation")
+)
 @Getter
 @Setter
 public class Revocation extends SignatureModel {
@@ -19,19 +19,27 @@ package net.maritimeconnectivity.rootcalist.model.database;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import java.util.Set;
 
 @Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "root_ca")
 @Table(name = "root_ca")
 @Getter
 @Setter
 public class RootCA extends EntityModel {
 
     @OneToMany(mappedBy = "rootCA")
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "root_ca_attestations")
     private Set<Attestation> attestations;
 
     @OneToMany(mappedBy = "rootCA")
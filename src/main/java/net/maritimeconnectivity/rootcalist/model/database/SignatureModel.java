@@ -34,7 +34,7 @@ public abstract class SignatureModel extends TimestampModel {
             value = "HEX encoded signature signed with the private key of the attestor",
             required = true
     )
-    @Column(name = "signature", nullable = false)
+    @Column(name = "signature", nullable = false, columnDefinition = "TEXT")
     protected String signature;
 
     @ApiModelProperty(
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model.view;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+import net.maritimeconnectivity.rootcalist.model.JsonSerializable;
+import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+
+import java.util.Date;
+
+@Getter
+@ToString
+public class AttestationView implements JsonSerializable {
+
+    @ApiModelProperty(value = "The ID of the attestation")
+    private final Long id;
+    private final Date createdAt;
+    @ApiModelProperty(value = "HEX encoded signature signed with the private key of the attestor")
+    private final String signature;
+    @ApiModelProperty(value = "The identifier of the algorithm that was used to generate the signature")
+    private final String algorithmIdentifier;
+    @ApiModelProperty(value = "The ID of the attested root CA")
+    private final Long rootCA;
+    @ApiModelProperty(value = "The ID of the attestor that made the attestation")
+    private final Long attestor;
+    @ApiModelProperty(value = "The revocation of the attestation if it has been revoked")
+    private final RevocationView revocation;
+
+    public AttestationView(Long id, Date createdAt, String signature, String algorithmIdentifier, Long rootCA,
+                           Long attestor) {
+        this(id, createdAt, signature, algorithmIdentifier, rootCA, attestor, null);
+    }
+
+    public AttestationView(Long id, Date createdAt, String signature, String algorithmIdentifier, Long rootCA,
+                           Long attestor, RevocationView revocation) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.signature = signature;
+        this.algorithmIdentifier = algorithmIdentifier;
+        this.rootCA = rootCA;
+        this.attestor = attestor;
+        this.revocation = revocation;
+    }
+
+    // used by queries that join the optional revocation of the attestation
+    public AttestationView(Long id, Date createdAt, String signature, String algorithmIdentifier, Long rootCA,
+                           Long attestor, Long revocationId, Date revocationCreatedAt, String revocationSignature,
+                           String revocationAlgorithmIdentifier) {
+        this(id, createdAt, signature, algorithmIdentifier, rootCA, attestor, revocationId == null ? null :
+                new RevocationView(revocationId, revocationCreatedAt, revocationSignature,
+                        revocationAlgorithmIdentifier, rootCA, attestor, id));
+    }
+
+    public AttestationView(Attestation attestation) {
+        this(attestation.getId(), attestation.getCreatedAt(), attestation.getSignature(),
+                attestation.getAlgorithmIdentifier(), attestation.getRootCA().getId(),
+                attestation.getAttestor().getId(),
+                attestation.getRevocation() != null ? new RevocationView(attestation.getRevocation()) : null);
+    }
+
+    public AttestationView withRevocation(RevocationView revocation) {
+        return new AttestationView(id, createdAt, signature, algorithmIdentifier, rootCA, attestor, revocation);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model.view;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+import net.maritimeconnectivity.rootcalist.model.JsonSerializable;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+
+import java.util.Date;
+
+@Getter
+@ToString
+public class AttestorView implements JsonSerializable {
+
+    @ApiModelProperty(value = "The ID of the attestor")
+    private final Long id;
+    private final Date createdAt;
+    @ApiModelProperty(value = "The name that identifies the attestor")
+    private final String name;
+    @ApiModelProperty(value = "PEM encoded certificate of the attestor")
+    private final String certificate;
+    @ApiModelProperty(value = "The CA that has issued the certificate of this attestor")
+    private final String issuer;
+
+    public AttestorView(Long id, Date createdAt, String name, String certificate, String issuer) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.name = name;
+        this.certificate = certificate;
+        this.issuer = issuer;
+    }
+
+    public AttestorView(Attestor attestor) {
+        this(attestor.getId(), attestor.getCreatedAt(), attestor.getName(), attestor.getCertificate(),
+                attestor.getIssuer());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model.view;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.JsonSerializable;
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogEntry;
+import net.maritimeconnectivity.rootcalist.services.EntityChangeEvent;
+
+import java.util.Date;
+
+@Getter
+@ToString
+public class ChangeView implements JsonSerializable {
+
+    @ApiModelProperty(value = "The sequence number of the change")
+    private final Long sequence;
+    private final Date createdAt;
+    @ApiModelProperty(value = "The type of the entity that was changed")
+    private final EntityType type;
+    @ApiModelProperty(value = "The ID of the entity that was changed")
+    private final Long id;
+    @ApiModelProperty(value = "Whether the entity was saved or deleted")
+    private final EntityChangeEvent.Operation operation;
+    @ApiModelProperty(value = "The current state of a saved entity, left out if the entity has been deleted since")
+    private final JsonSerializable data;
+
+    public ChangeView(ChangeLogEntry entry, JsonSerializable data) {
+        this.sequence = entry.getSequence();
+        this.createdAt = entry.getCreatedAt();
+        this.type = entry.getEntityType();
+        this.id = entry.getEntityId();
+        this.operation = entry.getOperation();
+        this.data = data;
+    }
+}
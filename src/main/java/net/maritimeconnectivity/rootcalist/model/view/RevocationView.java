@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model.view;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+import net.maritimeconnectivity.rootcalist.model.JsonSerializable;
+import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+
+import java.util.Date;
+
+@Getter
+@ToString
+public class RevocationView implements JsonSerializable {
+
+    @ApiModelProperty(value = "The ID of the revocation")
+    private final Long id;
+    private final Date createdAt;
+    @ApiModelProperty(value = "HEX encoded signature signed with the private key of the attestor")
+    private final String signature;
+    @ApiModelProperty(value = "The identifier of the algorithm that was used to generate the signature")
+    private final String algorithmIdentifier;
+    @ApiModelProperty(value = "The ID of the root CA that the revoked attestation was made for")
+    private final Long rootCA;
+    @ApiModelProperty(value = "The ID of the attestor that made the revocation")
+    private final Long attestor;
+    @ApiModelProperty(value = "The ID of the attestation that is revoked")
+    private final Long attestation;
+
+    public RevocationView(Long id, Date createdAt, String signature, String algorithmIdentifier, Long rootCA,
+                          Long attestor, Long attestation) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.signature = signature;
+        this.algorithmIdentifier = algorithmIdentifier;
+        this.rootCA = rootCA;
+        this.attestor = attestor;
+        this.attestation = attestation;
+    }
+
+    public RevocationView(Revocation revocation) {
+        this(revocation.getId(), revocation.getCreatedAt(), revocation.getSignature(),
+                revocation.getAlgorithmIdentifier(), revocation.getRootCA().getId(),
+                revocation.getAttestor().getId(), revocation.getAttestation().getId());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model.view;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.ToString;
+import net.maritimeconnectivity.rootcalist.model.AttestorMatch;
+import net.maritimeconnectivity.rootcalist.model.JsonSerializable;
+import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+@Getter
+@ToString
+public class RootCAView implements JsonSerializable {
+
+    @ApiModelProperty(value = "The ID of the root CA")
+    private final Long id;
+    private final Date createdAt;
+    @ApiModelProperty(value = "The name that identifies the root CA")
+    private final String name;
+    @ApiModelProperty(value = "PEM encoded certificate of the root CA")
+    private final String certificate;
+    @ApiModelProperty(value = "The attestations that have been made for the root CA")
+    private final List<AttestationView> attestations;
+
+    public RootCAView(Long id, Date createdAt, String name, String certificate) {
+        this(id, createdAt, name, certificate, Collections.emptyList());
+    }
+
+    public RootCAView(Long id, Date createdAt, String name, String certificate, List<AttestationView> attestations) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.name = name;
+        this.certificate = certificate;
+        this.attestations = Collections.unmodifiableList(attestations);
+    }
+
+    public RootCAView(RootCA rootCA) {
+        this(rootCA.getId(), rootCA.getCreatedAt(), rootCA.getName(), rootCA.getCertificate());
+    }
+
+    public RootCAView withAttestations(List<AttestationView> attestations) {
+        return new RootCAView(id, createdAt, name, certificate, attestations);
+    }
+
+    // revoked attestations do not count
+    public boolean isAttestedBy(Long attestorId) {
+        for (AttestationView attestation : attestations) {
+            if (attestation.getAttestor().equals(attestorId) && attestation.getRevocation() == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isAttestedBy(Collection<Long> attestorIds, AttestorMatch match) {
+        boolean all = match == AttestorMatch.ALL;
+        for (Long attestorId : attestorIds) {
+            boolean attested = isAttestedBy(attestorId);
+            if (attested && !all) {
+                return true;
+            }
+            if (!attested && all) {
+                return false;
+            }
+        }
+        return all;
+    }
+
+    // the IDs of the attestors with an attestation that has not been revoked
+    @JsonIgnore
+    public List<Long> getAttestingAttestors() {
+        List<Long> attestorIds = new ArrayList<>();
+        for (AttestationView attestation : attestations) {
+            if (attestation.getRevocation() == null) {
+                attestorIds.add(attestation.getAttestor());
+            }
+        }
+        return attestorIds;
+    }
+}
@@ -17,7 +17,44 @@
 package net.maritimeconnectivity.rootcalist.repositories;
 
 import net.maritimeconnectivity.rootcalist.model.database.Attestation;
-import org.springframework.data.repository.PagingAndSortingRepository;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface AttestationRepository extends PagingAndSortingRepository<Attestation, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface AttestationRepository extends BaseRepository<Attestation> {
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestationView(a.id, a.createdAt, a.signature, a.algorithmIdentifier, a.rootCA.id, a.attestor.id, r.id, r.createdAt, r.signature, r.algorithmIdentifier) from Attestation a left join a.revocation r")
+    List<AttestationView> findAllViews();
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestationView(a.id, a.createdAt, a.signature, a.algorithmIdentifier, a.rootCA.id, a.attestor.id, r.id, r.createdAt, r.signature, r.algorithmIdentifier) from Attestation a left join a.revocation r where a.id in :ids")
+    List<AttestationView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestationView(a.id, a.createdAt, a.signature, a.algorithmIdentifier, a.rootCA.id, a.attestor.id, r.id, r.createdAt, r.signature, r.algorithmIdentifier) from Attestation a left join a.revocation r where a.id = :id")
+    AttestationView findViewById(@Param("id") Long id);
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestationView(a.id, a.createdAt, a.signature, a.algorithmIdentifier, a.rootCA.id, a.attestor.id, r.id, r.createdAt, r.signature, r.algorithmIdentifier) from Attestation a left join a.revocation r where a.id > :id")
+    Slice<AttestationView> findViewsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    // loads attestations together with everything needed to revoke them in a single query
+    @Query("select a from Attestation a join fetch a.rootCA join fetch a.attestor left join fetch a.revocation where a.id in :ids")
+    List<Attestation> findAllWithReferencesById(@Param("ids") Collection<Long> ids);
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestationView(a.id, a.createdAt, a.signature, a.algorithmIdentifier, a.rootCA.id, a.attestor.id) from Attestation a where a.attestor.id in :attestorIds and a.rootCA.id in :rootCAIds")
+    List<AttestationView> findViewsByAttestorsAndRootCAs(@Param("attestorIds") Collection<Long> attestorIds, @Param("rootCAIds") Collection<Long> rootCAIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestationView(a.id, a.createdAt, a.signature, a.algorithmIdentifier, a.rootCA.id, a.attestor.id, r.id, r.createdAt, r.signature, r.algorithmIdentifier) from Attestation a left join a.revocation r order by a.id")
+    Stream<AttestationView> streamAllViews();
 }
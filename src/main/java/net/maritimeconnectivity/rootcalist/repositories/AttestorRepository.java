@@ -17,6 +17,31 @@
 package net.maritimeconnectivity.rootcalist.repositories;
 
 import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.view.AttestorView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 public interface AttestorRepository extends EntityRepository<Attestor> {
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestorView(a.id, a.createdAt, a.name, a.certificate, a.issuer) from Attestor a")
+    List<AttestorView> findAllViews();
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestorView(a.id, a.createdAt, a.name, a.certificate, a.issuer) from Attestor a where a.id in :ids")
+    List<AttestorView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestorView(a.id, a.createdAt, a.name, a.certificate, a.issuer) from Attestor a where a.id = :id")
+    AttestorView findViewById(@Param("id") Long id);
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.AttestorView(a.id, a.createdAt, a.name, a.certificate, a.issuer) from Attestor a where a.id > :id")
+    Slice<AttestorView> findViewsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.repositories;
+
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+public interface ChangeLogRepository extends CrudRepository<ChangeLogEntry, Long> {
+
+    Slice<ChangeLogEntry> findBySequenceGreaterThan(Long sequence, Pageable pageable);
+
+    @Query("select max(c.sequence) from ChangeLogEntry c")
+    Long findLatestSequence();
+
+    ChangeLogEntry findFirstByOrderBySequenceDesc();
+}
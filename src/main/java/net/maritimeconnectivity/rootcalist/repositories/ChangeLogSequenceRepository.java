@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.repositories;
+
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogSequence;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+
+public interface ChangeLogSequenceRepository extends CrudRepository<ChangeLogSequence, Integer> {
+
+    // the row lock is held until the transaction ends, which serializes all transactions that write to the change log
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ChangeLogSequence s where s.id = :id")
+    ChangeLogSequence findForUpdate(@Param("id") Integer id);
+}
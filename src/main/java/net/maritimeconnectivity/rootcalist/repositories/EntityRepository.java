@@ -19,13 +19,23 @@ package net.maritimeconnectivity.rootcalist.repositories;
 import net.maritimeconnectivity.rootcalist.model.database.EntityModel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.NoRepositoryBean;
-import org.springframework.data.repository.PagingAndSortingRepository;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 @NoRepositoryBean
-public interface EntityRepository<T extends EntityModel> extends PagingAndSortingRepository<T, Long> {
+public interface EntityRepository<T extends EntityModel> extends BaseRepository<T> {
 
     Page<T> findById(Long id, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     T findByName(String name);
+
+    @Query("select e.fingerprint from #{#entityName} e")
+    List<String> findAllFingerprints();
 }
@@ -17,7 +17,37 @@
 package net.maritimeconnectivity.rootcalist.repositories;
 
 import net.maritimeconnectivity.rootcalist.model.database.Revocation;
-import org.springframework.data.repository.PagingAndSortingRepository;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface RevocationRepository extends PagingAndSortingRepository<Revocation, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface RevocationRepository extends BaseRepository<Revocation> {
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RevocationView(r.id, r.createdAt, r.signature, r.algorithmIdentifier, r.rootCA.id, r.attestor.id, r.attestation.id) from Revocation r")
+    List<RevocationView> findAllViews();
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RevocationView(r.id, r.createdAt, r.signature, r.algorithmIdentifier, r.rootCA.id, r.attestor.id, r.attestation.id) from Revocation r where r.id in :ids")
+    List<RevocationView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RevocationView(r.id, r.createdAt, r.signature, r.algorithmIdentifier, r.rootCA.id, r.attestor.id, r.attestation.id) from Revocation r where r.id = :id")
+    RevocationView findViewById(@Param("id") Long id);
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RevocationView(r.id, r.createdAt, r.signature, r.algorithmIdentifier, r.rootCA.id, r.attestor.id, r.attestation.id) from Revocation r where r.id > :id")
+    Slice<RevocationView> findViewsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RevocationView(r.id, r.createdAt, r.signature, r.algorithmIdentifier, r.rootCA.id, r.attestor.id, r.attestation.id) from Revocation r order by r.id")
+    Stream<RevocationView> streamAllViews();
 }
@@ -17,13 +17,32 @@
 package net.maritimeconnectivity.rootcalist.repositories;
 
 import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface RootCARepository extends EntityRepository<RootCA> {
 
-    @Query("select r from RootCA r where r.id = (select s.rootCA.id from Attestation s where s.attestor.id in :attestorIds)")
-    List<RootCA> findByAttestor(Collection<Long> attestorIds);
+    // root CAs with a non-revoked attestation by at least one of the attestors
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RootCAView(r.id, r.createdAt, r.name, r.certificate) from RootCA r where r.id in (select a.rootCA.id from Attestation a where a.attestor.id in :attestorIds and not exists (select v.id from Revocation v where v.attestation = a)) order by r.id")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<RootCAView> findViewsByAnyAttestor(@Param("attestorIds") Collection<Long> attestorIds);
+
+    // root CAs with a non-revoked attestation by each of the attestors, attestorCount must be the number of distinct IDs
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RootCAView(r.id, r.createdAt, r.name, r.certificate) from RootCA r where r.id in (select a.rootCA.id from Attestation a where a.attestor.id in :attestorIds and not exists (select v.id from Revocation v where v.attestation = a) group by a.rootCA.id having count(a.id) = :attestorCount) order by r.id")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<RootCAView> findViewsByAllAttestors(@Param("attestorIds") Collection<Long> attestorIds, @Param("attestorCount") long attestorCount);
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RootCAView(r.id, r.createdAt, r.name, r.certificate) from RootCA r")
+    List<RootCAView> findAllViews();
+
+    @Query("select new net.maritimeconnectivity.rootcalist.model.view.RootCAView(r.id, r.createdAt, r.name, r.certificate) from RootCA r where r.id in :ids")
+    List<RootCAView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -17,6 +17,20 @@
 package net.maritimeconnectivity.rootcalist.services;
 
 import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface AttestationService extends BaseService<Attestation> {
+
+    AttestationView getViewById(Long id);
+
+    List<AttestationView> listAllViews();
+
+    Slice<AttestationView> listViewsAfter(Long after, int limit);
+
+    // passes every attestation to the consumer while they are read from the database
+    void forEachView(Consumer<AttestationView> consumer);
 }
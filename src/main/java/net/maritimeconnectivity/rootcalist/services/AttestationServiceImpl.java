@@ -17,10 +17,18 @@
 package net.maritimeconnectivity.rootcalist.services;
 
 import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
 import net.maritimeconnectivity.rootcalist.repositories.AttestationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 @Service
 public class AttestationServiceImpl extends BaseServiceImpl<Attestation> implements AttestationService {
 
@@ -31,6 +39,29 @@ public class AttestationServiceImpl extends BaseServiceImpl<Attestation> impleme
         this.attestationRepository = attestationRepository;
     }
 
+    @Override
+    public AttestationView getViewById(Long id) {
+        return this.attestationRepository.findViewById(id);
+    }
+
+    @Override
+    public List<AttestationView> listAllViews() {
+        return this.attestationRepository.findAllViews();
+    }
+
+    @Override
+    public Slice<AttestationView> listViewsAfter(Long after, int limit) {
+        return this.attestationRepository.findViewsByIdGreaterThan(after, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    // the rows are constructor projections, so nothing piles up in the persistence context while streaming
+    @Override
+    public void forEachView(Consumer<AttestationView> consumer) {
+        try (Stream<AttestationView> stream = this.attestationRepository.streamAllViews()) {
+            stream.forEach(consumer);
+        }
+    }
+
     @Override
     public AttestationRepository getRepository() {
         return this.attestationRepository;
@@ -17,6 +17,16 @@
 package net.maritimeconnectivity.rootcalist.services;
 
 import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.view.AttestorView;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
 
 public interface AttestorService extends BaseService<Attestor> {
+
+    AttestorView getViewById(Long id);
+
+    List<AttestorView> listAllViews();
+
+    Slice<AttestorView> listViewsAfter(Long after, int limit);
 }
@@ -17,12 +17,18 @@
 package net.maritimeconnectivity.rootcalist.services;
 
 import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.view.AttestorView;
 import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
-public class AttestorServiceImpl extends BaseServiceImpl<Attestor> implements AttestorService {
+public class AttestorServiceImpl extends EntityServiceImpl<Attestor> implements AttestorService {
 
     private AttestorRepository attestorRepository;
 
@@ -31,6 +37,21 @@ public class AttestorServiceImpl extends BaseServiceImpl<Attestor> implements At
         this.attestorRepository = attestorRepository;
     }
 
+    @Override
+    public AttestorView getViewById(Long id) {
+        return this.attestorRepository.findViewById(id);
+    }
+
+    @Override
+    public List<AttestorView> listAllViews() {
+        return this.attestorRepository.findAllViews();
+    }
+
+    @Override
+    public Slice<AttestorView> listViewsAfter(Long after, int limit) {
+        return this.attestorRepository.findViewsByIdGreaterThan(after, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
     @Override
     public AttestorRepository getRepository() {
         return this.attestorRepository;
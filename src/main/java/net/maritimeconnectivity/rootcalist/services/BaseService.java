@@ -16,7 +16,8 @@
 
 package net.maritimeconnectivity.rootcalist.services;
 
-import org.springframework.data.repository.CrudRepository;
+import net.maritimeconnectivity.rootcalist.repositories.BaseRepository;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -28,7 +29,9 @@ public interface BaseService<T> {
 
     List<T> listAll();
 
+    Slice<T> listAfter(Long after, int limit);
+
     void delete(Long id);
 
-    CrudRepository<T, Long> getRepository();
+    BaseRepository<T> getRepository();
 }
@@ -18,6 +18,11 @@ package net.maritimeconnectivity.rootcalist.services;
 
 import lombok.extern.slf4j.Slf4j;
 import net.maritimeconnectivity.rootcalist.model.database.TimestampModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
@@ -28,6 +33,13 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public abstract class BaseServiceImpl<T extends TimestampModel> implements BaseService<T> {
 
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
     @Override
     public T getById(Long id) {
         Optional<T> optionalT = getRepository().findById(id);
@@ -37,8 +49,10 @@ public abstract class BaseServiceImpl<T extends TimestampModel> implements BaseS
     @Transactional
     @Override
     public T save(T entity) {
+        T savedEntity = getRepository().save(entity);
         log.debug("Just saved entity");
-        return getRepository().save(entity);
+        this.eventPublisher.publishEvent(new EntityChangeEvent(EntityChangeEvent.Operation.SAVE, savedEntity));
+        return savedEntity;
     }
 
     @Override
@@ -46,10 +60,18 @@ public abstract class BaseServiceImpl<T extends TimestampModel> implements BaseS
         return (ArrayList<T>) getRepository().findAll();
     }
 
+    // keyset pagination, the returned slice only knows whether there is a next page so no count query is needed
+    @Override
+    public Slice<T> listAfter(Long after, int limit) {
+        return getRepository().findByIdGreaterThan(after, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
     @Transactional
     @Override
     public void delete(Long id) {
+        Optional<T> optionalT = getRepository().findById(id);
         getRepository().deleteById(id);
+        optionalT.ifPresent(entity -> this.eventPublisher.publishEvent(new EntityChangeEvent(EntityChangeEvent.Operation.DELETE, entity)));
     }
 
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.AttestationRequest;
+import net.maritimeconnectivity.rootcalist.model.BatchItemResult;
+import net.maritimeconnectivity.rootcalist.model.BulkImportSummary;
+import net.maritimeconnectivity.rootcalist.model.RevocationRequest;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.utils.CertificateBundleReader;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface BatchService {
+
+    int MAX_BATCH_SIZE = 1000;
+    int MAX_BUNDLE_SIZE = 10000;
+
+    // verifies all items and creates the valid ones in a single transaction, the results are in the order of the input
+    List<BatchItemResult<AttestationView>> saveAttestations(List<AttestationRequest> requests);
+
+    List<BatchItemResult<RevocationView>> saveRevocations(List<RevocationRequest> requests);
+
+    // validates the certificates while the bundle is being read and creates root CAs for the ones that are new
+    BulkImportSummary<RootCAView> importRootCAs(CertificateBundleReader reader) throws IOException;
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.config.CryptoExecutor;
+import net.maritimeconnectivity.rootcalist.model.AttestationRequest;
+import net.maritimeconnectivity.rootcalist.model.BatchItemResult;
+import net.maritimeconnectivity.rootcalist.model.BulkImportSummary;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.RevocationRequest;
+import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.database.TimestampModel;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.repositories.AttestationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RevocationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
+import net.maritimeconnectivity.rootcalist.utils.CertificateBundleReader;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.HashUtil;
+import net.maritimeconnectivity.rootcalist.utils.MetricsUtil;
+import net.maritimeconnectivity.rootcalist.utils.SignatureAlgorithms;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@Service
+public class BatchServiceImpl implements BatchService {
+
+    private static final String CONFLICT_MESSAGE = "The batch conflicts with data that was stored at the same time, " +
+            "no items were created";
+
+    private AttestorRepository attestorRepository;
+    private RootCARepository rootCARepository;
+    private AttestationRepository attestationRepository;
+    private RevocationRepository revocationRepository;
+    private CryptoExecutor cryptoExecutor;
+    private ApplicationEventPublisher eventPublisher;
+    private CertificateRegistryService certificateRegistryService;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @Autowired
+    public void setAttestorRepository(AttestorRepository attestorRepository) {
+        this.attestorRepository = attestorRepository;
+    }
+
+    @Autowired
+    public void setRootCARepository(RootCARepository rootCARepository) {
+        this.rootCARepository = rootCARepository;
+    }
+
+    @Autowired
+    public void setAttestationRepository(AttestationRepository attestationRepository) {
+        this.attestationRepository = attestationRepository;
+    }
+
+    @Autowired
+    public void setRevocationRepository(RevocationRepository revocationRepository) {
+        this.revocationRepository = revocationRepository;
+    }
+
+    @Autowired
+    public void setCryptoExecutor(CryptoExecutor cryptoExecutor) {
+        this.cryptoExecutor = cryptoExecutor;
+    }
+
+    @Autowired
+    public void setCertificateRegistryService(CertificateRegistryService certificateRegistryService) {
+        this.certificateRegistryService = certificateRegistryService;
+    }
+
+    @Autowired
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public List<BatchItemResult<AttestationView>> saveAttestations(List<AttestationRequest> requests) {
+        List<BatchItemResult<AttestationView>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Set<Long> attestorIds = new HashSet<>();
+        Set<Long> rootCAIds = new HashSet<>();
+        for (AttestationRequest request : requests) {
+            if (request.getAttestorId() != null && request.getRootCAid() != null) {
+                attestorIds.add(request.getAttestorId());
+                rootCAIds.add(request.getRootCAid());
+            }
+        }
+        // everything the batch refers to is resolved up front with one query per table
+        Map<Long, Attestor> attestors = new HashMap<>();
+        Map<Long, RootCA> rootCAs = new HashMap<>();
+        Set<List<Long>> attested = new HashSet<>();
+        if (!attestorIds.isEmpty()) {
+            this.readTransaction.execute(status -> {
+                this.attestorRepository.findAllById(attestorIds).forEach(a -> attestors.put(a.getId(), a));
+                this.rootCARepository.findAllById(rootCAIds).forEach(r -> rootCAs.put(r.getId(), r));
+                this.attestationRepository.findViewsByAttestorsAndRootCAs(attestorIds, rootCAIds)
+                        .forEach(a -> attested.add(Arrays.asList(a.getAttestor(), a.getRootCA())));
+                return null;
+            });
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Attestation> attestations = new ArrayList<>();
+        List<CompletableFuture<Boolean>> verifications = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AttestationRequest request = requests.get(i);
+            if (request.getAttestorId() == null || request.getRootCAid() == null || request.getSignature() == null
+                    || request.getAlgorithmIdentifier() == null) {
+                results.set(i, BatchItemResult.rejected(i, "The request did not contain all required attributes"));
+            } else if (!SignatureAlgorithms.isSupported(request.getAlgorithmIdentifier())) {
+                results.set(i, BatchItemResult.rejected(i, "The signature algorithm is not supported"));
+            } else if (!attestors.containsKey(request.getAttestorId()) || !rootCAs.containsKey(request.getRootCAid())) {
+                results.set(i, BatchItemResult.rejected(i, "The attestor or the root CA does not exist"));
+            } else if (!attested.add(Arrays.asList(request.getAttestorId(), request.getRootCAid()))) {
+                results.set(i, BatchItemResult.rejected(i, "A similar attestation already exists"));
+            } else {
+                Attestor attestor = attestors.get(request.getAttestorId());
+                RootCA rootCA = rootCAs.get(request.getRootCAid());
+                Attestation attestation = new Attestation(request);
+                attestation.setAttestor(attestor);
+                attestation.setRootCA(rootCA);
+                indexes.add(i);
+                attestations.add(attestation);
+                verifications.add(verify(request.getSignature(), request.getAlgorithmIdentifier(), attestor,
+                        rootCA.getCertificate()));
+            }
+        }
+
+        List<Attestation> valid = collectValid(indexes, attestations, verifications, results,
+                "The signature of the attestation could not be verified");
+        try {
+            List<Attestation> saved = persist(this.attestationRepository, valid);
+            for (int i = 0; i < saved.size(); i++) {
+                results.set(indexes.get(i), BatchItemResult.created(indexes.get(i), new AttestationView(saved.get(i))));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.error("Attestation batch could not be persisted", e);
+            indexes.forEach(i -> results.set(i, BatchItemResult.rejected(i, CONFLICT_MESSAGE)));
+        }
+        MetricsUtil.countBatchItems(EntityType.ATTESTATION, results);
+        return results;
+    }
+
+    @Override
+    public List<BatchItemResult<RevocationView>> saveRevocations(List<RevocationRequest> requests) {
+        List<BatchItemResult<RevocationView>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Set<Long> attestationIds = new HashSet<>();
+        for (RevocationRequest request : requests) {
+            if (request.getAttestationId() != null) {
+                attestationIds.add(request.getAttestationId());
+            }
+        }
+        // the attestations are fetched together with their root CA, attestor and revocation
+        Map<Long, Attestation> attestations = new HashMap<>();
+        if (!attestationIds.isEmpty()) {
+            this.readTransaction.execute(status -> {
+                this.attestationRepository.findAllWithReferencesById(attestationIds)
+                        .forEach(a -> attestations.put(a.getId(), a));
+                return null;
+            });
+        }
+
+        Set<Long> revoked = new HashSet<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<Revocation> revocations = new ArrayList<>();
+        List<CompletableFuture<Boolean>> verifications = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RevocationRequest request = requests.get(i);
+            Attestation attestation = request.getAttestationId() != null ? attestations.get(request.getAttestationId()) : null;
+            if (request.getAttestorId() == null || request.getRootCAid() == null || request.getAttestationId() == null
+                    || request.getSignature() == null || request.getAlgorithmIdentifier() == null) {
+                results.set(i, BatchItemResult.rejected(i, "The request did not contain all required attributes"));
+            } else if (!SignatureAlgorithms.isSupported(request.getAlgorithmIdentifier())) {
+                results.set(i, BatchItemResult.rejected(i, "The signature algorithm is not supported"));
+            } else if (attestation == null || !attestation.getRootCA().getId().equals(request.getRootCAid())
+                    || !attestation.getAttestor().getId().equals(request.getAttestorId())) {
+                results.set(i, BatchItemResult.rejected(i, "The attestation does not exist or was not made by the " +
+                        "given attestor for the given root CA"));
+            } else if (attestation.getRevocation() != null || !revoked.add(attestation.getId())) {
+                results.set(i, BatchItemResult.rejected(i, "A similar revocation already exists"));
+            } else {
+                Revocation revocation = new Revocation(request);
+                revocation.setAttestation(attestation);
+                revocation.setAttestor(attestation.getAttestor());
+                revocation.setRootCA(attestation.getRootCA());
+                indexes.add(i);
+                revocations.add(revocation);
+                verifications.add(verify(request.getSignature(), request.getAlgorithmIdentifier(),
+                        attestation.getAttestor(), attestation.getSignature()));
+            }
+        }
+
+        List<Revocation> valid = collectValid(indexes, revocations, verifications, results,
+                "The signature of the revocation could not be verified");
+        try {
+            List<Revocation> saved = persist(this.revocationRepository, valid);
+            for (int i = 0; i < saved.size(); i++) {
+                results.set(indexes.get(i), BatchItemResult.created(indexes.get(i), new RevocationView(saved.get(i))));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.error("Revocation batch could not be persisted", e);
+            indexes.forEach(i -> results.set(i, BatchItemResult.rejected(i, CONFLICT_MESSAGE)));
+        }
+        MetricsUtil.countBatchItems(EntityType.REVOCATION, results);
+        return results;
+    }
+
+    @Override
+    public BulkImportSummary<RootCAView> importRootCAs(CertificateBundleReader reader) throws IOException {
+        // parsing continues on this thread while the certificates that have been read are validated in parallel
+        List<CompletableFuture<RootCACandidate>> validations = new ArrayList<>();
+        X509CertificateHolder certificateHolder;
+        while ((certificateHolder = reader.next()) != null) {
+            if (validations.size() == MAX_BUNDLE_SIZE) {
+                throw new IOException("The bundle contains more than " + MAX_BUNDLE_SIZE + " certificates");
+            }
+            int index = validations.size();
+            X509CertificateHolder certificate = certificateHolder;
+            validations.add(this.cryptoExecutor.supplyAsync(() -> validateRootCA(index, certificate)));
+        }
+
+        List<BatchItemResult<RootCAView>> results = new ArrayList<>(Collections.nCopies(validations.size(), null));
+        Map<String, RootCACandidate> candidates = new LinkedHashMap<>();
+        for (CompletableFuture<RootCACandidate> validation : validations) {
+            RootCACandidate candidate = validation.join();
+            if (candidate.error != null) {
+                results.set(candidate.index, BatchItemResult.rejected(candidate.index, candidate.error));
+            } else if (candidates.putIfAbsent(candidate.rootCA.getFingerprint(), candidate) != null) {
+                results.set(candidate.index, BatchItemResult.skipped(candidate.index, "The certificate occurs more than once in the bundle"));
+            }
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        try {
+            List<RootCA> saved = this.writeTransaction.execute(status -> {
+                Set<String> existing = this.certificateRegistryService.reserve(EntityType.ROOT_CA, candidates.keySet());
+                List<RootCA> rootCAs = new ArrayList<>();
+                for (RootCACandidate candidate : candidates.values()) {
+                    if (existing.contains(candidate.rootCA.getFingerprint())) {
+                        results.set(candidate.index, BatchItemResult.skipped(candidate.index, "A root CA with the same certificate already exists"));
+                    } else {
+                        indexes.add(candidate.index);
+                        rootCAs.add(candidate.rootCA);
+                    }
+                }
+                return persist(this.rootCARepository, rootCAs);
+            });
+            for (int i = 0; i < saved.size(); i++) {
+                results.set(indexes.get(i), BatchItemResult.created(indexes.get(i), new RootCAView(saved.get(i))));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.error("Root CA bundle could not be persisted", e);
+            indexes.forEach(i -> results.set(i, BatchItemResult.rejected(i, CONFLICT_MESSAGE)));
+        }
+        MetricsUtil.countBatchItems(EntityType.ROOT_CA, results);
+        return new BulkImportSummary<>(results);
+    }
+
+    private static RootCACandidate validateRootCA(int index, X509CertificateHolder certificateHolder) {
+        if (!certificateHolder.isValidOn(new Date())) {
+            return new RootCACandidate(index, null, "The certificate is not valid at this time");
+        }
+        if (!CryptoUtil.isSelfSigned(certificateHolder)) {
+            return new RootCACandidate(index, null, "The certificate is not self-signed");
+        }
+        String name = CryptoUtil.getCommonName(certificateHolder);
+        if (name == null) {
+            return new RootCACandidate(index, null, "The certificate does not contain a CN");
+        }
+        try {
+            RootCA rootCA = new RootCA();
+            rootCA.setName(name);
+            rootCA.setCertificate(CryptoUtil.toPem(certificateHolder));
+            rootCA.setFingerprint(HashUtil.sha256(certificateHolder.getEncoded()));
+            return new RootCACandidate(index, rootCA, null);
+        } catch (IOException e) {
+            return new RootCACandidate(index, null, "The certificate could not be encoded");
+        }
+    }
+
+    private CompletableFuture<Boolean> verify(String signature, String algorithm, Attestor attestor, String content) {
+        return this.cryptoExecutor.supplyAsync(() -> {
+            try {
+                return CryptoUtil.isSignatureValid(signature, algorithm, attestor, content);
+            } catch (IOException | GeneralSecurityException e) {
+                log.debug("Signature could not be verified", e);
+                return false;
+            }
+        });
+    }
+
+    // waits for the verifications, rejects the items that failed and removes them from indexes
+    private static <T, V> List<T> collectValid(List<Integer> indexes, List<T> items,
+                                               List<CompletableFuture<Boolean>> verifications,
+                                               List<BatchItemResult<V>> results, String message) {
+        List<Integer> validIndexes = new ArrayList<>();
+        List<T> valid = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            int index = indexes.get(i);
+            if (Boolean.TRUE.equals(verifications.get(i).join())) {
+                validIndexes.add(index);
+                valid.add(items.get(i));
+            } else {
+                results.set(index, BatchItemResult.rejected(index, message));
+            }
+        }
+        indexes.clear();
+        indexes.addAll(validIndexes);
+        return valid;
+    }
+
+    // saves all entities in one transaction and publishes the same events as a single save would
+    private <T extends TimestampModel> List<T> persist(CrudRepository<T, Long> repository, List<T> entities) {
+        if (entities.isEmpty()) {
+            return entities;
+        }
+        return this.writeTransaction.execute(status -> {
+            List<T> saved = new ArrayList<>(entities.size());
+            for (T entity : entities) {
+                T savedEntity = repository.save(entity);
+                this.eventPublisher.publishEvent(new EntityChangeEvent(EntityChangeEvent.Operation.SAVE, savedEntity));
+                saved.add(savedEntity);
+            }
+            return saved;
+        });
+    }
+
+    private static final class RootCACandidate {
+
+        private final int index;
+        private final RootCA rootCA;
+        private final String error;
+
+        private RootCACandidate(int index, RootCA rootCA, String error) {
+            this.index = index;
+            this.rootCA = rootCA;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Keeps the certificate fingerprints of all root CAs and attestors in memory so that duplicates are detected before
+ * anything is written to the database.
+ */
+public interface CertificateRegistryService {
+
+    /**
+     * Locks the given fingerprints until the current transaction completes and returns those that are already
+     * registered. The transaction must insert an entity for each of the remaining fingerprints, they are registered
+     * when it commits.
+     *
+     * @param type         either ROOT_CA or ATTESTOR
+     * @param fingerprints fingerprints as computed by CryptoUtil.fingerprint
+     * @return the fingerprints that are already registered
+     */
+    Set<String> reserve(EntityType type, Collection<String> fingerprints);
+}
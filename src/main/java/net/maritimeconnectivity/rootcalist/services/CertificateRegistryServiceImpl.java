@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.database.EntityModel;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.repositories.EntityRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
+import net.maritimeconnectivity.rootcalist.utils.StripedLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Service
+public class CertificateRegistryServiceImpl implements CertificateRegistryService {
+
+    private static final int STRIPE_COUNT = 64;
+
+    private final StripedLock locks = new StripedLock(STRIPE_COUNT);
+    // guards the map of fingerprints, the sets themselves are concurrent. Not a monitor as the first use of a type
+    // loads its fingerprints from the database, which would pin the carrier of a virtual thread
+    private final Lock fingerprintsLock = new ReentrantLock();
+    private final Map<EntityType, Set<String>> fingerprints = new EnumMap<>(EntityType.class);
+
+    private RootCARepository rootCARepository;
+    private AttestorRepository attestorRepository;
+
+    @Autowired
+    public void setRootCARepository(RootCARepository rootCARepository) {
+        this.rootCARepository = rootCARepository;
+    }
+
+    @Autowired
+    public void setAttestorRepository(AttestorRepository attestorRepository) {
+        this.attestorRepository = attestorRepository;
+    }
+
+    @Override
+    public Set<String> reserve(EntityType type, Collection<String> fingerprints) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Fingerprints can only be reserved within a transaction");
+        }
+        Set<String> registered = getRegistered(type);
+        // the locks are held until the transaction completes, otherwise a concurrent duplicate could pass the check
+        // before the first one has been committed
+        List<Lock> locked = this.locks.lockAll(fingerprints);
+        Set<String> existing = new HashSet<>();
+        List<String> reserved = new ArrayList<>();
+        for (String fingerprint : fingerprints) {
+            if (registered.contains(fingerprint)) {
+                existing.add(fingerprint);
+            } else {
+                reserved.add(fingerprint);
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registered.addAll(reserved);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                StripedLock.unlockAll(locked);
+            }
+        });
+        return existing;
+    }
+
+    @TransactionalEventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getOperation() == EntityChangeEvent.Operation.DELETE && event.getEntity() instanceof EntityModel) {
+            this.fingerprintsLock.lock();
+            try {
+                Set<String> registered = this.fingerprints.get(EntityType.of(event.getEntity()));
+                if (registered != null) {
+                    registered.remove(((EntityModel) event.getEntity()).getFingerprint());
+                }
+            } finally {
+                this.fingerprintsLock.unlock();
+            }
+        }
+    }
+
+    // loaded on first use, every later insert goes through reserve and keeps the set up to date
+    private Set<String> getRegistered(EntityType type) {
+        this.fingerprintsLock.lock();
+        try {
+            Set<String> registered = this.fingerprints.get(type);
+            if (registered == null) {
+                registered = ConcurrentHashMap.newKeySet();
+                registered.addAll(getRepository(type).findAllFingerprints());
+                log.debug("Loaded {} fingerprints of type {}", registered.size(), type);
+                this.fingerprints.put(type, registered);
+            }
+            return registered;
+        } finally {
+            this.fingerprintsLock.unlock();
+        }
+    }
+
+    private EntityRepository<?> getRepository(EntityType type) {
+        switch (type) {
+            case ROOT_CA:
+                return this.rootCARepository;
+            case ATTESTOR:
+                return this.attestorRepository;
+            default:
+                throw new IllegalArgumentException("Entities of type " + type + " do not have a certificate");
+        }
+    }
+}
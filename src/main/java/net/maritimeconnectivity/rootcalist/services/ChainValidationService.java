@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.AttestorMatch;
+import net.maritimeconnectivity.rootcalist.model.ValidationResult;
+import org.bouncycastle.cert.X509CertificateHolder;
+
+import java.util.Collection;
+
+public interface ChainValidationService {
+
+    /**
+     * Builds a certification path from the first certificate of the chain to a root CA of the trust list, using the
+     * remaining certificates of the chain as intermediates in any order. The root CA must be attested by at least
+     * one attestor, or by the given attestors according to match, with attestations that have not been revoked.
+     */
+    ValidationResult validate(X509CertificateHolder[] chain, Collection<Long> attestorIds, AttestorMatch match);
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.model.AttestorMatch;
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
+import net.maritimeconnectivity.rootcalist.model.ValidationResult;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.HashUtil;
+import net.maritimeconnectivity.rootcalist.utils.ParsedCertificate;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.cert.CertException;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates certificate chains against the root CAs of the trust list. The root CAs are indexed by subject, subject
+ * key identifier and fingerprint, so the issuer of a certificate is found with a map lookup. Parsing goes through
+ * the certificate cache of {@link CryptoUtil}, so intermediates that are sent with every request are parsed once.
+ *
+ * <p>Path building checks validity periods, signatures, the CA flag, path length constraints and the key usage of
+ * issuers. It does not process name constraints or certificate policies, and it does not check revocation of the
+ * certificates themselves. Only the attestations of the root CA are taken into account.
+ */
+@Slf4j
+@Service
+public class ChainValidationServiceImpl implements ChainValidationService {
+
+    private static final int MAX_PATH_LENGTH = 10;
+
+    private TrustListService trustListService;
+
+    // rebuilt at most once per snapshot
+    private volatile RootIndex index;
+
+    @Autowired
+    public void setTrustListService(TrustListService trustListService) {
+        this.trustListService = trustListService;
+    }
+
+    @Override
+    public ValidationResult validate(X509CertificateHolder[] chain, Collection<Long> attestorIds, AttestorMatch match) {
+        if (chain.length == 0) {
+            return ValidationResult.invalid("The chain does not contain any certificates");
+        }
+        PathBuilder pathBuilder = new PathBuilder(getIndex(), Arrays.asList(chain).subList(1, chain.length),
+                attestorIds, match, new Date());
+        List<X509CertificateHolder> path = new ArrayList<>();
+        path.add(chain[0]);
+        RootCAView rootCA = pathBuilder.extend(path);
+        if (rootCA == null) {
+            return ValidationResult.invalid(pathBuilder.reason);
+        }
+        List<String> subjects = new ArrayList<>(path.size());
+        for (X509CertificateHolder certificateHolder : path) {
+            subjects.add(certificateHolder.getSubject().toString());
+        }
+        return ValidationResult.valid(rootCA.getId(), rootCA.getAttestingAttestors(), subjects);
+    }
+
+    private RootIndex getIndex() {
+        TrustListSnapshot snapshot = this.trustListService.getSnapshot();
+        RootIndex current = this.index;
+        if (current == null || current.snapshot != snapshot) {
+            current = build(snapshot);
+        }
+        return current;
+    }
+
+    private synchronized RootIndex build(TrustListSnapshot snapshot) {
+        RootIndex previous = this.index;
+        if (previous != null && previous.snapshot == snapshot) {
+            return previous;
+        }
+        RootIndex built = new RootIndex(snapshot);
+        for (RootCAView rootCA : snapshot.getRootCAs()) {
+            try {
+                ParsedCertificate parsedCertificate = CryptoUtil.parseCertificate(rootCA.getCertificate());
+                if (parsedCertificate != null) {
+                    built.add(new Root(rootCA, parsedCertificate.getCertificateHolder()));
+                    continue;
+                }
+            } catch (IOException | CertificateException e) {
+                log.debug("Could not parse root CA {}", rootCA.getId(), e);
+            }
+            log.warn("Root CA {} can not be used for chain validation", rootCA.getId());
+        }
+        this.index = built;
+        return built;
+    }
+
+    private static String fingerprint(X509CertificateHolder certificateHolder) {
+        try {
+            return HashUtil.sha256(certificateHolder.getEncoded());
+        } catch (IOException e) {
+            throw new IllegalStateException("A parsed certificate could not be encoded", e);
+        }
+    }
+
+    private static String subjectKeyIdentifier(X509CertificateHolder certificateHolder) {
+        SubjectKeyIdentifier subjectKeyIdentifier = SubjectKeyIdentifier.fromExtensions(certificateHolder.getExtensions());
+        return subjectKeyIdentifier != null ? Hex.toHexString(subjectKeyIdentifier.getKeyIdentifier()) : null;
+    }
+
+    private static String authorityKeyIdentifier(X509CertificateHolder certificateHolder) {
+        AuthorityKeyIdentifier authorityKeyIdentifier = AuthorityKeyIdentifier.fromExtensions(certificateHolder.getExtensions());
+        if (authorityKeyIdentifier == null || authorityKeyIdentifier.getKeyIdentifier() == null) {
+            return null;
+        }
+        return Hex.toHexString(authorityKeyIdentifier.getKeyIdentifier());
+    }
+
+    // the names must match and the key identifiers too if both certificates have one
+    private static boolean isIssuedBy(X509CertificateHolder certificateHolder, X509CertificateHolder issuer) {
+        if (!certificateHolder.getIssuer().equals(issuer.getSubject())) {
+            return false;
+        }
+        String authorityKeyIdentifier = authorityKeyIdentifier(certificateHolder);
+        String subjectKeyIdentifier = subjectKeyIdentifier(issuer);
+        return authorityKeyIdentifier == null || subjectKeyIdentifier == null || authorityKeyIdentifier.equals(subjectKeyIdentifier);
+    }
+
+    private static boolean isSignedBy(X509CertificateHolder certificateHolder, X509CertificateHolder issuer) {
+        try {
+            return CryptoUtil.isSignedBy(certificateHolder, issuer);
+        } catch (CertException | OperatorCreationException e) {
+            return false;
+        }
+    }
+
+    // whether the certificate may issue certificates with the given number of intermediates below it
+    private static boolean mayIssue(X509CertificateHolder certificateHolder, int intermediatesBelow) {
+        BasicConstraints basicConstraints = BasicConstraints.fromExtensions(certificateHolder.getExtensions());
+        if (basicConstraints == null || !basicConstraints.isCA()) {
+            return false;
+        }
+        if (basicConstraints.getPathLenConstraint() != null
+                && intermediatesBelow > basicConstraints.getPathLenConstraint().intValue()) {
+            return false;
+        }
+        KeyUsage keyUsage = KeyUsage.fromExtensions(certificateHolder.getExtensions());
+        return keyUsage == null || keyUsage.hasUsages(KeyUsage.keyCertSign);
+    }
+
+    private static class Root {
+
+        private final RootCAView rootCA;
+        private final X509CertificateHolder certificateHolder;
+
+        private Root(RootCAView rootCA, X509CertificateHolder certificateHolder) {
+            this.rootCA = rootCA;
+            this.certificateHolder = certificateHolder;
+        }
+    }
+
+    private static class RootIndex {
+
+        private final TrustListSnapshot snapshot;
+        private final Map<X500Name, List<Root>> bySubject = new HashMap<>();
+        private final Map<String, List<Root>> byKeyIdentifier = new HashMap<>();
+        private final Map<String, Root> byFingerprint = new HashMap<>();
+
+        private RootIndex(TrustListSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        private void add(Root root) {
+            this.bySubject.computeIfAbsent(root.certificateHolder.getSubject(), k -> new ArrayList<>()).add(root);
+            String keyIdentifier = subjectKeyIdentifier(root.certificateHolder);
+            if (keyIdentifier != null) {
+                this.byKeyIdentifier.computeIfAbsent(keyIdentifier, k -> new ArrayList<>()).add(root);
+            }
+            this.byFingerprint.put(fingerprint(root.certificateHolder), root);
+        }
+
+        private List<Root> issuerCandidates(X509CertificateHolder certificateHolder) {
+            String keyIdentifier = authorityKeyIdentifier(certificateHolder);
+            List<Root> candidates = keyIdentifier != null ? this.byKeyIdentifier.get(keyIdentifier) : null;
+            if (candidates == null) {
+                candidates = this.bySubject.get(certificateHolder.getIssuer());
+            }
+            return candidates != null ? candidates : Collections.emptyList();
+        }
+    }
+
+    // depth first search from the end entity certificate towards the root CAs, state of a single validation
+    private static class PathBuilder {
+
+        private final RootIndex index;
+        private final List<X509CertificateHolder> intermediates;
+        private final Collection<Long> attestorIds;
+        private final AttestorMatch match;
+        private final Date now;
+        private String reason = "No path to a root CA of the trust list could be built";
+
+        private PathBuilder(RootIndex index, List<X509CertificateHolder> intermediates, Collection<Long> attestorIds,
+                            AttestorMatch match, Date now) {
+            this.index = index;
+            this.intermediates = intermediates;
+            this.attestorIds = attestorIds;
+            this.match = match;
+            this.now = now;
+        }
+
+        // extends the path that ends with the given certificates, on success the root CA is added and returned
+        private RootCAView extend(List<X509CertificateHolder> path) {
+            X509CertificateHolder current = path.get(path.size() - 1);
+            if (!current.isValidOn(this.now)) {
+                this.reason = "The certificate " + current.getSubject() + " is not valid at this time";
+                return null;
+            }
+            // the chain may contain the root CA itself
+            Root self = this.index.byFingerprint.get(fingerprint(current));
+            if (self != null) {
+                return isTrusted(self.rootCA) ? self.rootCA : null;
+            }
+            int intermediatesBelow = path.size() - 1;
+            for (Root root : this.index.issuerCandidates(current)) {
+                if (isIssuedBy(current, root.certificateHolder) && root.certificateHolder.isValidOn(this.now)
+                        && isSignedBy(current, root.certificateHolder) && isTrusted(root.rootCA)) {
+                    path.add(root.certificateHolder);
+                    return root.rootCA;
+                }
+            }
+            if (intermediatesBelow >= MAX_PATH_LENGTH) {
+                this.reason = "The path is longer than " + MAX_PATH_LENGTH + " certificates";
+                return null;
+            }
+            for (X509CertificateHolder candidate : this.intermediates) {
+                if (path.contains(candidate) || !isIssuedBy(current, candidate) || !mayIssue(candidate, intermediatesBelow)
+                        || !isSignedBy(current, candidate)) {
+                    continue;
+                }
+                path.add(candidate);
+                RootCAView rootCA = extend(path);
+                if (rootCA != null) {
+                    return rootCA;
+                }
+                path.remove(path.size() - 1);
+            }
+            return null;
+        }
+
+        private boolean isTrusted(RootCAView rootCA) {
+            boolean trusted;
+            if (this.attestorIds == null || this.attestorIds.isEmpty()) {
+                trusted = !rootCA.getAttestingAttestors().isEmpty();
+            } else {
+                trusted = rootCA.isAttestedBy(this.attestorIds, this.match);
+            }
+            if (!trusted) {
+                this.reason = "The root CA " + rootCA.getId() + " is not attested by the required attestors";
+            }
+            return trusted;
+        }
+    }
+}
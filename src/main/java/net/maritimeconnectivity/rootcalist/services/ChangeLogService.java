@@ -0,0 +1,28 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.ChangeSet;
+
+public interface ChangeLogService {
+
+    // the changes with a sequence number greater than since, oldest first
+    ChangeSet getChanges(long since, int limit);
+
+    // the sequence number of the latest change, 0 if nothing has been changed yet
+    long getLatestSequence();
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.ChangeSet;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.JsonSerializable;
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogEntry;
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogSequence;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.AttestorView;
+import net.maritimeconnectivity.rootcalist.model.view.ChangeView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.repositories.AttestationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.repositories.ChangeLogRepository;
+import net.maritimeconnectivity.rootcalist.repositories.ChangeLogSequenceRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RevocationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Records every saved or deleted entity in the change_log table, in the same transaction as the change itself.
+ *
+ * <p>Sequence numbers are taken from a single locked counter row instead of an auto increment column. The lock is
+ * held until the writing transaction ends, so changes become visible in sequence order and a client that has seen
+ * sequence number n can never miss a change with a lower number that is committed later.
+ */
+@Service
+public class ChangeLogServiceImpl implements ChangeLogService {
+
+    private ChangeLogRepository changeLogRepository;
+    private ChangeLogSequenceRepository changeLogSequenceRepository;
+    private RootCARepository rootCARepository;
+    private AttestorRepository attestorRepository;
+    private AttestationRepository attestationRepository;
+    private RevocationRepository revocationRepository;
+
+    @Autowired
+    public void setChangeLogRepository(ChangeLogRepository changeLogRepository) {
+        this.changeLogRepository = changeLogRepository;
+    }
+
+    @Autowired
+    public void setChangeLogSequenceRepository(ChangeLogSequenceRepository changeLogSequenceRepository) {
+        this.changeLogSequenceRepository = changeLogSequenceRepository;
+    }
+
+    @Autowired
+    public void setRootCARepository(RootCARepository rootCARepository) {
+        this.rootCARepository = rootCARepository;
+    }
+
+    @Autowired
+    public void setAttestorRepository(AttestorRepository attestorRepository) {
+        this.attestorRepository = attestorRepository;
+    }
+
+    @Autowired
+    public void setAttestationRepository(AttestationRepository attestationRepository) {
+        this.attestationRepository = attestationRepository;
+    }
+
+    @Autowired
+    public void setRevocationRepository(RevocationRepository revocationRepository) {
+        this.revocationRepository = revocationRepository;
+    }
+
+    // a plain event listener runs inside the transaction that published the event
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onEntityChange(EntityChangeEvent event) {
+        EntityType entityType = EntityType.of(event.getEntity());
+        if (entityType == null) {
+            return;
+        }
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setSequence(nextSequence());
+        entry.setEntityType(entityType);
+        entry.setEntityId(event.getEntity().getId());
+        entry.setOperation(event.getOperation());
+        this.changeLogRepository.save(entry);
+        event.setSequence(entry.getSequence());
+    }
+
+    private long nextSequence() {
+        ChangeLogSequence sequence = this.changeLogSequenceRepository.findForUpdate(ChangeLogSequence.ID);
+        if (sequence == null) {
+            // the row is inserted by V3__change_log.sql, or by import.sql when Hibernate creates the schema, as
+            // inserting it here would race with the first change of other transactions
+            throw new IllegalStateException("The change_log_sequence table does not contain its counter row");
+        }
+        sequence.setLastSequence(sequence.getLastSequence() + 1);
+        this.changeLogSequenceRepository.save(sequence);
+        return sequence.getLastSequence();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangeSet getChanges(long since, int limit) {
+        Slice<ChangeLogEntry> slice = this.changeLogRepository.findBySequenceGreaterThan(since,
+                PageRequest.of(0, limit, Sort.by("sequence")));
+        List<ChangeLogEntry> entries = slice.getContent();
+
+        // the current state of all saved entities is loaded with one query per entity type
+        Map<EntityType, Set<Long>> savedIds = new EnumMap<>(EntityType.class);
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getOperation() == EntityChangeEvent.Operation.SAVE) {
+                savedIds.computeIfAbsent(entry.getEntityType(), k -> new HashSet<>()).add(entry.getEntityId());
+            }
+        }
+        Map<EntityType, Map<Long, JsonSerializable>> data = new EnumMap<>(EntityType.class);
+        savedIds.forEach((entityType, ids) -> data.put(entityType, loadViews(entityType, ids)));
+
+        List<ChangeView> changes = new ArrayList<>(entries.size());
+        for (ChangeLogEntry entry : entries) {
+            JsonSerializable view = null;
+            if (entry.getOperation() == EntityChangeEvent.Operation.SAVE) {
+                view = data.get(entry.getEntityType()).get(entry.getEntityId());
+            }
+            changes.add(new ChangeView(entry, view));
+        }
+        long sequence = entries.isEmpty() ? since : entries.get(entries.size() - 1).getSequence();
+        return new ChangeSet(sequence, slice.hasNext(), changes);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getLatestSequence() {
+        Long sequence = this.changeLogRepository.findLatestSequence();
+        return sequence != null ? sequence : 0L;
+    }
+
+    private Map<Long, JsonSerializable> loadViews(EntityType entityType, Collection<Long> ids) {
+        switch (entityType) {
+            case ROOT_CA:
+                return byId(this.rootCARepository.findViewsByIdIn(ids), RootCAView::getId);
+            case ATTESTOR:
+                return byId(this.attestorRepository.findViewsByIdIn(ids), AttestorView::getId);
+            case ATTESTATION:
+                return byId(this.attestationRepository.findViewsByIdIn(ids), AttestationView::getId);
+            case REVOCATION:
+                return byId(this.revocationRepository.findViewsByIdIn(ids), RevocationView::getId);
+            default:
+                throw new IllegalArgumentException("Unknown entity type " + entityType);
+        }
+    }
+
+    private static <T extends JsonSerializable> Map<Long, JsonSerializable> byId(List<T> views, Function<T, Long> idGetter) {
+        Map<Long, JsonSerializable> map = new HashMap<>();
+        for (T view : views) {
+            map.put(idGetter.apply(view), view);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.config.ReadRoutingContext;
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogEntry;
+import net.maritimeconnectivity.rootcalist.repositories.ChangeLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The data version is the sequence number of the latest change in the change_log table, so all instances hand out the
+ * same ETag for the same data and it survives restarts. The changes committed by this instance are followed right away,
+ * the latest sequence number is read from the database again at most every refresh interval to pick up the changes of
+ * other instances.
+ */
+@Slf4j
+@Service
+public class DataVersionServiceImpl implements DataVersionService {
+
+    private ChangeLogRepository changeLogRepository;
+
+    @Value("${rootcalist.data-version.refresh-interval-millis:1000}")
+    private long refreshIntervalMillis;
+
+    private final Lock lock = new ReentrantLock();
+    private volatile boolean loaded;
+    private volatile long refreshedAt;
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified;
+
+    @Autowired
+    public void setChangeLogRepository(ChangeLogRepository changeLogRepository) {
+        this.changeLogRepository = changeLogRepository;
+    }
+
+    @Override
+    public long getVersion() {
+        refresh();
+        return this.version.get();
+    }
+
+    @Override
+    public long getLastModified() {
+        refresh();
+        return this.lastModified;
+    }
+
+    @Override
+    public String getETag() {
+        return "\"" + getVersion() + "\"";
+    }
+
+    // runs after the listeners that update the data so a new version is never handed out before the data it describes,
+    // only the snapshot file writer comes later because it needs the new version
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getSequence() == 0) {
+            return;
+        }
+        // the events of one transaction may arrive in any order
+        long newVersion = this.version.accumulateAndGet(event.getSequence(), Math::max);
+        this.lastModified = System.currentTimeMillis();
+        log.debug("Data version bumped to {}", newVersion);
+    }
+
+    private void refresh() {
+        if (this.loaded && System.currentTimeMillis() - this.refreshedAt < this.refreshIntervalMillis) {
+            return;
+        }
+        // only the first load has to be waited for, later refreshes are left to whichever thread got the lock
+        if (this.loaded) {
+            if (!this.lock.tryLock()) {
+                return;
+            }
+        } else {
+            this.lock.lock();
+        }
+        try {
+            if (!this.loaded) {
+                readLatest();
+                this.loaded = true;
+                log.info("Data version starts at {}", this.version.get());
+            } else if (System.currentTimeMillis() - this.refreshedAt >= this.refreshIntervalMillis) {
+                try {
+                    readLatest();
+                } catch (RuntimeException e) {
+                    // the version of this instance is kept, it is tried again after the next interval
+                    this.refreshedAt = System.currentTimeMillis();
+                    log.warn("Could not refresh the data version", e);
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void readLatest() {
+        // like the trust list snapshot it must not be taken from a lagging replica
+        ChangeLogEntry latest = ReadRoutingContext.onPrimary(() -> this.changeLogRepository.findFirstByOrderBySequenceDesc());
+        if (latest != null && latest.getSequence() > this.version.get()) {
+            this.version.accumulateAndGet(latest.getSequence(), Math::max);
+            this.lastModified = Math.max(this.lastModified, latest.getCreatedAt().getTime());
+        }
+        this.refreshedAt = System.currentTimeMillis();
+    }
+}
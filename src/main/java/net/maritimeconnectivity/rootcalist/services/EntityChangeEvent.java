@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import net.maritimeconnectivity.rootcalist.model.database.TimestampModel;
+
+// published by the services whenever an entity is saved or deleted
+@Getter
+@ToString
+public class EntityChangeEvent {
+
+    public enum Operation {
+        SAVE,
+        DELETE
+    }
+
+    private final Operation operation;
+    private final TimestampModel entity;
+    // the change_log sequence number of the change, set by ChangeLogServiceImpl inside the transaction
+    @Setter
+    private long sequence;
+
+    public EntityChangeEvent(Operation operation, TimestampModel entity) {
+        this.operation = operation;
+        this.entity = entity;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.exception.DuplicateCertificateException;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.database.EntityModel;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Collections;
+
+// services of entities that have a certificate, duplicates are rejected before they reach the database
+public abstract class EntityServiceImpl<T extends EntityModel> extends BaseServiceImpl<T> {
+
+    private CertificateRegistryService certificateRegistryService;
+
+    @Autowired
+    public void setCertificateRegistryService(CertificateRegistryService certificateRegistryService) {
+        this.certificateRegistryService = certificateRegistryService;
+    }
+
+    @Transactional
+    @Override
+    public T save(T entity) {
+        if (entity.getId() == null) {
+            String fingerprint;
+            try {
+                fingerprint = CryptoUtil.fingerprint(entity.getCertificate());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("The certificate could not be encoded", e);
+            }
+            if (fingerprint == null) {
+                throw new IllegalArgumentException("The entity does not contain a certificate");
+            }
+            entity.setFingerprint(fingerprint);
+            if (!this.certificateRegistryService.reserve(EntityType.of(entity), Collections.singleton(fingerprint)).isEmpty()) {
+                throw new DuplicateCertificateException(fingerprint);
+            }
+        }
+        return super.save(entity);
+    }
+}
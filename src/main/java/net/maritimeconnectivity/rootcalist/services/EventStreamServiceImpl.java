@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.model.ChangeSet;
+import net.maritimeconnectivity.rootcalist.model.view.ChangeView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the entries of the change log to the subscribers of the event stream. The change log sequence number is used
+ * as the event ID, so a client that reconnects with Last-Event-ID continues exactly where it left off.
+ *
+ * <p>Everything that touches the subscribers runs on a single thread: reading new changes after a commit, replaying
+ * missed changes to a new subscriber and the heartbeats. That keeps the events of every subscriber in order without
+ * any locking, and the subscribers never block that thread because they only queue the events they are given.
+ */
+@Slf4j
+@Service
+public class EventStreamServiceImpl implements EventStreamService {
+
+    private static final int PAGE_SIZE = 500;
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private ChangeLogService changeLogService;
+    private ObjectMapper objectMapper;
+
+    @Value("${rootcalist.events.heartbeat-seconds:30}")
+    private long heartbeatSeconds;
+
+    private final List<EventSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean publishPending = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+    // only accessed on the executor thread
+    private long lastSequence = -1;
+
+    @Autowired
+    public void setChangeLogService(ChangeLogService changeLogService) {
+        this.changeLogService = changeLogService;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("event-stream-"));
+        this.executor.scheduleWithFixedDelay(this::sendHeartbeats, this.heartbeatSeconds, this.heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+        this.subscribers.forEach(EventSubscriber::close);
+        this.subscribers.clear();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        schedulePublish();
+    }
+
+    @TransactionalEventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        schedulePublish();
+    }
+
+    @Override
+    public void subscribe(EventSubscriber subscriber, Long lastEventId) {
+        this.executor.execute(() -> {
+            long current = currentSequence();
+            if (lastEventId != null && lastEventId < current && !replay(subscriber, lastEventId, current)) {
+                subscriber.close();
+                return;
+            }
+            this.subscribers.add(subscriber);
+        });
+    }
+
+    @Override
+    public void unsubscribe(EventSubscriber subscriber) {
+        this.subscribers.remove(subscriber);
+    }
+
+    private void schedulePublish() {
+        if (this.publishPending.compareAndSet(false, true)) {
+            this.executor.execute(this::publish);
+        }
+    }
+
+    private long currentSequence() {
+        if (this.lastSequence < 0) {
+            this.lastSequence = this.changeLogService.getLatestSequence();
+        }
+        return this.lastSequence;
+    }
+
+    private void publish() {
+        this.publishPending.set(false);
+        try {
+            long since = currentSequence();
+            ChangeSet changeSet;
+            do {
+                changeSet = this.changeLogService.getChanges(since, PAGE_SIZE);
+                for (ChangeView change : changeSet.getChanges()) {
+                    byte[] event = encode(change);
+                    for (EventSubscriber subscriber : this.subscribers) {
+                        if (subscriber.accepts(change) && !subscriber.send(event)) {
+                            drop(subscriber);
+                        }
+                    }
+                }
+                since = changeSet.getSequence();
+                this.lastSequence = since;
+            } while (changeSet.isMore());
+        } catch (RuntimeException e) {
+            // the next commit tries again from the last published sequence number
+            log.error("Could not publish changes to the event stream", e);
+        }
+    }
+
+    // sends the changes after lastEventId up to the current sequence number, returns false if the subscriber gave up
+    private boolean replay(EventSubscriber subscriber, long lastEventId, long until) {
+        long since = lastEventId;
+        while (since < until) {
+            ChangeSet changeSet = this.changeLogService.getChanges(since, PAGE_SIZE);
+            for (ChangeView change : changeSet.getChanges()) {
+                if (change.getSequence() > until) {
+                    return true;
+                }
+                if (subscriber.accepts(change) && !subscriber.send(encode(change))) {
+                    return false;
+                }
+            }
+            if (!changeSet.isMore()) {
+                break;
+            }
+            since = changeSet.getSequence();
+        }
+        return true;
+    }
+
+    private void sendHeartbeats() {
+        // also detects clients that have gone away without closing the connection
+        List<EventSubscriber> dropped = new ArrayList<>();
+        for (EventSubscriber subscriber : this.subscribers) {
+            if (!subscriber.send(HEARTBEAT)) {
+                dropped.add(subscriber);
+            }
+        }
+        dropped.forEach(this::drop);
+    }
+
+    private void drop(EventSubscriber subscriber) {
+        this.subscribers.remove(subscriber);
+        subscriber.close();
+    }
+
+    private byte[] encode(ChangeView change) {
+        try {
+            String data = this.objectMapper.writeValueAsString(change);
+            String event = "id: " + change.getSequence() + "\n" +
+                    "event: " + change.getType().name().toLowerCase().replace('_', '-') + "\n" +
+                    "data: " + data + "\n\n";
+            return event.getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize change " + change.getSequence(), e);
+        }
+    }
+}
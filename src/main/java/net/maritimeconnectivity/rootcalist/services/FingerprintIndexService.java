@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.FingerprintMatch;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+
+import java.util.List;
+
+/**
+ * Looks up root CAs by the HEX encoded SHA-256 fingerprint of their DER encoded certificate, which is also the
+ * fingerprint stored in the database. Colons between the bytes and upper case are accepted.
+ */
+public interface FingerprintIndexService {
+
+    int MAX_LOOKUP_SIZE = 10000;
+
+    // returns null if no root CA has the fingerprint
+    RootCAView findByFingerprint(String fingerprint);
+
+    // one match per given fingerprint, in the same order
+    List<FingerprintMatch> match(List<String> fingerprints);
+
+}
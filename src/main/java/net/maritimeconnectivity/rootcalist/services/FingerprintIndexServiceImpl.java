@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.model.FingerprintMatch;
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.utils.BloomFilter;
+import net.maritimeconnectivity.rootcalist.utils.EncodedCertificate;
+import net.maritimeconnectivity.rootcalist.utils.HashUtil;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class FingerprintIndexServiceImpl implements FingerprintIndexService {
+
+    // most lookups are expected to be for certificates that are not in the list, so the filter answers those
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.001;
+
+    private TrustListService trustListService;
+
+    // rebuilt at most once per snapshot, the fingerprints of unchanged root CAs are carried over
+    private volatile Index index;
+
+    @Autowired
+    public void setTrustListService(TrustListService trustListService) {
+        this.trustListService = trustListService;
+    }
+
+    @Override
+    public RootCAView findByFingerprint(String fingerprint) {
+        Index current = getIndex();
+        Long id = current.lookup(HashUtil.normalizeSha256(fingerprint));
+        return id != null ? current.snapshot.getRootCA(id) : null;
+    }
+
+    @Override
+    public List<FingerprintMatch> match(List<String> fingerprints) {
+        Index current = getIndex();
+        List<FingerprintMatch> matches = new ArrayList<>(fingerprints.size());
+        for (String fingerprint : fingerprints) {
+            matches.add(new FingerprintMatch(fingerprint, current.lookup(HashUtil.normalizeSha256(fingerprint))));
+        }
+        return matches;
+    }
+
+    private Index getIndex() {
+        TrustListSnapshot snapshot = this.trustListService.getSnapshot();
+        Index current = this.index;
+        if (current == null || current.snapshot != snapshot) {
+            current = build(snapshot);
+        }
+        return current;
+    }
+
+    private synchronized Index build(TrustListSnapshot snapshot) {
+        Index previous = this.index;
+        if (previous != null && previous.snapshot == snapshot) {
+            return previous;
+        }
+        Map<Long, EncodedCertificate> previousCertificates = previous != null ? previous.certificates : new HashMap<>();
+        Map<Long, EncodedCertificate> certificates = new HashMap<>();
+        int expected = snapshot.getRootCAs().size();
+        Map<String, Long> ids = new HashMap<>(expected * 4 / 3 + 1);
+        BloomFilter filter = new BloomFilter(expected, FALSE_POSITIVE_PROBABILITY);
+        for (RootCAView rootCA : snapshot.getRootCAs()) {
+            EncodedCertificate certificate = EncodedCertificate.of(rootCA.getCertificate(), previousCertificates.get(rootCA.getId()));
+            if (certificate == null) {
+                log.warn("Root CA {} can not be looked up by fingerprint", rootCA.getId());
+                continue;
+            }
+            certificates.put(rootCA.getId(), certificate);
+            ids.put(Hex.toHexString(certificate.getFingerprint()), rootCA.getId());
+            filter.put(certificate.getFingerprint());
+        }
+        Index built = new Index(snapshot, ids, filter, certificates);
+        this.index = built;
+        log.debug("Built fingerprint index of {} root CAs for snapshot version {}", certificates.size(), snapshot.getVersion());
+        return built;
+    }
+
+    private static class Index {
+
+        private final TrustListSnapshot snapshot;
+        private final Map<String, Long> ids;
+        private final BloomFilter filter;
+        private final Map<Long, EncodedCertificate> certificates;
+
+        private Index(TrustListSnapshot snapshot, Map<String, Long> ids, BloomFilter filter, Map<Long, EncodedCertificate> certificates) {
+            this.snapshot = snapshot;
+            this.ids = ids;
+            this.filter = filter;
+            this.certificates = certificates;
+        }
+
+        // takes a normalized fingerprint, or null which is never found
+        private Long lookup(String fingerprint) {
+            if (fingerprint == null || !this.filter.mightContain(Hex.decode(fingerprint))) {
+                return null;
+            }
+            return this.ids.get(fingerprint);
+        }
+    }
+}
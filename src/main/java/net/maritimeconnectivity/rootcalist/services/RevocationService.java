@@ -17,6 +17,20 @@
 package net.maritimeconnectivity.rootcalist.services;
 
 import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface RevocationService extends BaseService<Revocation> {
+
+    RevocationView getViewById(Long id);
+
+    List<RevocationView> listAllViews();
+
+    Slice<RevocationView> listViewsAfter(Long after, int limit);
+
+    // passes every revocation to the consumer while they are read from the database
+    void forEachView(Consumer<RevocationView> consumer);
 }
@@ -17,10 +17,18 @@
 package net.maritimeconnectivity.rootcalist.services;
 
 import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
 import net.maritimeconnectivity.rootcalist.repositories.RevocationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 @Service
 public class RevocationServiceImpl extends BaseServiceImpl<Revocation> implements RevocationService {
 
@@ -31,6 +39,29 @@ public class RevocationServiceImpl extends BaseServiceImpl<Revocation> implement
         this.revocationRepository = revocationRepository;
     }
 
+    @Override
+    public RevocationView getViewById(Long id) {
+        return this.revocationRepository.findViewById(id);
+    }
+
+    @Override
+    public List<RevocationView> listAllViews() {
+        return this.revocationRepository.findAllViews();
+    }
+
+    @Override
+    public Slice<RevocationView> listViewsAfter(Long after, int limit) {
+        return this.revocationRepository.findViewsByIdGreaterThan(after, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    // the rows are constructor projections, so nothing piles up in the persistence context while streaming
+    @Override
+    public void forEachView(Consumer<RevocationView> consumer) {
+        try (Stream<RevocationView> stream = this.revocationRepository.streamAllViews()) {
+            stream.forEach(consumer);
+        }
+    }
+
     @Override
     public RevocationRepository getRepository() {
         return this.revocationRepository;
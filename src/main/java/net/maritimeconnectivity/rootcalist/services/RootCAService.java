@@ -16,11 +16,14 @@
 
 package net.maritimeconnectivity.rootcalist.services;
 
+import net.maritimeconnectivity.rootcalist.model.AttestorMatch;
 import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RootCAService extends BaseService<RootCA> {
 
-    List<RootCA> listByAttestors(List<Long> attestorIds);
+    List<RootCAView> listByAttestors(Collection<Long> attestorIds, AttestorMatch match);
 }
@@ -16,15 +16,19 @@
 
 package net.maritimeconnectivity.rootcalist.services;
 
+import net.maritimeconnectivity.rootcalist.model.AttestorMatch;
 import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
 import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 @Service
-public class RootCAServiceImpl extends BaseServiceImpl<RootCA> implements RootCAService {
+public class RootCAServiceImpl extends EntityServiceImpl<RootCA> implements RootCAService {
 
     private RootCARepository rootCARepository;
 
@@ -34,8 +38,11 @@ public class RootCAServiceImpl extends BaseServiceImpl<RootCA> implements RootCA
     }
 
     @Override
-    public List<RootCA> listByAttestors(List<Long> attestorIds) {
-        return this.rootCARepository.findByAttestor(attestorIds);
+    public List<RootCAView> listByAttestors(Collection<Long> attestorIds, AttestorMatch match) {
+        if (match == AttestorMatch.ALL) {
+            return this.rootCARepository.findViewsByAllAttestors(attestorIds, new HashSet<>(attestorIds).size());
+        }
+        return this.rootCARepository.findViewsByAnyAttestor(attestorIds);
     }
 
     @Override
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.model.SnapshotFile;
+import net.maritimeconnectivity.rootcalist.model.SnapshotFormat;
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Renders every {@link SnapshotFormat} of the trust list to files whenever the data changes, so the full list can be
+ * served straight from disk. Rendering happens on a single background thread and changes that arrive while a render
+ * is pending are coalesced into it. Until the files for the current data have been written
+ * {@link #getFile(SnapshotFormat)} returns null and callers serve the list from memory instead.
+ *
+ * <p>Each render writes a new generation of files named after the data version, so a file that has been handed out
+ * is never changed under a reader. The files are written to a temporary name and atomically renamed into place, and
+ * the latest generation is also published under the plain file names (roots.json etc.) for a web server in front of
+ * the application to serve directly.
+ *
+ * <p>A replaced generation is deleted once {@code rootcalist.snapshot.retention} (default 5 minutes) has passed. With
+ * sendfile the connector only opens the file after the request has been handled, so there is no point at which the
+ * application knows that a transfer is done, and the files have to stay until any transfer can be expected to be.
+ */
+@Slf4j
+@Service
+public class SnapshotFileServiceImpl implements SnapshotFileService {
+
+    private TrustListService trustListService;
+    private TrustListExportService trustListExportService;
+    private DataVersionService dataVersionService;
+    private ObjectMapper objectMapper;
+
+    @Value("${rootcalist.snapshot.enabled:true}")
+    private boolean enabled;
+    @Value("${rootcalist.snapshot.directory:}")
+    private String directoryName;
+    @Value("${rootcalist.snapshot.retention:5m}")
+    private Duration retention;
+
+    private Path directory;
+    private ScheduledExecutorService executor;
+    private final AtomicBoolean renderPending = new AtomicBoolean();
+    private volatile Generation current;
+
+    @Autowired
+    public void setTrustListService(TrustListService trustListService) {
+        this.trustListService = trustListService;
+    }
+
+    @Autowired
+    public void setTrustListExportService(TrustListExportService trustListExportService) {
+        this.trustListExportService = trustListExportService;
+    }
+
+    @Autowired
+    public void setDataVersionService(DataVersionService dataVersionService) {
+        this.dataVersionService = dataVersionService;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!this.enabled) {
+            return;
+        }
+        if (this.directoryName == null || this.directoryName.isEmpty()) {
+            this.directory = Files.createTempDirectory("root-ca-list-");
+        } else {
+            this.directory = Files.createDirectories(Paths.get(this.directoryName));
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("snapshot-writer-"));
+        log.info("Trust list snapshot files are written to {}", this.directory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public SnapshotFile getFile(SnapshotFormat format) {
+        Generation generation = this.current;
+        if (generation == null || generation.snapshot != this.trustListService.getSnapshot()
+                || !generation.eTag.equals(this.dataVersionService.getETag())) {
+            return null;
+        }
+        return generation.files.get(format);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRender();
+    }
+
+    // runs after the data version has been bumped, so the render that is scheduled here sees the new version
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        scheduleRender();
+    }
+
+    private void scheduleRender() {
+        if (this.executor != null && this.renderPending.compareAndSet(false, true)) {
+            this.executor.execute(this::render);
+        }
+    }
+
+    private void render() {
+        this.renderPending.set(false);
+        String eTag;
+        TrustListSnapshot snapshot;
+        // the snapshot and the data version are updated by different listeners, so read until they agree
+        do {
+            eTag = this.dataVersionService.getETag();
+            snapshot = this.trustListService.getSnapshot();
+        } while (!eTag.equals(this.dataVersionService.getETag()));
+
+        String version = eTag.replace("\"", "");
+        Map<SnapshotFormat, SnapshotFile> files = new EnumMap<>(SnapshotFormat.class);
+        try {
+            for (SnapshotFormat format : SnapshotFormat.values()) {
+                files.put(format, write(format, snapshot, version, eTag));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not write the trust list snapshot files for version {}", version, e);
+            files.values().forEach(file -> delete(file.getPath()));
+            return;
+        }
+
+        Generation replaced = this.current;
+        this.current = new Generation(snapshot, eTag, files);
+        if (replaced != null) {
+            // transfers of the replaced files may have been started just before
+            this.executor.schedule(() -> replaced.files.values().forEach(file -> delete(file.getPath())),
+                    this.retention.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        log.debug("Wrote trust list snapshot files for version {}", version);
+    }
+
+    private SnapshotFile write(SnapshotFormat format, TrustListSnapshot snapshot, String version, String eTag) throws IOException {
+        Path temporary = Files.createTempFile(this.directory, format.getFileName(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                switch (format) {
+                    case JSON:
+                        this.objectMapper.writeValue(out, snapshot.getRootCAs());
+                        break;
+                    case PEM:
+                        writePem(out, snapshot);
+                        break;
+                    case BINARY:
+                        out.write(this.trustListExportService.getBinaryExport(snapshot));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown snapshot format " + format);
+                }
+            }
+            Path versioned = this.directory.resolve(version + "-" + format.getFileName());
+            Files.move(temporary, versioned, StandardCopyOption.ATOMIC_MOVE);
+            publish(versioned, this.directory.resolve(format.getFileName()));
+            return new SnapshotFile(format, versioned, Files.size(versioned), eTag);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // publishes a copy under the plain file name, replacing the previous one atomically
+    private void publish(Path source, Path target) throws IOException {
+        Path temporary = Files.createTempFile(this.directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.copy(source, temporary, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writePem(OutputStream out, TrustListSnapshot snapshot) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.US_ASCII);
+        for (RootCAView rootCA : snapshot.getRootCAs()) {
+            String certificate = rootCA.getCertificate();
+            writer.write(certificate);
+            if (!certificate.endsWith("\n")) {
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private static class Generation {
+
+        private final TrustListSnapshot snapshot;
+        private final String eTag;
+        private final Map<SnapshotFormat, SnapshotFile> files;
+
+        private Generation(TrustListSnapshot snapshot, String eTag, Map<SnapshotFormat, SnapshotFile> files) {
+            this.snapshot = snapshot;
+            this.eTag = eTag;
+            this.files = files;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.utils.EncodedCertificate;
+import net.maritimeconnectivity.rootcalist.utils.TrustListBinaryReader;
+import net.maritimeconnectivity.rootcalist.utils.TrustListBinaryWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class TrustListExportServiceImpl implements TrustListExportService {
+
+    private TrustListService trustListService;
+
+    // the export is rebuilt at most once per snapshot
+    private volatile Export export;
+
+    @Autowired
+    public void setTrustListService(TrustListService trustListService) {
+        this.trustListService = trustListService;
+    }
+
+    @Override
+    public byte[] getBinaryExport() {
+        return getBinaryExport(this.trustListService.getSnapshot());
+    }
+
+    @Override
+    public byte[] getBinaryExport(TrustListSnapshot snapshot) {
+        Export current = this.export;
+        if (current == null || current.snapshot != snapshot) {
+            current = build(snapshot);
+        }
+        return current.bytes;
+    }
+
+    private synchronized Export build(TrustListSnapshot snapshot) {
+        Export previous = this.export;
+        if (previous != null && previous.snapshot == snapshot) {
+            return previous;
+        }
+        // DER encoding and fingerprint only change when a root CA is replaced, so they are carried over between builds
+        Map<Long, EncodedCertificate> previousCertificates = previous != null ? previous.certificates : new HashMap<>();
+        Map<Long, EncodedCertificate> certificates = new HashMap<>();
+        List<TrustListBinaryReader.Entry> entries = new ArrayList<>(snapshot.getRootCAs().size());
+        for (RootCAView rootCA : snapshot.getRootCAs()) {
+            EncodedCertificate encoded = EncodedCertificate.of(rootCA.getCertificate(), previousCertificates.get(rootCA.getId()));
+            if (encoded == null) {
+                log.warn("Root CA {} is left out of the binary export", rootCA.getId());
+                continue;
+            }
+            certificates.put(rootCA.getId(), encoded);
+            List<TrustListBinaryReader.Attestation> attestations = new ArrayList<>(rootCA.getAttestations().size());
+            for (AttestationView attestation : rootCA.getAttestations()) {
+                attestations.add(new TrustListBinaryReader.Attestation(attestation.getId(), attestation.getAttestor(),
+                        attestation.getRevocation() != null));
+            }
+            entries.add(new TrustListBinaryReader.Entry(rootCA.getId(), encoded.getFingerprint(), rootCA.getName(), encoded.getDer(), attestations));
+        }
+        Export built = new Export(snapshot, TrustListBinaryWriter.write(entries, System.currentTimeMillis()), certificates);
+        this.export = built;
+        log.debug("Built binary trust list export of {} bytes for snapshot version {}", built.bytes.length, snapshot.getVersion());
+        return built;
+    }
+
+    private static class Export {
+
+        private final TrustListSnapshot snapshot;
+        private final byte[] bytes;
+        private final Map<Long, EncodedCertificate> certificates;
+
+        private Export(TrustListSnapshot snapshot, byte[] bytes, Map<Long, EncodedCertificate> certificates) {
+            this.snapshot = snapshot;
+            this.bytes = bytes;
+            this.certificates = certificates;
+        }
+    }
+}
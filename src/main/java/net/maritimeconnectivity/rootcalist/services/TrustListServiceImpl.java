@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.maritimeconnectivity.rootcalist.config.ReadRoutingContext;
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
+import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.database.TimestampModel;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.AttestorView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.repositories.AttestationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RevocationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Service
+public class TrustListServiceImpl implements TrustListService {
+
+    private RootCARepository rootCARepository;
+    private AttestorRepository attestorRepository;
+    private AttestationRepository attestationRepository;
+    private RevocationRepository revocationRepository;
+    private TransactionTemplate transactionTemplate;
+
+    // readers only ever see a fully built snapshot, writers are serialized by the lock. It is not a monitor because
+    // the initial load queries the database, which would pin the carrier of a virtual thread while waiting
+    private final Lock lock = new ReentrantLock();
+    private volatile TrustListSnapshot snapshot;
+
+    @Autowired
+    public void setRootCARepository(RootCARepository rootCARepository) {
+        this.rootCARepository = rootCARepository;
+    }
+
+    @Autowired
+    public void setAttestorRepository(AttestorRepository attestorRepository) {
+        this.attestorRepository = attestorRepository;
+    }
+
+    @Autowired
+    public void setAttestationRepository(AttestationRepository attestationRepository) {
+        this.attestationRepository = attestationRepository;
+    }
+
+    @Autowired
+    public void setRevocationRepository(RevocationRepository revocationRepository) {
+        this.revocationRepository = revocationRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public TrustListSnapshot getSnapshot() {
+        TrustListSnapshot current = this.snapshot;
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        getSnapshot();
+    }
+
+    // the changes are collected while the transaction runs and applied to the snapshot together once it has
+    // committed, so a transaction that stores many entities, like a bundle import, copies the snapshot only once
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyChanges(Collections.singletonList(event));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    private void applyChanges(List<EntityChangeEvent> events) {
+        this.lock.lock();
+        try {
+            // if nothing has been loaded yet the changes will be part of the initial load
+            if (this.snapshot == null) {
+                return;
+            }
+            TrustListSnapshot.Editor editor = this.snapshot.edit();
+            for (EntityChangeEvent event : events) {
+                apply(editor, event);
+            }
+            this.snapshot = editor.apply();
+            log.debug("Trust list snapshot updated to version {} with {} changes", this.snapshot.getVersion(), events.size());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private TrustListSnapshot load() {
+        this.lock.lock();
+        try {
+            if (this.snapshot == null) {
+                // later changes are applied to the snapshot from the events, so it must not start from a lagging replica
+                this.snapshot = ReadRoutingContext.onPrimary(() -> this.transactionTemplate.execute(status -> TrustListSnapshot.build(
+                        this.rootCARepository.findAllViews(),
+                        this.attestorRepository.findAllViews(),
+                        this.attestationRepository.findAllViews(),
+                        this.revocationRepository.findAllViews())));
+                log.info("Loaded trust list snapshot with {} root CAs", this.snapshot.getRootCAs().size());
+            }
+            return this.snapshot;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private static void apply(TrustListSnapshot.Editor editor, EntityChangeEvent event) {
+        TimestampModel entity = event.getEntity();
+        boolean delete = event.getOperation() == EntityChangeEvent.Operation.DELETE;
+        if (entity instanceof RootCA) {
+            if (delete) {
+                editor.withoutRootCA(entity.getId());
+            } else {
+                editor.withRootCA(new RootCAView((RootCA) entity));
+            }
+        } else if (entity instanceof Attestor) {
+            if (delete) {
+                editor.withoutAttestor(entity.getId());
+            } else {
+                editor.withAttestor(new AttestorView((Attestor) entity));
+            }
+        } else if (entity instanceof Attestation) {
+            if (delete) {
+                editor.withoutAttestation(entity.getId());
+            } else {
+                editor.withAttestation(new AttestationView((Attestation) entity));
+            }
+        } else if (entity instanceof Revocation) {
+            if (delete) {
+                editor.withoutRevocation(entity.getId());
+            } else {
+                editor.withRevocation(new RevocationView((Revocation) entity));
+            }
+        }
+    }
+
+    // runs before the transactional event listeners, which are only called after completion, so everything that
+    // reacts to a committed change already sees it in the snapshot
+    private final class PendingChanges implements TransactionSynchronization, Ordered {
+
+        private final List<EntityChangeEvent> events = new ArrayList<>();
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TrustListServiceImpl.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TrustListServiceImpl.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            applyChanges(this.events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TrustListServiceImpl.this);
+        }
+    }
+}
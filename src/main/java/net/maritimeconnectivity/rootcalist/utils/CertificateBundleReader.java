@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.bouncycastle.asn1.cms.ContentInfo;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataParser;
+import org.bouncycastle.cms.CMSTypedStream;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.Store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Reads the certificates of a bundle one at a time, so the bundle never has to be held in memory as a whole. A bundle
+ * is either a sequence of PEM objects, each a certificate or a PKCS#7 structure, or a single DER encoded PKCS#7
+ * certs-only structure.
+ */
+public class CertificateBundleReader implements Closeable {
+
+    private final PEMParser pemParser;
+    private InputStream pkcs7Stream;
+    private final Deque<X509CertificateHolder> pending = new ArrayDeque<>();
+
+    private CertificateBundleReader(PEMParser pemParser, InputStream pkcs7Stream) {
+        this.pemParser = pemParser;
+        this.pkcs7Stream = pkcs7Stream;
+    }
+
+    public static CertificateBundleReader fromPem(InputStream inputStream) {
+        return new CertificateBundleReader(new PEMParser(new InputStreamReader(inputStream, US_ASCII)), null);
+    }
+
+    public static CertificateBundleReader fromPkcs7(InputStream inputStream) {
+        return new CertificateBundleReader(null, inputStream);
+    }
+
+    // returns the next certificate of the bundle or null if there are no more
+    public X509CertificateHolder next() throws IOException {
+        while (this.pending.isEmpty()) {
+            if (this.pemParser != null) {
+                Object object = this.pemParser.readObject();
+                if (object == null) {
+                    return null;
+                } else if (object instanceof X509CertificateHolder) {
+                    return (X509CertificateHolder) object;
+                } else if (object instanceof ContentInfo) {
+                    try {
+                        addAll(new CMSSignedData((ContentInfo) object).getCertificates());
+                    } catch (CMSException e) {
+                        throw new IOException("The PKCS#7 structure could not be parsed", e);
+                    }
+                } else {
+                    throw new IOException("The bundle contains an object that is not a certificate");
+                }
+            } else if (this.pkcs7Stream != null) {
+                readPkcs7(this.pkcs7Stream);
+                this.pkcs7Stream = null;
+            } else {
+                return null;
+            }
+        }
+        return this.pending.poll();
+    }
+
+    private void readPkcs7(InputStream inputStream) throws IOException {
+        try {
+            CMSSignedDataParser parser = new CMSSignedDataParser(new JcaDigestCalculatorProviderBuilder()
+                    .setProvider(SignatureAlgorithms.getProvider()).build(), inputStream);
+            // the certificates come after the content, which is empty for a certs-only structure
+            CMSTypedStream signedContent = parser.getSignedContent();
+            if (signedContent != null) {
+                signedContent.drain();
+            }
+            addAll(parser.getCertificates());
+        } catch (CMSException | OperatorCreationException e) {
+            throw new IOException("The PKCS#7 structure could not be parsed", e);
+        }
+    }
+
+    // the streaming parser of this Bouncy Castle version returns a raw store, both only ever hold certificate holders
+    private void addAll(Store<?> store) {
+        for (Object certificate : store.getMatches(null)) {
+            this.pending.add((X509CertificateHolder) certificate);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.pemParser != null) {
+            this.pemParser.close();
+        } else if (this.pkcs7Stream != null) {
+            this.pkcs7Stream.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.openssl.PEMParser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.security.cert.CertificateException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// bounded LRU cache of parsed certificates keyed by the SHA-256 hash of their PEM encoding
+public class CertificateCache extends LruCache<String, ParsedCertificate> {
+
+    public CertificateCache(int maxSize) {
+        super(maxSize);
+    }
+
+    // returns the parsed certificate or null if the PEM string does not contain any object
+    public ParsedCertificate getOrParse(String pem) throws IOException, CertificateException {
+        String key = HashUtil.sha256(pem.getBytes(UTF_8));
+        ParsedCertificate parsedCertificate = get(key);
+        if (parsedCertificate == null) {
+            parsedCertificate = parse(pem);
+            if (parsedCertificate != null) {
+                put(key, parsedCertificate);
+            }
+        }
+        return parsedCertificate;
+    }
+
+    private static ParsedCertificate parse(String pem) throws IOException, CertificateException {
+        Object object;
+        try (PEMParser pemParser = new PEMParser(new StringReader(pem))) {
+            object = pemParser.readObject();
+        }
+        if (object == null) {
+            return null;
+        }
+        if (!(object instanceof X509CertificateHolder)) {
+            throw new IOException("The PEM object is not a certificate");
+        }
+        X509CertificateHolder certificateHolder = (X509CertificateHolder) object;
+        return new ParsedCertificate(certificateHolder,
+                new JcaX509CertificateConverter().setProvider("BC").getCertificate(certificateHolder));
+    }
+}
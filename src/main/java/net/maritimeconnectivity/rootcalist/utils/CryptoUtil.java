@@ -16,26 +16,32 @@
 
 package net.maritimeconnectivity.rootcalist.utils;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import net.maritimeconnectivity.rootcalist.model.database.EntityModel;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.CertException;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
-import org.bouncycastle.cert.jcajce.JcaX509ContentVerifierProviderBuilder;
-import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.operator.ContentVerifierProvider;
+import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
 import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
 import org.bouncycastle.util.encoders.HexEncoder;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemWriter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.StringWriter;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
 import java.security.Signature;
 import java.security.SignatureException;
 import java.security.cert.CertificateException;
-import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -45,26 +51,133 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 @Slf4j
 public class CryptoUtil {
 
+    private static final String BEGIN_CERTIFICATE = "-----BEGIN CERTIFICATE-----";
+    private static final String END_CERTIFICATE = "-----END CERTIFICATE-----";
+
+    private static final CertificateCache CERTIFICATE_CACHE = new CertificateCache(1024);
+    // verifier providers are keyed by the SHA-256 hash of the encoded public key of the issuer
+    private static final LruCache<String, ContentVerifierProvider> VERIFIER_PROVIDERS = new LruCache<>(1024);
+    private static final SignatureCache SIGNATURE_CACHE = new SignatureCache(4096);
+    private static final JcaContentVerifierProviderBuilder VERIFIER_PROVIDER_BUILDER =
+            new JcaContentVerifierProviderBuilder().setProvider(SignatureAlgorithms.getProvider());
+    private static final DefaultAlgorithmNameFinder ALGORITHM_NAME_FINDER = new DefaultAlgorithmNameFinder();
+
     private CryptoUtil() {
 
     }
 
+    public static CertificateCache getCertificateCache() {
+        return CERTIFICATE_CACHE;
+    }
+
+    public static SignatureCache getSignatureCache() {
+        return SIGNATURE_CACHE;
+    }
+
+    public static LruCache<String, ContentVerifierProvider> getVerifierProviderCache() {
+        return VERIFIER_PROVIDERS;
+    }
+
+    // parses a single PEM encoded certificate, returns null if the string does not contain any PEM object
+    public static ParsedCertificate parseCertificate(String pemString) throws IOException, CertificateException {
+        Timer.Sample sample = MetricsUtil.startTimer();
+        ParsedCertificate parsedCertificate = null;
+        String outcome = MetricsUtil.OUTCOME_ERROR;
+        try {
+            parsedCertificate = CERTIFICATE_CACHE.getOrParse(pemString);
+            outcome = parsedCertificate != null ? MetricsUtil.OUTCOME_VALID : MetricsUtil.OUTCOME_INVALID;
+            return parsedCertificate;
+        } finally {
+            MetricsUtil.stopCryptoTimer(sample, "parse", parsedCertificate != null ?
+                    getSignatureAlgorithm(parsedCertificate.getCertificateHolder()) : null, outcome);
+        }
+    }
+
     public static X509CertificateHolder[] extractCertificates(String pemString) throws IOException {
-        PEMParser pemParser = new PEMParser(new StringReader(pemString));
         List<X509CertificateHolder> certificateHolders = new ArrayList<>();
-        while (true) {
-            X509CertificateHolder certificateHolder = (X509CertificateHolder) pemParser.readObject();
-            if (certificateHolder == null) {
-                break;
+        // each certificate of the chain is looked up on its own so that shared intermediates are only parsed once
+        int start = pemString.indexOf(BEGIN_CERTIFICATE);
+        while (start >= 0) {
+            int end = pemString.indexOf(END_CERTIFICATE, start);
+            if (end < 0) {
+                throw new IOException("The PEM string contains an incomplete certificate");
             }
-            certificateHolders.add(certificateHolder);
+            end += END_CERTIFICATE.length();
+            ParsedCertificate parsedCertificate;
+            try {
+                parsedCertificate = parseCertificate(pemString.substring(start, end));
+            } catch (CertificateException e) {
+                throw new IOException("The certificate could not be parsed", e);
+            }
+            // a block between the markers that is not a PEM object
+            if (parsedCertificate == null) {
+                throw new IOException("The certificate could not be parsed");
+            }
+            certificateHolders.add(parsedCertificate.getCertificateHolder());
+            start = pemString.indexOf(BEGIN_CERTIFICATE, end);
         }
         return certificateHolders.toArray(new X509CertificateHolder[0]);
     }
 
+    // HEX encoded SHA-256 hash of the DER encoding of the first certificate in the PEM string, so it does not depend on
+    // how the PEM is formatted or on any issuer certificates that follow. This is the usual SHA-256 fingerprint of the
+    // certificate. Returns null if the string does not contain any certificate
+    public static String fingerprint(String pemString) throws IOException {
+        X509CertificateHolder[] certificateHolders = extractCertificates(pemString);
+        if (certificateHolders.length == 0) {
+            return null;
+        }
+        Timer.Sample sample = MetricsUtil.startTimer();
+        String outcome = MetricsUtil.OUTCOME_ERROR;
+        try {
+            String fingerprint = HashUtil.sha256(certificateHolders[0].getEncoded());
+            outcome = MetricsUtil.OUTCOME_VALID;
+            return fingerprint;
+        } finally {
+            MetricsUtil.stopCryptoTimer(sample, "fingerprint", "SHA-256", outcome);
+        }
+    }
+
+    public static String toPem(X509CertificateHolder certificateHolder) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (PemWriter pemWriter = new PemWriter(stringWriter)) {
+            pemWriter.writeObject(new PemObject("CERTIFICATE", certificateHolder.getEncoded()));
+        }
+        return stringWriter.toString();
+    }
+
+    // name of the algorithm the certificate is signed with, like SHA256WITHECDSA
+    public static String getSignatureAlgorithm(X509CertificateHolder certificateHolder) {
+        return ALGORITHM_NAME_FINDER.getAlgorithmName(certificateHolder.getSignatureAlgorithm());
+    }
+
+    // returns the first CN of the subject, or null if the subject does not have one
+    public static String getCommonName(X509CertificateHolder certificateHolder) {
+        X500Name x500Name = certificateHolder.getSubject();
+        if (x500Name == null || x500Name.getRDNs(BCStyle.CN).length == 0) {
+            return null;
+        }
+        RDN cn = x500Name.getRDNs(BCStyle.CN)[0];
+        return IETFUtils.valueToString(cn.getFirst().getValue());
+    }
+
+    public static ContentVerifierProvider getVerifierProvider(X509CertificateHolder issuer) throws OperatorCreationException {
+        SubjectPublicKeyInfo publicKeyInfo = issuer.getSubjectPublicKeyInfo();
+        String key;
+        try {
+            key = HashUtil.sha256(publicKeyInfo.getEncoded());
+        } catch (IOException e) {
+            throw new OperatorCreationException("The public key of the issuer could not be encoded", e);
+        }
+        ContentVerifierProvider contentVerifierProvider = VERIFIER_PROVIDERS.get(key);
+        if (contentVerifierProvider == null) {
+            contentVerifierProvider = VERIFIER_PROVIDER_BUILDER.build(publicKeyInfo);
+            VERIFIER_PROVIDERS.put(key, contentVerifierProvider);
+        }
+        return contentVerifierProvider;
+    }
+
     public static void verifyChain(X509CertificateHolder[] certificateHolders) throws CertException, OperatorCreationException {
-        JcaX509ContentVerifierProviderBuilder contentVerifierProviderBuilder = new JcaX509ContentVerifierProviderBuilder();
-        contentVerifierProviderBuilder.setProvider("BC");
         if (certificateHolders.length > 1) {
             for (int i = 0; i < certificateHolders.length - 1; i++) {
                 X509CertificateHolder certificateHolder = certificateHolders[i];
@@ -74,7 +187,7 @@ public class CryptoUtil {
                 if (!certificateHolder.isValidOn(today) || !issuer.isValidOn(today)) {
                     throw new CertException("One or several certificates in chain have expired!");
                 }
-                if (!certificateHolder.isSignatureValid(contentVerifierProviderBuilder.build(issuer))) {
+                if (!isSignedBy(certificateHolder, issuer)) {
                     throw new CertException("The chain could not be verified");
                 }
             }
@@ -87,13 +200,38 @@ public class CryptoUtil {
         }
     }
 
+    // checks the signature of a certificate, a successful check is remembered until one of the certificates expires
+    public static boolean isSignedBy(X509CertificateHolder certificateHolder, X509CertificateHolder issuer)
+            throws CertException, OperatorCreationException {
+        Timer.Sample sample = MetricsUtil.startTimer();
+        String outcome = MetricsUtil.OUTCOME_ERROR;
+        try {
+            String key;
+            try {
+                key = SignatureCache.key(certificateHolder, issuer);
+            } catch (IOException e) {
+                throw new CertException("The certificate could not be encoded", e);
+            }
+            if (SIGNATURE_CACHE.isVerified(key, new Date())) {
+                outcome = MetricsUtil.OUTCOME_CACHED;
+                return true;
+            }
+            boolean valid = certificateHolder.isSignatureValid(getVerifierProvider(issuer));
+            if (valid) {
+                SIGNATURE_CACHE.putVerified(key, certificateHolder, issuer);
+            }
+            outcome = valid ? MetricsUtil.OUTCOME_VALID : MetricsUtil.OUTCOME_INVALID;
+            return valid;
+        } finally {
+            MetricsUtil.stopCryptoTimer(sample, "verify_certificate", getSignatureAlgorithm(certificateHolder), outcome);
+        }
+    }
+
     // checks if the given certificate is self signed
     public static boolean isSelfSigned(X509CertificateHolder certificateHolder) {
         if (certificateHolder.getSubject().equals(certificateHolder.getIssuer())) {
-            JcaX509ContentVerifierProviderBuilder contentVerifierProviderBuilder = new JcaX509ContentVerifierProviderBuilder();
-            contentVerifierProviderBuilder.setProvider("BC");
             try {
-                return certificateHolder.isSignatureValid(contentVerifierProviderBuilder.build(certificateHolder));
+                return isSignedBy(certificateHolder, certificateHolder);
             } catch (CertException | OperatorCreationException e) {
                 return false;
             }
@@ -103,20 +241,34 @@ public class CryptoUtil {
 
     // checks if a signature is valid given the signer and the content that has been signed
     public static boolean isSignatureValid(String signatureString, String algorithmIdentifier, EntityModel signer, String original)
-            throws IOException, NoSuchProviderException, NoSuchAlgorithmException, CertificateException,
-            InvalidKeyException, SignatureException {
-        HexEncoder hexEncoder = new HexEncoder();
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        hexEncoder.decode(signatureString, outputStream);
-        byte[] rawSignature = outputStream.toByteArray();
-        Signature signature = Signature.getInstance(algorithmIdentifier, "BC");
-        PEMParser pemParser = new PEMParser(new StringReader(signer.getCertificate()));
-        X509CertificateHolder certificateHolder = (X509CertificateHolder) pemParser.readObject();
-        pemParser.close();
-        X509Certificate certificate = new JcaX509CertificateConverter().setProvider("BC").getCertificate(certificateHolder);
-        signature.initVerify(certificate);
-        byte[] rawOriginal = original.getBytes(UTF_8);
-        signature.update(rawOriginal);
-        return signature.verify(rawSignature);
+            throws IOException, NoSuchAlgorithmException, CertificateException, InvalidKeyException, SignatureException {
+        if (!SignatureAlgorithms.isSupported(algorithmIdentifier)) {
+            throw new NoSuchAlgorithmException("Unsupported signature algorithm " + algorithmIdentifier);
+        }
+        Timer.Sample sample = MetricsUtil.startTimer();
+        String outcome = MetricsUtil.OUTCOME_ERROR;
+        try {
+            HexEncoder hexEncoder = new HexEncoder();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            hexEncoder.decode(signatureString, outputStream);
+            byte[] rawSignature = outputStream.toByteArray();
+            ParsedCertificate signerCertificate = parseCertificate(signer.getCertificate());
+            if (signerCertificate == null) {
+                throw new CertificateException("The certificate of the signer could not be parsed");
+            }
+            Signature signature = SignatureAlgorithms.borrow(algorithmIdentifier);
+            try {
+                signature.initVerify(signerCertificate.getCertificate());
+                byte[] rawOriginal = original.getBytes(UTF_8);
+                signature.update(rawOriginal);
+                boolean valid = signature.verify(rawSignature);
+                outcome = valid ? MetricsUtil.OUTCOME_VALID : MetricsUtil.OUTCOME_INVALID;
+                return valid;
+            } finally {
+                SignatureAlgorithms.release(signature);
+            }
+        } finally {
+            MetricsUtil.stopCryptoTimer(sample, "verify_signature", SignatureAlgorithms.getName(algorithmIdentifier), outcome);
+        }
     }
 }
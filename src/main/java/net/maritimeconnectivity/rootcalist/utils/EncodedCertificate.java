@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.security.cert.CertificateException;
+
+// the DER encoding and SHA-256 fingerprint of a PEM encoded certificate
+@Slf4j
+@Getter
+public class EncodedCertificate {
+
+    private final String pem;
+    private final byte[] der;
+    private final byte[] fingerprint;
+
+    private EncodedCertificate(String pem, byte[] der, byte[] fingerprint) {
+        this.pem = pem;
+        this.der = der;
+        this.fingerprint = fingerprint;
+    }
+
+    // returns null if the PEM string can not be parsed
+    public static EncodedCertificate of(String pem) {
+        try {
+            ParsedCertificate parsedCertificate = CryptoUtil.parseCertificate(pem);
+            if (parsedCertificate != null) {
+                byte[] der = parsedCertificate.getCertificateHolder().getEncoded();
+                return new EncodedCertificate(pem, der, HashUtil.sha256Raw(der));
+            }
+        } catch (IOException | CertificateException e) {
+            log.warn("Could not parse certificate", e);
+        }
+        return null;
+    }
+
+    // reuses a previous encoding if it was made from the same PEM string
+    public static EncodedCertificate of(String pem, EncodedCertificate previous) {
+        if (previous != null && previous.pem.equals(pem)) {
+            return previous;
+        }
+        return of(pem);
+    }
+}
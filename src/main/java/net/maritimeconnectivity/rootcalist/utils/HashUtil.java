@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.bouncycastle.util.encoders.Hex;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class HashUtil {
+
+    private HashUtil() {
+
+    }
+
+    // returns the lower case HEX encoded SHA-256 hash of the given data
+    public static String sha256(byte[] data) {
+        return Hex.toHexString(sha256Raw(data));
+    }
+
+    public static byte[] sha256Raw(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // accepts upper case and colons between the bytes, returns null if the string is not a HEX encoded SHA-256 hash
+    public static String normalizeSha256(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        String normalized = hash.replace(":", "").toLowerCase();
+        if (normalized.length() != 64) {
+            return null;
+        }
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.digit(normalized.charAt(i), 16) < 0) {
+                return null;
+            }
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import net.maritimeconnectivity.rootcalist.model.BatchItemResult;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records metrics from code that is not managed by Spring, like {@link CryptoUtil}. The meters are registered with the
+ * global registry, which Spring Boot adds its own registry to, so they are published on the same endpoint.
+ */
+public class MetricsUtil {
+
+    public static final String CRYPTO_TIMER = "rootcalist.crypto";
+    public static final String DUPLICATES_COUNTER = "rootcalist.submissions.duplicate";
+    public static final String BATCH_ITEMS_COUNTER = "rootcalist.batch.items";
+
+    public static final String OUTCOME_VALID = "valid";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_CACHED = "cached";
+    public static final String OUTCOME_ERROR = "error";
+
+    private MetricsUtil() {
+
+    }
+
+    public static Timer.Sample startTimer() {
+        return Timer.start(Metrics.globalRegistry);
+    }
+
+    public static void stopCryptoTimer(Timer.Sample sample, String operation, String algorithm, String outcome) {
+        sample.stop(Timer.builder(CRYPTO_TIMER)
+                .description("Time spent on cryptographic operations")
+                .tag("operation", operation)
+                .tag("algorithm", algorithm != null ? algorithm : "unknown")
+                .tag("outcome", outcome)
+                .register(Metrics.globalRegistry));
+    }
+
+    // detectedBy is either "fingerprint" if the certificate registry found the duplicate, or "constraint" if the
+    // database did
+    public static void countDuplicate(EntityType type, String detectedBy) {
+        Metrics.counter(DUPLICATES_COUNTER, "type", tagValue(type), "detected_by", detectedBy).increment();
+    }
+
+    public static void countBatchItems(EntityType type, List<? extends BatchItemResult<?>> results) {
+        int[] counts = new int[BatchItemResult.Status.values().length];
+        for (BatchItemResult<?> result : results) {
+            counts[result.getStatus().ordinal()]++;
+        }
+        for (BatchItemResult.Status status : BatchItemResult.Status.values()) {
+            if (counts[status.ordinal()] > 0) {
+                Metrics.counter(BATCH_ITEMS_COUNTER, "type", tagValue(type), "status", tagValue(status))
+                        .increment(counts[status.ordinal()]);
+            }
+        }
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
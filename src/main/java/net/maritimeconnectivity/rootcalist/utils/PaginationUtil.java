@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class PaginationUtil {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private PaginationUtil() {
+
+    }
+
+    // the unpaged form of the list endpoints is kept for clients that send neither of the parameters
+    public static boolean isPaged(Long after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    public static long after(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // creates a Link header pointing to the next page if there is one
+    public static <T> HttpHeaders linkHeaders(Slice<T> slice, Function<T, Long> idGetter) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        List<T> content = slice.getContent();
+        if (slice.hasNext() && !content.isEmpty()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", idGetter.apply(content.get(content.size() - 1)))
+                    .replaceQueryParam("limit", slice.getSize())
+                    .toUriString();
+            httpHeaders.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return httpHeaders;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import lombok.Getter;
+import org.bouncycastle.cert.X509CertificateHolder;
+
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+
+@Getter
+public class ParsedCertificate {
+
+    private final X509CertificateHolder certificateHolder;
+    private final X509Certificate certificate;
+    private final PublicKey publicKey;
+
+    public ParsedCertificate(X509CertificateHolder certificateHolder, X509Certificate certificate) {
+        this.certificateHolder = certificateHolder;
+        this.certificate = certificate;
+        this.publicKey = certificate.getPublicKey();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.security.Signature;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// registry of the signature algorithms offered by BouncyCastle together with a pool of reusable Signature objects
+public class SignatureAlgorithms {
+
+    private static final String ALIAS_PREFIX = "Alg.Alias.Signature.";
+    private static final int POOL_SIZE = 64;
+
+    private static final Provider PROVIDER = resolveProvider();
+    // maps upper case algorithm names and aliases to the name the algorithm is registered under
+    private static final Map<String, String> ALGORITHMS = resolveAlgorithms(PROVIDER);
+    private static final Map<String, BlockingQueue<Signature>> POOLS = new ConcurrentHashMap<>();
+
+    private SignatureAlgorithms() {
+
+    }
+
+    public static Provider getProvider() {
+        return PROVIDER;
+    }
+
+    public static Collection<String> getSupported() {
+        return Collections.unmodifiableCollection(new HashSet<>(ALGORITHMS.values()));
+    }
+
+    public static boolean isSupported(String algorithmIdentifier) {
+        return algorithmIdentifier != null && ALGORITHMS.containsKey(algorithmIdentifier.toUpperCase(Locale.ROOT));
+    }
+
+    // the name the algorithm is registered under, or null if it is not supported
+    public static String getName(String algorithmIdentifier) {
+        return algorithmIdentifier != null ? ALGORITHMS.get(algorithmIdentifier.toUpperCase(Locale.ROOT)) : null;
+    }
+
+    // hands out a Signature object from the pool, it should be given back using release() once it has been used
+    public static Signature borrow(String algorithmIdentifier) throws NoSuchAlgorithmException {
+        String algorithm = getName(algorithmIdentifier);
+        if (algorithm == null) {
+            throw new NoSuchAlgorithmException("Unsupported signature algorithm " + algorithmIdentifier);
+        }
+        Signature signature = POOLS.computeIfAbsent(algorithm, k -> new ArrayBlockingQueue<>(POOL_SIZE)).poll();
+        if (signature == null) {
+            signature = Signature.getInstance(algorithm, PROVIDER);
+        }
+        return signature;
+    }
+
+    public static void release(Signature signature) {
+        BlockingQueue<Signature> pool = POOLS.get(signature.getAlgorithm());
+        if (pool != null) {
+            pool.offer(signature);
+        }
+    }
+
+    private static Provider resolveProvider() {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            provider = new BouncyCastleProvider();
+            Security.addProvider(provider);
+        }
+        return provider;
+    }
+
+    private static Map<String, String> resolveAlgorithms(Provider provider) {
+        Map<String, String> algorithms = new HashMap<>();
+        for (Provider.Service service : provider.getServices()) {
+            if ("Signature".equals(service.getType())) {
+                algorithms.put(service.getAlgorithm().toUpperCase(Locale.ROOT), service.getAlgorithm());
+            }
+        }
+        for (String key : provider.stringPropertyNames()) {
+            if (key.startsWith(ALIAS_PREFIX)) {
+                String algorithm = algorithms.get(provider.getProperty(key).toUpperCase(Locale.ROOT));
+                if (algorithm != null) {
+                    algorithms.put(key.substring(ALIAS_PREFIX.length()).toUpperCase(Locale.ROOT), algorithm);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(algorithms);
+    }
+}
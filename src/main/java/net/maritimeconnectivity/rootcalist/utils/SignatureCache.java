@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.bouncycastle.cert.X509CertificateHolder;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Bounded LRU cache of certificate signatures that have been verified, keyed by the SHA-256 hashes of the DER encoded
+ * certificate and issuer. An entry expires when either of the two certificates does. Only successful verifications
+ * are cached, so a signature that failed once is always checked again.
+ */
+public class SignatureCache extends LruCache<String, Date> {
+
+    public SignatureCache(int maxSize) {
+        super(maxSize);
+    }
+
+    public static String key(X509CertificateHolder certificateHolder, X509CertificateHolder issuer) throws IOException {
+        return HashUtil.sha256(certificateHolder.getEncoded()) + HashUtil.sha256(issuer.getEncoded());
+    }
+
+    public boolean isVerified(String key, Date now) {
+        Date expiry = get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (!now.before(expiry)) {
+            remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    public void putVerified(String key, X509CertificateHolder certificateHolder, X509CertificateHolder issuer) {
+        Date notAfter = certificateHolder.getNotAfter();
+        Date issuerNotAfter = issuer.getNotAfter();
+        put(key, notAfter.before(issuerNotAfter) ? notAfter : issuerNotAfter);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// counts the SQL statements Hibernate prepares on the current thread between start and stop, a count can be handed
+// over to another thread with current and resume when the request continues there
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicLong> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new AtomicLong());
+    }
+
+    public static long stop() {
+        AtomicLong count = suspend();
+        return count != null ? count.get() : 0;
+    }
+
+    // null if nothing is counted on the current thread
+    public static AtomicLong current() {
+        return COUNT.get();
+    }
+
+    public static void resume(AtomicLong count) {
+        if (count != null) {
+            COUNT.set(count);
+        }
+    }
+
+    // stops counting on the current thread without ending the count
+    public static AtomicLong suspend() {
+        AtomicLong count = COUNT.get();
+        COUNT.remove();
+        return count;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicLong count = COUNT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        return sql;
+    }
+}
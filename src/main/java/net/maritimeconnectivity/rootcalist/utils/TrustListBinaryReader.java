@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the binary trust list export written by {@link TrustListBinaryWriter}. Only the header is read up front, entries
+ * are decoded when they are requested and fingerprints are looked up by binary search over the index, so a lookup
+ * does not deserialize the rest of the file. The class only depends on the JDK so it can be copied into clients.
+ *
+ * <pre>
+ * header   magic "MCPR", u16 format version, u16 reserved, i64 generated at (epoch millis), u32 entry count
+ * index    entry count times: 32 byte SHA-256 fingerprint of the DER certificate, u32 entry offset
+ *          sorted by fingerprint, compared as unsigned bytes
+ * entry    u32 length of the rest of the entry, i64 root CA ID, u16 name length, UTF-8 name,
+ *          u32 certificate length, DER certificate, u16 attestation count, and per attestation:
+ *          i64 attestation ID, i64 attestor ID, u8 flags (bit 0 set if the attestation is revoked)
+ * </pre>
+ * All numbers are big endian.
+ */
+public class TrustListBinaryReader {
+
+    public static final int MAGIC = 0x4d435052;
+    public static final int FORMAT_VERSION = 1;
+    public static final int FINGERPRINT_LENGTH = 32;
+    public static final int HEADER_LENGTH = 20;
+    public static final int INDEX_ENTRY_LENGTH = FINGERPRINT_LENGTH + 4;
+    public static final int FLAG_REVOKED = 1;
+
+    private final ByteBuffer buffer;
+    private final long generatedAt;
+    private final int size;
+
+    public TrustListBinaryReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.duplicate();
+        if (this.buffer.remaining() < HEADER_LENGTH || this.buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary trust list");
+        }
+        int version = this.buffer.getShort(4) & 0xffff;
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported binary trust list version " + version);
+        }
+        this.generatedAt = this.buffer.getLong(8);
+        this.size = this.buffer.getInt(16);
+        if (this.size < 0 || this.buffer.limit() < HEADER_LENGTH + (long) this.size * INDEX_ENTRY_LENGTH) {
+            throw new IOException("The binary trust list is truncated");
+        }
+    }
+
+    public long getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] getFingerprint(int index) {
+        byte[] fingerprint = new byte[FINGERPRINT_LENGTH];
+        ByteBuffer slice = this.buffer.duplicate();
+        slice.position(HEADER_LENGTH + index * INDEX_ENTRY_LENGTH);
+        slice.get(fingerprint);
+        return fingerprint;
+    }
+
+    // returns the entry with the given SHA-256 fingerprint or null if the trust list does not contain it
+    public Entry find(byte[] fingerprint) {
+        int low = 0;
+        int high = this.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareFingerprint(middle, fingerprint);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return getEntry(middle);
+            }
+        }
+        return null;
+    }
+
+    public Entry getEntry(int index) {
+        int offset = this.buffer.getInt(HEADER_LENGTH + index * INDEX_ENTRY_LENGTH + FINGERPRINT_LENGTH);
+        ByteBuffer entry = this.buffer.duplicate();
+        entry.position(offset + 4);
+        long id = entry.getLong();
+        byte[] name = new byte[entry.getShort() & 0xffff];
+        entry.get(name);
+        byte[] certificate = new byte[entry.getInt()];
+        entry.get(certificate);
+        int attestationCount = entry.getShort() & 0xffff;
+        List<Attestation> attestations = new ArrayList<>(attestationCount);
+        for (int i = 0; i < attestationCount; i++) {
+            attestations.add(new Attestation(entry.getLong(), entry.getLong(), (entry.get() & FLAG_REVOKED) != 0));
+        }
+        return new Entry(id, getFingerprint(index), new String(name, StandardCharsets.UTF_8), certificate, attestations);
+    }
+
+    private int compareFingerprint(int index, byte[] fingerprint) {
+        int position = HEADER_LENGTH + index * INDEX_ENTRY_LENGTH;
+        for (int i = 0; i < FINGERPRINT_LENGTH; i++) {
+            int comparison = Integer.compare(this.buffer.get(position + i) & 0xff, fingerprint[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    public static class Entry {
+
+        private final long id;
+        private final byte[] fingerprint;
+        private final String name;
+        private final byte[] certificate;
+        private final List<Attestation> attestations;
+
+        public Entry(long id, byte[] fingerprint, String name, byte[] certificate, List<Attestation> attestations) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+            this.name = name;
+            this.certificate = certificate;
+            this.attestations = Collections.unmodifiableList(attestations);
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public byte[] getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // the DER encoded certificate
+        public byte[] getCertificate() {
+            return certificate;
+        }
+
+        public List<Attestation> getAttestations() {
+            return attestations;
+        }
+
+        public boolean isAttestedBy(long attestorId) {
+            for (Attestation attestation : attestations) {
+                if (attestation.getAttestorId() == attestorId && !attestation.isRevoked()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static class Attestation {
+
+        private final long id;
+        private final long attestorId;
+        private final boolean revoked;
+
+        public Attestation(long id, long attestorId, boolean revoked) {
+            this.id = id;
+            this.attestorId = attestorId;
+            this.revoked = revoked;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getAttestorId() {
+            return attestorId;
+        }
+
+        public boolean isRevoked() {
+            return revoked;
+        }
+    }
+}
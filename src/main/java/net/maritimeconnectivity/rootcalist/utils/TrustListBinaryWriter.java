@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static net.maritimeconnectivity.rootcalist.utils.TrustListBinaryReader.FINGERPRINT_LENGTH;
+import static net.maritimeconnectivity.rootcalist.utils.TrustListBinaryReader.FLAG_REVOKED;
+import static net.maritimeconnectivity.rootcalist.utils.TrustListBinaryReader.FORMAT_VERSION;
+import static net.maritimeconnectivity.rootcalist.utils.TrustListBinaryReader.HEADER_LENGTH;
+import static net.maritimeconnectivity.rootcalist.utils.TrustListBinaryReader.INDEX_ENTRY_LENGTH;
+import static net.maritimeconnectivity.rootcalist.utils.TrustListBinaryReader.MAGIC;
+
+/**
+ * Writes the binary trust list export. See {@link TrustListBinaryReader} for a description of the format.
+ */
+public class TrustListBinaryWriter {
+
+    private static final Comparator<byte[]> UNSIGNED_ORDER = (a, b) -> {
+        for (int i = 0; i < FINGERPRINT_LENGTH; i++) {
+            int comparison = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    };
+
+    private TrustListBinaryWriter() {
+    }
+
+    public static byte[] write(List<TrustListBinaryReader.Entry> entries, long generatedAt) {
+        List<TrustListBinaryReader.Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> UNSIGNED_ORDER.compare(a.getFingerprint(), b.getFingerprint()));
+
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOut = new DataOutputStream(body);
+            int dataStart = HEADER_LENGTH + sorted.size() * INDEX_ENTRY_LENGTH;
+            int[] offsets = new int[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                offsets[i] = dataStart + body.size();
+                writeEntry(bodyOut, sorted.get(i));
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(dataStart + body.size());
+            DataOutputStream dataOut = new DataOutputStream(out);
+            dataOut.writeInt(MAGIC);
+            dataOut.writeShort(FORMAT_VERSION);
+            dataOut.writeShort(0);
+            dataOut.writeLong(generatedAt);
+            dataOut.writeInt(sorted.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                byte[] fingerprint = sorted.get(i).getFingerprint();
+                if (fingerprint.length != FINGERPRINT_LENGTH) {
+                    throw new IllegalArgumentException("Fingerprints must be " + FINGERPRINT_LENGTH + " bytes long");
+                }
+                dataOut.write(fingerprint);
+                dataOut.writeInt(offsets[i]);
+            }
+            body.writeTo(dataOut);
+            dataOut.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, TrustListBinaryReader.Entry entry) throws IOException {
+        byte[] name = entry.getName() != null ? entry.getName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (name.length > 0xffff || entry.getAttestations().size() > 0xffff) {
+            throw new IllegalArgumentException("Root CA " + entry.getId() + " cannot be represented in the binary format");
+        }
+        byte[] certificate = entry.getCertificate();
+        out.writeInt(8 + 2 + name.length + 4 + certificate.length + 2 + entry.getAttestations().size() * 17);
+        out.writeLong(entry.getId());
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeInt(certificate.length);
+        out.write(certificate);
+        out.writeShort(entry.getAttestations().size());
+        for (TrustListBinaryReader.Attestation attestation : entry.getAttestations()) {
+            out.writeLong(attestation.getId());
+            out.writeLong(attestation.getAttestorId());
+            out.writeByte(attestation.isRevoked() ? FLAG_REVOKED : 0);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+-- supports looking up the attestations of a root CA and the semi-join used when filtering root CAs by attestors.
+-- InnoDB drops the index it implicitly created for the foreign key once this one exists.
+CREATE INDEX `attestation_root_ca` ON `attestation` (`id_root_ca`);
+
+-- supports excluding revoked attestations, the existing unique key on revocation starts with id_root_ca and can not
+-- be used for lookups by attestation alone
+CREATE INDEX `revocation_attestation` ON `revocation` (`id_attestation`);
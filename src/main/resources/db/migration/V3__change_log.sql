@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+CREATE TABLE `change_log` (
+    `sequence` BIGINT NOT NULL,
+    `entity_type` VARCHAR(32) NOT NULL,
+    `entity_id` BIGINT NOT NULL,
+    `operation` VARCHAR(16) NOT NULL,
+    `created_at` DATETIME NOT NULL,
+    PRIMARY KEY (`sequence`)
+);
+
+-- single row counter that hands out the sequence numbers of the change log, its row lock orders the writers
+CREATE TABLE `change_log_sequence` (
+    `id` INT NOT NULL,
+    `last_sequence` BIGINT NOT NULL,
+    PRIMARY KEY (`id`)
+);
+
+-- entities that existed before the change log are recorded as saved so clients can sync from sequence 0
+INSERT INTO `change_log` (`sequence`, `entity_type`, `entity_id`, `operation`, `created_at`)
+SELECT ROW_NUMBER() OVER (ORDER BY `type_order`, `id`), `entity_type`, `id`, 'SAVE', NOW()
+FROM (
+    SELECT 1 AS `type_order`, 'ROOT_CA' AS `entity_type`, `id` FROM `root_ca`
+    UNION ALL SELECT 2, 'ATTESTOR', `id` FROM `attestor`
+    UNION ALL SELECT 3, 'ATTESTATION', `id` FROM `attestation`
+    UNION ALL SELECT 4, 'REVOCATION', `id` FROM `revocation`
+) existing;
+
+INSERT INTO `change_log_sequence` (`id`, `last_sequence`) SELECT 1, COUNT(*) FROM `change_log`;
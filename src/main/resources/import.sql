@@ -0,0 +1,2 @@
+-- run by Hibernate when it creates the schema instead of the migrations, see V3__change_log.sql
+INSERT INTO change_log_sequence (id, last_sequence) VALUES (1, 0);
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.services.DataVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DataVersionInterceptorTests {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(this.dataVersionService.getVersion()).thenReturn(5L);
+        when(this.dataVersionService.getETag()).thenReturn("\"5\"");
+        when(this.dataVersionService.getLastModified()).thenReturn(System.currentTimeMillis() - 60000);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(new ItemController())
+                .addFilters(new DataVersionHeaderFilter())
+                .addMappedInterceptors(new String[]{"/api/item/*"}, new DataVersionInterceptor(this.dataVersionService))
+                .addMappedInterceptors(new String[]{"/api/items"}, new DataVersionInterceptor(this.dataVersionService, true))
+                .build();
+    }
+
+    @Test
+    void representationsGetDifferentETags() throws Exception {
+        this.mockMvc.perform(get("/api/items").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        this.mockMvc.perform(get("/api/items").accept(NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{}\n"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-x-ndjson\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        // the ETag of one representation does not validate the other
+        this.mockMvc.perform(get("/api/items").accept(NDJSON).header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/api/items").accept(NDJSON).header(HttpHeaders.IF_NONE_MATCH, "\"5-x-ndjson\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-x-ndjson\""));
+    }
+
+    @Test
+    void errorResponsesHaveNoValidators() throws Exception {
+        this.mockMvc.perform(get("/api/item/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        this.mockMvc.perform(get("/api/item/2"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+        this.mockMvc.perform(get("/api/item/3"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void lastModifiedIsLeftOutBeforeTheFirstChange() throws Exception {
+        when(this.dataVersionService.getVersion()).thenReturn(0L);
+        when(this.dataVersionService.getETag()).thenReturn("\"0\"");
+        when(this.dataVersionService.getLastModified()).thenReturn(0L);
+
+        this.mockMvc.perform(get("/api/item/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @RestController
+    static class ItemController {
+
+        @GetMapping(value = "/api/items", produces = MediaType.APPLICATION_JSON_VALUE)
+        public String getItems() {
+            return "[{}]";
+        }
+
+        // written directly to the response like the streamed lists
+        @GetMapping(value = "/api/items", produces = NDJSON)
+        public void getItemsAsNdjson(HttpServletResponse response) throws IOException {
+            response.setContentType(NDJSON);
+            response.getOutputStream().write("{}\n".getBytes());
+        }
+
+        @GetMapping(value = "/api/item/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<String> getItem(@PathVariable Long id, HttpServletResponse response) throws IOException {
+            if (id == 3) {
+                response.sendError(HttpStatus.BAD_REQUEST.value());
+                return null;
+            }
+            if (id != 1) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<>("{}", HttpStatus.OK);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import net.maritimeconnectivity.rootcalist.services.DataVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class ReadRoutingTests {
+
+    private ReadRoutingDataSource readRoutingDataSource;
+    private MockMvc mockMvc;
+
+    // a change log with the given number of entries, the primary has all of them and the replica lags behind
+    private static DataSource database(String name, int changes) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS change_log");
+        jdbcTemplate.execute("CREATE TABLE change_log (sequence BIGINT PRIMARY KEY, created_at TIMESTAMP NOT NULL)");
+        for (long sequence = 1; sequence <= changes; sequence++) {
+            jdbcTemplate.update("INSERT INTO change_log VALUES (?, ?)", sequence, new Timestamp(System.currentTimeMillis()));
+        }
+        return dataSource;
+    }
+
+    private static long version(String eTag) {
+        return Long.parseLong(eTag.replace("\"", ""));
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.readRoutingDataSource = new ReadRoutingDataSource(database("primary", 5),
+                Collections.singletonMap("replica-1", database("replica", 3)), Duration.ofMinutes(1), Duration.ofMillis(50));
+        this.readRoutingDataSource.afterPropertiesSet();
+        this.readRoutingDataSource.start();
+        for (int i = 0; i < 100 && !this.readRoutingDataSource.getReplicas().get(0).isAvailable(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(this.readRoutingDataSource.getReplicas().get(0).isAvailable());
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(this.readRoutingDataSource);
+        DataVersionService dataVersionService = mock(DataVersionService.class);
+        when(dataVersionService.getVersion()).thenReturn(5L);
+        when(dataVersionService.getETag()).thenReturn("\"5\"");
+        when(dataVersionService.getLastModified()).thenReturn(System.currentTimeMillis() - 60000);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(new LatestSequenceController(dataSource))
+                .addFilters(new ReadRoutingFilter(this.readRoutingDataSource, Duration.ofSeconds(10)), new DataVersionHeaderFilter())
+                .addInterceptors(new DataVersionInterceptor(dataVersionService))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.readRoutingDataSource.close();
+    }
+
+    @Test
+    void laggingReplicaNeverGetsANewerETagThanItsData() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/attestors")).andReturn();
+        long served = Long.parseLong(result.getResponse().getContentAsString());
+        assertEquals(3, served);
+        assertTrue(version(result.getResponse().getHeader(HttpHeaders.ETAG)) <= served);
+        assertNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+
+        // revalidating with that ETag reads the current data from the primary
+        result = this.mockMvc.perform(get("/api/attestors").header(HttpHeaders.IF_NONE_MATCH, "\"3\"")).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals("5", result.getResponse().getContentAsString());
+        assertEquals("\"5\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void changeLogIsReadFromThePrimary() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/changes")).andReturn();
+        assertEquals("5", result.getResponse().getContentAsString());
+        assertEquals("\"5\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void writeKeepsTheReadsOfTheClientOnThePrimary() throws Exception {
+        assertEquals("3", this.mockMvc.perform(get("/api/attestors")).andReturn().getResponse().getContentAsString());
+
+        MvcResult result = this.mockMvc.perform(post("/api/attestor")).andReturn();
+        // even the reads of a write request use the primary
+        assertEquals("5", result.getResponse().getContentAsString());
+        Cookie cookie = result.getResponse().getCookie(ReadRoutingFilter.COOKIE_NAME);
+        assertNotNull(cookie);
+        assertEquals("/api", cookie.getPath());
+        assertEquals(10, cookie.getMaxAge());
+        assertTrue(cookie.isHttpOnly());
+
+        assertEquals("5", this.mockMvc.perform(get("/api/attestors").cookie(cookie)).andReturn().getResponse().getContentAsString());
+        assertEquals("3", this.mockMvc.perform(get("/api/attestors")).andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void expiredOrInvalidCookieDoesNotKeepReadsOnThePrimary() throws Exception {
+        Cookie expired = new Cookie(ReadRoutingFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() - 1000));
+        Cookie invalid = new Cookie(ReadRoutingFilter.COOKIE_NAME, "invalid");
+
+        assertEquals("3", this.mockMvc.perform(get("/api/attestors").cookie(expired)).andReturn().getResponse().getContentAsString());
+        assertEquals("3", this.mockMvc.perform(get("/api/attestors").cookie(invalid)).andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void unavailableReplicaIsNotUsed() throws Exception {
+        ReadRoutingDataSource.Replica replica = this.readRoutingDataSource.getReplicas().get(0);
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            connection.createStatement().execute("DROP TABLE change_log");
+        }
+        for (int i = 0; i < 100 && replica.isAvailable(); i++) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(-1, replica.getLag());
+        assertEquals("5", this.mockMvc.perform(get("/api/attestors")).andReturn().getResponse().getContentAsString());
+    }
+
+    // returns the latest change log sequence of the database that a read-only transaction is routed to
+    @RestController
+    static class LatestSequenceController {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate readTransaction;
+
+        LatestSequenceController(DataSource dataSource) {
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.readTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            this.readTransaction.setReadOnly(true);
+        }
+
+        @GetMapping({"/api/attestors", "/api/changes"})
+        public Long getLatestSequence() {
+            return this.readTransaction.execute(status -> this.jdbcTemplate.queryForObject("SELECT MAX(sequence) FROM change_log", Long.class));
+        }
+
+        @PostMapping("/api/attestor")
+        public Long write() {
+            return getLatestSequence();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.maritimeconnectivity.rootcalist.exception.BasicRestException;
+import net.maritimeconnectivity.rootcalist.exception.BasicRestExceptionResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SubmissionExecutorTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private MeterRegistry meterRegistry;
+    private CryptoExecutor cryptoExecutor;
+    private SubmissionExecutor submissionExecutor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.createEntityManager()).thenAnswer(invocation -> mock(EntityManager.class));
+        // one thread and one queued task for both pools
+        this.cryptoExecutor = new CryptoExecutor(1, 1, this.meterRegistry);
+        this.submissionExecutor = new SubmissionExecutor(this.cryptoExecutor, entityManagerFactory, 1, 1, 7, this.meterRegistry);
+        BasicRestExceptionResolver resolver = new BasicRestExceptionResolver();
+        resolver.setMeterRegistry(this.meterRegistry);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(new SubmissionController(this.submissionExecutor))
+                .setControllerAdvice(resolver)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.release.countDown();
+        this.cryptoExecutor.shutdown();
+        this.submissionExecutor.shutdown();
+    }
+
+    private void await() {
+        try {
+            assertTrue(this.release.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void fullCryptoQueueIsRejectedWithRetryAfter() throws Exception {
+        this.cryptoExecutor.trySupplyAsync(() -> {
+            await();
+            return null;
+        });
+        this.cryptoExecutor.trySupplyAsync(() -> null);
+
+        this.mockMvc.perform(post("/api/submission").content("valid"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+
+    @Test
+    void fullStoreQueueIsRejectedWithRetryAfter() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        CountDownLatch storing = new CountDownLatch(1);
+        this.submissionExecutor.submit(request, () -> "first", entity -> {
+            storing.countDown();
+            await();
+            return entity;
+        });
+        assertTrue(storing.await(10, TimeUnit.SECONDS));
+        this.submissionExecutor.submit(request, () -> "second", entity -> entity);
+        for (int i = 0; i < 100 && this.meterRegistry.get("executor.queued").tag("name", "submission").gauge().value() < 1; i++) {
+            Thread.sleep(50);
+        }
+
+        // the verification still runs, the store is rejected once it is done
+        MvcResult result = this.mockMvc.perform(post("/api/submission").content("valid"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+
+    @Test
+    void failedVerificationIsNotStored() throws Exception {
+        MvcResult result = this.mockMvc.perform(post("/api/submission").content("invalid"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+
+        result = this.mockMvc.perform(post("/api/submission").content("valid"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("stored valid"));
+    }
+
+    @RestController
+    static class SubmissionController {
+
+        private final SubmissionExecutor submissionExecutor;
+
+        SubmissionController(SubmissionExecutor submissionExecutor) {
+            this.submissionExecutor = submissionExecutor;
+        }
+
+        @PostMapping("/api/submission")
+        public CompletableFuture<ResponseEntity<String>> submit(HttpServletRequest request, @RequestBody String input) throws BasicRestException {
+            String path = request.getServletPath();
+            return this.submissionExecutor.submit(request, () -> {
+                if (!"valid".equals(input)) {
+                    throw new BasicRestException(HttpStatus.BAD_REQUEST, "The submission could not be verified", path);
+                }
+                return input;
+            }, entity -> ResponseEntity.ok("stored " + entity));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.controllers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.maritimeconnectivity.rootcalist.config.CryptoExecutor;
+import net.maritimeconnectivity.rootcalist.config.SubmissionExecutor;
+import net.maritimeconnectivity.rootcalist.exception.BasicRestExceptionResolver;
+import net.maritimeconnectivity.rootcalist.exception.DuplicateCertificateException;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.services.AttestorService;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AttestorControllerTests {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private final List<Attestor> saved = new ArrayList<>();
+    private CryptoExecutor cryptoExecutor;
+    private SubmissionExecutor submissionExecutor;
+    private MockMvc mockMvc;
+
+    private static KeyPair keyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(256);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private static X509CertificateHolder certificate(String subject, KeyPair subjectKeys, String issuer, KeyPair issuerKeys) throws Exception {
+        return new JcaX509v3CertificateBuilder(new X500Name(issuer), BigInteger.ONE, new Date(System.currentTimeMillis() - DAY),
+                new Date(System.currentTimeMillis() + DAY), new X500Name(subject), subjectKeys.getPublic())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(issuerKeys.getPrivate()));
+    }
+
+    private ResultActions createFromChain(String chain) throws Exception {
+        MvcResult result = this.mockMvc.perform(post("/api/attestor/chain").contentType("application/pem-certificate-chain").content(chain))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return this.mockMvc.perform(asyncDispatch(result));
+    }
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.createEntityManager()).thenAnswer(invocation -> mock(EntityManager.class));
+        this.cryptoExecutor = new CryptoExecutor(1, 10, meterRegistry);
+        this.submissionExecutor = new SubmissionExecutor(this.cryptoExecutor, entityManagerFactory, 1, 10, 1, meterRegistry);
+        // rejects certificates by their fingerprint the same way as the attestor service does
+        Set<String> fingerprints = new HashSet<>();
+        AttestorService attestorService = mock(AttestorService.class);
+        when(attestorService.save(any(Attestor.class))).thenAnswer(invocation -> {
+            Attestor attestor = invocation.getArgument(0);
+            String fingerprint = CryptoUtil.fingerprint(attestor.getCertificate());
+            if (!fingerprints.add(fingerprint)) {
+                throw new DuplicateCertificateException(fingerprint);
+            }
+            attestor.setFingerprint(fingerprint);
+            this.saved.add(attestor);
+            return attestor;
+        });
+
+        AttestorController attestorController = new AttestorController();
+        attestorController.setAttestorService(attestorService);
+        attestorController.setSubmissionExecutor(this.submissionExecutor);
+        BasicRestExceptionResolver resolver = new BasicRestExceptionResolver();
+        resolver.setMeterRegistry(meterRegistry);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(attestorController)
+                .setControllerAdvice(resolver)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.cryptoExecutor.shutdown();
+        this.submissionExecutor.shutdown();
+    }
+
+    @Test
+    void chainAttestorsOfTheSameIssuerAreAccepted() throws Exception {
+        KeyPair issuerKeys = keyPair();
+        String issuer = CryptoUtil.toPem(certificate("CN=Issuer", issuerKeys, "CN=Issuer", issuerKeys));
+        KeyPair firstKeys = keyPair();
+        String first = CryptoUtil.toPem(certificate("CN=First", firstKeys, "CN=Issuer", issuerKeys));
+        KeyPair secondKeys = keyPair();
+        String second = CryptoUtil.toPem(certificate("CN=Second", secondKeys, "CN=Issuer", issuerKeys));
+
+        createFromChain(first + issuer)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("First"))
+                .andExpect(jsonPath("$.certificate").value(first))
+                .andExpect(jsonPath("$.issuer").value(issuer));
+        createFromChain(second + issuer)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Second"))
+                .andExpect(jsonPath("$.certificate").value(second));
+
+        assertEquals(2, this.saved.size());
+        assertEquals(CryptoUtil.fingerprint(first), this.saved.get(0).getFingerprint());
+        assertNotEquals(CryptoUtil.fingerprint(issuer), this.saved.get(1).getFingerprint());
+        // the same attestor again is still a duplicate
+        createFromChain(first + issuer)
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.controllers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.maritimeconnectivity.rootcalist.exception.BasicRestExceptionResolver;
+import net.maritimeconnectivity.rootcalist.model.BatchItemResult;
+import net.maritimeconnectivity.rootcalist.services.BatchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BatchEndpointTests {
+
+    private final BatchService batchService = mock(BatchService.class);
+    private MockMvc mockMvc;
+
+    private static String batch(int size) {
+        return "[" + String.join(",", Collections.nCopies(size, "{\"attestorId\": 1, \"rootCAid\": 2}")) + "]";
+    }
+
+    @BeforeEach
+    void setUp() {
+        AttestationController attestationController = new AttestationController();
+        attestationController.setBatchService(this.batchService);
+        RevocationController revocationController = new RevocationController();
+        revocationController.setBatchService(this.batchService);
+        BasicRestExceptionResolver resolver = new BasicRestExceptionResolver();
+        resolver.setMeterRegistry(new SimpleMeterRegistry());
+        this.mockMvc = MockMvcBuilders.standaloneSetup(attestationController, revocationController)
+                .setControllerAdvice(resolver)
+                .build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/attestations/batch", "/api/revocations/batch"})
+    void batchResultsAreReturnedInOrder(String path) throws Exception {
+        when(this.batchService.saveAttestations(anyList())).thenReturn(Collections.singletonList(
+                BatchItemResult.rejected(0, "The request did not contain all required attributes")));
+        when(this.batchService.saveRevocations(anyList())).thenReturn(Collections.singletonList(
+                BatchItemResult.rejected(0, "The request did not contain all required attributes")));
+
+        this.mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(batch(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].status").value("REJECTED"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/attestations/batch", "/api/revocations/batch"})
+    void emptyOrOversizedBatchIsRejected(String path) throws Exception {
+        this.mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(batch(0)))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(batch(BatchService.MAX_BATCH_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(this.batchService);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.controllers;
+
+import net.maritimeconnectivity.rootcalist.services.EventStreamService;
+import net.maritimeconnectivity.rootcalist.services.EventSubscriber;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventStreamServletTests {
+
+    private final EventStreamService eventStreamService = mock(EventStreamService.class);
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final AsyncContext asyncContext = mock(AsyncContext.class);
+    private final ServletOutputStream out = mock(ServletOutputStream.class);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(this.request.startAsync()).thenReturn(this.asyncContext);
+        when(this.asyncContext.getResponse()).thenReturn(this.response);
+        when(this.response.getOutputStream()).thenReturn(this.out);
+    }
+
+    @Test
+    void clientThatDoesNotKeepUpGetsWhatWasQueuedAndIsClosed() throws Exception {
+        when(this.request.getHeader("Last-Event-ID")).thenReturn("7");
+        // the client does not read, so nothing can be written
+        when(this.out.isReady()).thenReturn(false);
+
+        new EventStreamServlet(this.eventStreamService, 100).doGet(this.request, this.response);
+        ArgumentCaptor<EventSubscriber> subscriber = ArgumentCaptor.forClass(EventSubscriber.class);
+        verify(this.eventStreamService).subscribe(subscriber.capture(), eq(7L));
+        ArgumentCaptor<WriteListener> writeListener = ArgumentCaptor.forClass(WriteListener.class);
+        verify(this.out).setWriteListener(writeListener.capture());
+
+        byte[] event = new byte[40];
+        assertTrue(subscriber.getValue().send(event));
+        assertTrue(subscriber.getValue().send(event));
+        assertFalse(subscriber.getValue().send(event));
+        assertFalse(subscriber.getValue().send(event));
+        verify(this.asyncContext, never()).complete();
+
+        when(this.out.isReady()).thenReturn(true);
+        writeListener.getValue().onWritePossible();
+        InOrder order = inOrder(this.out, this.asyncContext);
+        order.verify(this.out).write(": connected\n\n".getBytes(StandardCharsets.UTF_8));
+        order.verify(this.out).write(event);
+        order.verify(this.out).write(event);
+        order.verify(this.out).flush();
+        order.verify(this.asyncContext).complete();
+        verify(this.eventStreamService).unsubscribe(subscriber.getValue());
+    }
+
+    @Test
+    void invalidLastEventIdIsRejected() throws Exception {
+        when(this.request.getHeader("Last-Event-ID")).thenReturn("latest");
+
+        new EventStreamServlet(this.eventStreamService, 100).doGet(this.request, this.response);
+
+        verify(this.response).sendError(eq(HttpServletResponse.SC_BAD_REQUEST), anyString());
+        verify(this.eventStreamService, never()).subscribe(any(), any());
+    }
+}
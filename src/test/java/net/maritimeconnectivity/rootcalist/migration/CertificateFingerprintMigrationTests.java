@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.migration;
+
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class CertificateFingerprintMigrationTests {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private Connection connection;
+
+    private static X509CertificateHolder certificate(String commonName) throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(256);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        X500Name name = new X500Name("CN=" + commonName);
+        return new JcaX509v3CertificateBuilder(name, BigInteger.ONE, new Date(System.currentTimeMillis() - DAY),
+                new Date(System.currentTimeMillis() + DAY), name, keyPair.getPublic())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()));
+    }
+
+    private void insert(String table, long id, String certificate) throws Exception {
+        try (PreparedStatement statement = this.connection.prepareStatement("INSERT INTO `" + table + "` (`id`, `certificate`, `hash`) VALUES (?, ?, ?)")) {
+            statement.setLong(1, id);
+            statement.setString(2, certificate);
+            statement.setString(3, Long.toString(id));
+            statement.executeUpdate();
+        }
+    }
+
+    private void insertAttestor(long id, String certificate, String issuer) throws Exception {
+        insert("attestor", id, certificate);
+        try (PreparedStatement statement = this.connection.prepareStatement("UPDATE `attestor` SET `issuer` = ? WHERE `id` = ?")) {
+            statement.setString(1, issuer);
+            statement.setLong(2, id);
+            statement.executeUpdate();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:fingerprints;MODE=MySQL", "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE `root_ca` (`id` BIGINT PRIMARY KEY, `certificate` TEXT, `hash` VARCHAR(64) UNIQUE)");
+            statement.execute("CREATE TABLE `attestor` (`id` BIGINT PRIMARY KEY, `certificate` TEXT, `hash` VARCHAR(64) UNIQUE, `issuer` TEXT)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.connection.close();
+    }
+
+    @Test
+    void sameCertificatesAreReportedBeforeTheSchemaIsChanged() throws Exception {
+        String pem = CryptoUtil.toPem(certificate("Root"));
+        String issuer = CryptoUtil.toPem(certificate("Issuer"));
+        insert("root_ca", 1, pem);
+        insert("root_ca", 2, pem.replace("\n", "\r\n"));
+        insert("root_ca", 3, pem + issuer);
+        insert("root_ca", 4, issuer);
+        insert("attestor", 1, pem);
+        Context context = mock(Context.class);
+        when(context.getConnection()).thenReturn(this.connection);
+
+        FlywayException exception = assertThrows(FlywayException.class, () -> new CertificateFingerprintMigration().migrate(context));
+
+        assertTrue(exception.getMessage().contains("root_ca rows [1, 2, 3] have the same certificate with fingerprint "
+                + CryptoUtil.fingerprint(pem)), exception.getMessage());
+        assertFalse(exception.getMessage().contains("attestor"));
+        try (ResultSet columns = this.connection.getMetaData().getColumns(null, null, "ROOT_CA", "FINGERPRINT")) {
+            assertFalse(columns.next());
+        }
+    }
+
+    @Test
+    void fingerprintIsTheHashOfTheLeafCertificate() throws Exception {
+        X509CertificateHolder leaf = certificate("Leaf");
+        String pem = CryptoUtil.toPem(leaf);
+
+        assertEquals(CryptoUtil.fingerprint(pem), CryptoUtil.fingerprint(pem + CryptoUtil.toPem(certificate("Issuer"))));
+        assertEquals(CryptoUtil.fingerprint(pem), CryptoUtil.fingerprint(pem.replace("\n", "\r\n")));
+    }
+
+    @Test
+    void issuerIsRemovedFromTheCertificateOfChainAttestors() throws Exception {
+        String issuer = CryptoUtil.toPem(certificate("Issuer"));
+        String first = CryptoUtil.toPem(certificate("First"));
+        String second = CryptoUtil.toPem(certificate("Second"));
+        String third = CryptoUtil.toPem(certificate("Third"));
+        // the way attestors created from a certificate chain used to be stored
+        insertAttestor(1, issuer + first, issuer);
+        insertAttestor(2, issuer + second, issuer);
+        insertAttestor(3, third, issuer);
+        // H2 does not understand the MySQL specific statement that replaces the hash column, so it is left out
+        Connection connection = spy(this.connection);
+        doAnswer(invocation -> {
+            Statement statement = spy((Statement) invocation.callRealMethod());
+            doReturn(false).when(statement).execute(argThat((String sql) -> sql.contains("DROP COLUMN")));
+            return statement;
+        }).when(connection).createStatement();
+        Context context = mock(Context.class);
+        when(context.getConnection()).thenReturn(connection);
+
+        new CertificateFingerprintMigration().migrate(context);
+
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT `certificate`, `fingerprint`, `issuer` FROM `attestor` ORDER BY `id`")) {
+            for (String pem : new String[]{first, second, third}) {
+                assertTrue(resultSet.next());
+                assertEquals(pem, resultSet.getString(1));
+                assertEquals(CryptoUtil.fingerprint(pem), resultSet.getString(2));
+                assertEquals(issuer, resultSet.getString(3));
+            }
+            assertFalse(resultSet.next());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.model;
+
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrustListSnapshotTests {
+
+    private static RootCAView rootCA(long id) {
+        return new RootCAView(id, new Date(), "Root " + id, "certificate " + id);
+    }
+
+    private static AttestationView attestation(long id, long rootCAId, long attestorId) {
+        return new AttestationView(id, new Date(), "signature", "SHA256withECDSA", rootCAId, attestorId);
+    }
+
+    private static List<Long> ids(List<RootCAView> rootCAs) {
+        return rootCAs.stream().map(RootCAView::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void buildAttachesAttestationsAndRevocations() {
+        TrustListSnapshot snapshot = TrustListSnapshot.build(
+                Arrays.asList(rootCA(1), rootCA(2)),
+                Collections.emptyList(),
+                Arrays.asList(attestation(10, 1, 100), attestation(11, 2, 101)),
+                Collections.singletonList(new RevocationView(20L, new Date(), "signature", "SHA256withECDSA", 2L, 101L, 11L)));
+
+        assertEquals(2, snapshot.getRootCAs().size());
+        assertEquals(1, snapshot.getRootCA(1L).getAttestations().size());
+        assertNotNull(snapshot.getRootCA(2L).getAttestations().get(0).getRevocation());
+        assertEquals(Collections.singletonList(snapshot.getRootCA(1L)), snapshot.getRootCAs(Collections.singletonList(100L), AttestorMatch.ANY));
+    }
+
+    @Test
+    void filterByAttestorsIgnoresRevokedAttestations() {
+        TrustListSnapshot snapshot = TrustListSnapshot.build(
+                Arrays.asList(rootCA(1), rootCA(2), rootCA(3)),
+                Collections.emptyList(),
+                Arrays.asList(attestation(10, 1, 100), attestation(11, 1, 101), attestation(12, 2, 100),
+                        attestation(13, 2, 101), attestation(14, 3, 101)),
+                Collections.singletonList(new RevocationView(20L, new Date(), "signature", "SHA256withECDSA", 2L, 101L, 13L)));
+        List<Long> attestors = Arrays.asList(100L, 101L);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids(snapshot.getRootCAs(attestors, AttestorMatch.ANY)));
+        assertEquals(Collections.singletonList(1L), ids(snapshot.getRootCAs(attestors, AttestorMatch.ALL)));
+        assertEquals(Arrays.asList(1L, 3L), ids(snapshot.getRootCAs(Collections.singletonList(101L), AttestorMatch.ANY)));
+        assertEquals(Collections.singletonList(1L), ids(snapshot.getRootCAs(attestors, AttestorMatch.ALL, 0, 10).getContent()));
+    }
+
+    @Test
+    void changesDoNotAffectPreviousSnapshot() {
+        TrustListSnapshot first = TrustListSnapshot.empty().withRootCA(rootCA(1));
+        TrustListSnapshot second = first.withAttestation(attestation(10, 1, 100))
+                .withAttestation(attestation(5, 1, 101));
+        TrustListSnapshot third = second.withRevocation(new RevocationView(20L, new Date(), "signature", "SHA256withECDSA", 1L, 100L, 10L));
+
+        assertTrue(first.getRootCA(1L).getAttestations().isEmpty());
+        assertEquals(Long.valueOf(5), second.getRootCA(1L).getAttestations().get(0).getId());
+        assertEquals(Long.valueOf(10), second.getRootCA(1L).getAttestations().get(1).getId());
+        assertNull(second.getAttestation(10L).getRevocation());
+        assertNotNull(third.getRootCA(1L).getAttestations().get(1).getRevocation());
+        assertTrue(third.getVersion() > second.getVersion());
+
+        TrustListSnapshot fourth = third.withoutRevocation(20L).withoutAttestation(5L);
+        assertEquals(1, fourth.getRootCA(1L).getAttestations().size());
+        assertNull(fourth.getAttestation(10L).getRevocation());
+        assertSame(fourth, fourth.withoutRootCA(2L));
+    }
+
+    @Test
+    void removingRootCARemovesItsAttestationsAndRevocations() {
+        TrustListSnapshot snapshot = TrustListSnapshot.build(
+                Arrays.asList(rootCA(1), rootCA(2)),
+                Collections.emptyList(),
+                Arrays.asList(attestation(10, 1, 100), attestation(11, 1, 101), attestation(12, 2, 100)),
+                Collections.singletonList(new RevocationView(20L, new Date(), "signature", "SHA256withECDSA", 1L, 101L, 11L)));
+
+        TrustListSnapshot removed = snapshot.edit().withoutRootCA(1L).apply();
+
+        assertNull(removed.getRootCA(1L));
+        assertNull(removed.getAttestation(10L));
+        assertNull(removed.getAttestation(11L));
+        assertNull(removed.getRevocation(20L));
+        assertEquals(Collections.singletonList(12L), removed.getAttestations().stream().map(AttestationView::getId).collect(Collectors.toList()));
+        assertTrue(removed.getRevocations().isEmpty());
+        assertEquals(Collections.singletonList(2L), ids(removed.getRootCAs(Collections.singletonList(100L), AttestorMatch.ANY)));
+        assertNotNull(snapshot.getRevocation(20L));
+    }
+
+    @Test
+    void editorAppliesBulkChangesAsOneSnapshot() {
+        TrustListSnapshot first = TrustListSnapshot.empty().withRootCA(rootCA(1));
+        TrustListSnapshot.Editor editor = first.edit();
+        for (long id = 2; id <= 1000; id++) {
+            editor.withRootCA(rootCA(id)).withAttestation(attestation(10000 + id, id, 100));
+        }
+        editor.withRevocation(new RevocationView(20000L, new Date(), "signature", "SHA256withECDSA", 500L, 100L, 10500L));
+        TrustListSnapshot second = editor.apply();
+
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertEquals(1000, second.getRootCAs().size());
+        assertEquals(999, second.getAttestations().size());
+        assertNotNull(second.getRootCA(500L).getAttestations().get(0).getRevocation());
+        assertEquals(998, second.getRootCAs(Collections.singletonList(100L), AttestorMatch.ANY).size());
+        assertEquals(1, first.getRootCAs().size());
+        assertSame(second, second.edit().withoutRootCA(2000L).apply());
+    }
+}
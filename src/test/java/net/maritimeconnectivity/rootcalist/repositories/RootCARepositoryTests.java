@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.repositories;
+
+import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.utils.HashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class RootCARepositoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RootCARepository rootCARepository;
+
+    private RootCA first;
+    private RootCA second;
+    private RootCA third;
+    private Attestor attestorA;
+    private Attestor attestorB;
+
+    @BeforeEach
+    void setUp() {
+        first = rootCA("First");
+        second = rootCA("Second");
+        third = rootCA("Third");
+        attestorA = attestor("A");
+        attestorB = attestor("B");
+        attest(first, attestorA);
+        attest(first, attestorB);
+        attest(second, attestorA);
+        revoke(attest(second, attestorB));
+        attest(third, attestorB);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findsRootCAsAttestedByAnyAttestor() {
+        List<Long> attestorIds = Arrays.asList(attestorA.getId(), attestorB.getId());
+        assertEquals(Arrays.asList(first.getId(), second.getId(), third.getId()),
+                ids(rootCARepository.findViewsByAnyAttestor(attestorIds)));
+        assertEquals(Arrays.asList(first.getId(), third.getId()),
+                ids(rootCARepository.findViewsByAnyAttestor(Collections.singletonList(attestorB.getId()))));
+    }
+
+    @Test
+    void findsRootCAsAttestedByAllAttestors() {
+        List<Long> attestorIds = Arrays.asList(attestorA.getId(), attestorB.getId());
+        assertEquals(Collections.singletonList(first.getId()),
+                ids(rootCARepository.findViewsByAllAttestors(attestorIds, 2)));
+    }
+
+    private RootCA rootCA(String name) {
+        RootCA rootCA = new RootCA();
+        rootCA.setName(name);
+        rootCA.setCertificate("root " + name);
+        rootCA.setFingerprint(HashUtil.sha256(rootCA.getCertificate().getBytes(StandardCharsets.UTF_8)));
+        return entityManager.persist(rootCA);
+    }
+
+    private Attestor attestor(String name) {
+        Attestor attestor = new Attestor();
+        attestor.setName(name);
+        attestor.setCertificate("attestor " + name);
+        attestor.setFingerprint(HashUtil.sha256(attestor.getCertificate().getBytes(StandardCharsets.UTF_8)));
+        return entityManager.persist(attestor);
+    }
+
+    private Attestation attest(RootCA rootCA, Attestor attestor) {
+        Attestation attestation = new Attestation();
+        attestation.setRootCA(rootCA);
+        attestation.setAttestor(attestor);
+        attestation.setSignature("signature");
+        attestation.setAlgorithmIdentifier("SHA256withECDSA");
+        return entityManager.persist(attestation);
+    }
+
+    private void revoke(Attestation attestation) {
+        Revocation revocation = new Revocation();
+        revocation.setAttestation(attestation);
+        revocation.setRootCA(attestation.getRootCA());
+        revocation.setAttestor(attestation.getAttestor());
+        revocation.setSignature("signature");
+        revocation.setAlgorithmIdentifier("SHA256withECDSA");
+        entityManager.persist(revocation);
+    }
+
+    private static List<Long> ids(List<RootCAView> rootCAs) {
+        return rootCAs.stream().map(RootCAView::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.maritimeconnectivity.rootcalist.config.CryptoExecutor;
+import net.maritimeconnectivity.rootcalist.model.AttestationRequest;
+import net.maritimeconnectivity.rootcalist.model.BatchItemResult;
+import net.maritimeconnectivity.rootcalist.model.BulkImportSummary;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.RevocationRequest;
+import net.maritimeconnectivity.rootcalist.model.database.Attestation;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.model.database.Revocation;
+import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.model.database.TimestampModel;
+import net.maritimeconnectivity.rootcalist.model.view.AttestationView;
+import net.maritimeconnectivity.rootcalist.model.view.RevocationView;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import net.maritimeconnectivity.rootcalist.repositories.AttestationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RevocationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
+import net.maritimeconnectivity.rootcalist.utils.CertificateBundleReader;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import net.maritimeconnectivity.rootcalist.utils.HashUtil;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchServiceImplTests {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final String ALGORITHM = "SHA256withECDSA";
+
+    private final RootCARepository rootCARepository = mock(RootCARepository.class);
+    private final AttestorRepository attestorRepository = mock(AttestorRepository.class);
+    private final AttestationRepository attestationRepository = mock(AttestationRepository.class);
+    private final RevocationRepository revocationRepository = mock(RevocationRepository.class);
+    private final CertificateRegistryService certificateRegistryService = mock(CertificateRegistryService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private CryptoExecutor cryptoExecutor;
+    private BatchServiceImpl batchService;
+
+    private static KeyPair keyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(256);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private static X509CertificateHolder certificate(String subject, String issuer, KeyPair subjectKeys,
+                                                     KeyPair issuerKeys, long notAfter) throws Exception {
+        return new JcaX509v3CertificateBuilder(new X500Name(issuer), BigInteger.ONE,
+                new Date(System.currentTimeMillis() - 2 * DAY), new Date(notAfter), new X500Name(subject),
+                subjectKeys.getPublic())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(issuerKeys.getPrivate()));
+    }
+
+    private static X509CertificateHolder rootCertificate(String subject) throws Exception {
+        KeyPair keyPair = keyPair();
+        return certificate(subject, subject, keyPair, keyPair, System.currentTimeMillis() + DAY);
+    }
+
+    private BulkImportSummary<RootCAView> importBundle(X509CertificateHolder... certificates) throws Exception {
+        StringBuilder bundle = new StringBuilder();
+        for (X509CertificateHolder certificate : certificates) {
+            bundle.append(CryptoUtil.toPem(certificate));
+        }
+        try (CertificateBundleReader reader = CertificateBundleReader.fromPem(
+                new ByteArrayInputStream(bundle.toString().getBytes(StandardCharsets.UTF_8)))) {
+            return this.batchService.importRootCAs(reader);
+        }
+    }
+
+    private static void assertItem(BatchItemResult<?> item, int index, BatchItemResult.Status status) {
+        assertEquals(index, item.getIndex());
+        assertEquals(status, item.getStatus());
+    }
+
+    private static void assertRejected(BatchItemResult<?> item, int index, String message) {
+        assertItem(item, index, BatchItemResult.Status.REJECTED);
+        assertEquals(message, item.getMessage());
+        assertNull(item.getResult());
+    }
+
+    private static String sign(KeyPair keyPair, String content) throws Exception {
+        Signature signature = Signature.getInstance(ALGORITHM);
+        signature.initSign(keyPair.getPrivate());
+        signature.update(content.getBytes(StandardCharsets.UTF_8));
+        return Hex.toHexString(signature.sign());
+    }
+
+    private static <T extends TimestampModel> T withId(T entity, long id) {
+        ReflectionTestUtils.setField(entity, "id", id);
+        return entity;
+    }
+
+    private static RootCA rootCA(long id) throws Exception {
+        RootCA rootCA = withId(new RootCA(), id);
+        rootCA.setName("Root " + id);
+        rootCA.setCertificate(CryptoUtil.toPem(rootCertificate("CN=Root " + id)));
+        return rootCA;
+    }
+
+    private static Attestor attestor(long id, KeyPair keyPair) throws Exception {
+        Attestor attestor = withId(new Attestor(), id);
+        attestor.setName("Attestor " + id);
+        attestor.setCertificate(CryptoUtil.toPem(certificate("CN=Attestor " + id, "CN=Attestor " + id, keyPair,
+                keyPair, System.currentTimeMillis() + DAY)));
+        return attestor;
+    }
+
+    private static Attestation attestation(long id, Attestor attestor, RootCA rootCA, KeyPair keyPair) throws Exception {
+        Attestation attestation = withId(new Attestation(), id);
+        attestation.setAttestor(attestor);
+        attestation.setRootCA(rootCA);
+        attestation.setAlgorithmIdentifier(ALGORITHM);
+        attestation.setSignature(sign(keyPair, rootCA.getCertificate()));
+        return attestation;
+    }
+
+    private static AttestationRequest attestationRequest(Long attestorId, Long rootCAid, String signature, String algorithm) {
+        AttestationRequest request = new AttestationRequest();
+        request.setAttestorId(attestorId);
+        request.setRootCAid(rootCAid);
+        request.setSignature(signature);
+        request.setAlgorithmIdentifier(algorithm);
+        return request;
+    }
+
+    private static RevocationRequest revocationRequest(Long attestorId, Long rootCAid, Long attestationId, String signature) {
+        RevocationRequest request = new RevocationRequest();
+        request.setAttestorId(attestorId);
+        request.setRootCAid(rootCAid);
+        request.setAttestationId(attestationId);
+        request.setSignature(signature);
+        request.setAlgorithmIdentifier(ALGORITHM);
+        return request;
+    }
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong ids = new AtomicLong();
+        when(this.rootCARepository.save(any(RootCA.class))).thenAnswer(invocation -> {
+            RootCA rootCA = invocation.getArgument(0);
+            ReflectionTestUtils.setField(rootCA, "id", ids.incrementAndGet());
+            return rootCA;
+        });
+        when(this.attestationRepository.save(any(Attestation.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), ids.incrementAndGet()));
+        when(this.revocationRepository.save(any(Revocation.class))).thenAnswer(invocation -> withId(invocation.getArgument(0), ids.incrementAndGet()));
+        when(this.certificateRegistryService.reserve(eq(EntityType.ROOT_CA), anyCollection())).thenReturn(Collections.emptySet());
+        this.cryptoExecutor = new CryptoExecutor(2, 100, new SimpleMeterRegistry());
+
+        this.batchService = new BatchServiceImpl();
+        this.batchService.setRootCARepository(this.rootCARepository);
+        this.batchService.setAttestorRepository(this.attestorRepository);
+        this.batchService.setAttestationRepository(this.attestationRepository);
+        this.batchService.setRevocationRepository(this.revocationRepository);
+        this.batchService.setCertificateRegistryService(this.certificateRegistryService);
+        this.batchService.setEventPublisher(this.eventPublisher);
+        this.batchService.setCryptoExecutor(this.cryptoExecutor);
+        this.batchService.setTransactionManager(mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.cryptoExecutor.shutdown();
+    }
+
+    @Test
+    void bundleIsSummarizedInTheOrderOfTheCertificates() throws Exception {
+        X509CertificateHolder root = rootCertificate("CN=Root");
+        X509CertificateHolder existing = rootCertificate("CN=Existing");
+        KeyPair keyPair = keyPair();
+        X509CertificateHolder expired = certificate("CN=Expired", "CN=Expired", keyPair, keyPair,
+                System.currentTimeMillis() - DAY);
+        X509CertificateHolder intermediate = certificate("CN=Intermediate", "CN=Root", keyPair(), keyPair(),
+                System.currentTimeMillis() + DAY);
+        X509CertificateHolder unnamed = rootCertificate("O=Unnamed");
+        when(this.certificateRegistryService.reserve(eq(EntityType.ROOT_CA), anyCollection()))
+                .thenReturn(Collections.singleton(HashUtil.sha256(existing.getEncoded())));
+
+        BulkImportSummary<RootCAView> summary = importBundle(root, existing, expired, root, intermediate, unnamed);
+
+        assertEquals(1, summary.getAdded());
+        assertEquals(2, summary.getSkipped());
+        assertEquals(3, summary.getRejected());
+        List<BatchItemResult<RootCAView>> items = summary.getItems();
+        assertEquals(6, items.size());
+        assertItem(items.get(0), 0, BatchItemResult.Status.CREATED);
+        assertEquals("Root", items.get(0).getResult().getName());
+        assertNotNull(items.get(0).getResult().getId());
+        assertItem(items.get(1), 1, BatchItemResult.Status.SKIPPED);
+        assertItem(items.get(2), 2, BatchItemResult.Status.REJECTED);
+        assertItem(items.get(3), 3, BatchItemResult.Status.SKIPPED);
+        assertItem(items.get(4), 4, BatchItemResult.Status.REJECTED);
+        assertItem(items.get(5), 5, BatchItemResult.Status.REJECTED);
+        verify(this.rootCARepository, times(1)).save(any(RootCA.class));
+        verify(this.eventPublisher, times(1)).publishEvent(any(EntityChangeEvent.class));
+    }
+
+    @Test
+    void allNewCertificatesAreStoredTogether() throws Exception {
+        X509CertificateHolder[] certificates = new X509CertificateHolder[50];
+        for (int i = 0; i < certificates.length; i++) {
+            certificates[i] = rootCertificate("CN=Root " + i);
+        }
+
+        BulkImportSummary<RootCAView> summary = importBundle(certificates);
+
+        assertEquals(50, summary.getAdded());
+        for (int i = 0; i < certificates.length; i++) {
+            assertItem(summary.getItems().get(i), i, BatchItemResult.Status.CREATED);
+            assertEquals("Root " + i, summary.getItems().get(i).getResult().getName());
+        }
+        // the fingerprints are reserved once for the whole bundle
+        verify(this.certificateRegistryService, times(1)).reserve(eq(EntityType.ROOT_CA), anyCollection());
+        verify(this.eventPublisher, times(50)).publishEvent(any(EntityChangeEvent.class));
+    }
+
+    @Test
+    void conflictingBundleCreatesNothing() throws Exception {
+        when(this.rootCARepository.save(any(RootCA.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        BulkImportSummary<RootCAView> summary = importBundle(rootCertificate("CN=First"), rootCertificate("CN=Second"));
+
+        assertEquals(0, summary.getAdded());
+        assertEquals(2, summary.getRejected());
+        assertItem(summary.getItems().get(0), 0, BatchItemResult.Status.REJECTED);
+        assertItem(summary.getItems().get(1), 1, BatchItemResult.Status.REJECTED);
+        verify(this.eventPublisher, never()).publishEvent(any(EntityChangeEvent.class));
+    }
+
+    @Test
+    void attestationBatchCreatesTheValidItemsOnly() throws Exception {
+        KeyPair keyPair = keyPair();
+        Attestor attestor = attestor(1, keyPair);
+        RootCA rootCA = rootCA(10);
+        RootCA otherRootCA = rootCA(11);
+        RootCA attestedRootCA = rootCA(12);
+        when(this.attestorRepository.findAllById(any())).thenReturn(Collections.singletonList(attestor));
+        when(this.rootCARepository.findAllById(any())).thenReturn(Arrays.asList(rootCA, otherRootCA, attestedRootCA));
+        when(this.attestationRepository.findViewsByAttestorsAndRootCAs(any(), any())).thenReturn(Collections.singletonList(
+                new AttestationView(5L, new Date(), "00", ALGORITHM, 12L, 1L)));
+        String signature = sign(keyPair, rootCA.getCertificate());
+
+        List<BatchItemResult<AttestationView>> results = this.batchService.saveAttestations(Arrays.asList(
+                attestationRequest(1L, 10L, signature, ALGORITHM),
+                attestationRequest(1L, 10L, signature, ALGORITHM),
+                attestationRequest(1L, 11L, null, ALGORITHM),
+                attestationRequest(1L, 11L, signature, "NONEwithNOTHING"),
+                attestationRequest(1L, 99L, signature, ALGORITHM),
+                attestationRequest(1L, 12L, sign(keyPair, attestedRootCA.getCertificate()), ALGORITHM),
+                attestationRequest(1L, 11L, signature, ALGORITHM)));
+
+        assertEquals(7, results.size());
+        assertItem(results.get(0), 0, BatchItemResult.Status.CREATED);
+        assertEquals(Long.valueOf(10), results.get(0).getResult().getRootCA());
+        assertEquals(Long.valueOf(1), results.get(0).getResult().getAttestor());
+        assertRejected(results.get(1), 1, "A similar attestation already exists");
+        assertRejected(results.get(2), 2, "The request did not contain all required attributes");
+        assertRejected(results.get(3), 3, "The signature algorithm is not supported");
+        assertRejected(results.get(4), 4, "The attestor or the root CA does not exist");
+        assertRejected(results.get(5), 5, "A similar attestation already exists");
+        // signed the certificate of another root CA
+        assertRejected(results.get(6), 6, "The signature of the attestation could not be verified");
+        verify(this.attestationRepository, times(1)).save(any(Attestation.class));
+        verify(this.eventPublisher, times(1)).publishEvent(any(EntityChangeEvent.class));
+    }
+
+    @Test
+    void conflictingAttestationBatchCreatesNothing() throws Exception {
+        KeyPair keyPair = keyPair();
+        Attestor attestor = attestor(1, keyPair);
+        RootCA rootCA = rootCA(10);
+        RootCA otherRootCA = rootCA(11);
+        when(this.attestorRepository.findAllById(any())).thenReturn(Collections.singletonList(attestor));
+        when(this.rootCARepository.findAllById(any())).thenReturn(Arrays.asList(rootCA, otherRootCA));
+        when(this.attestationRepository.save(any(Attestation.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        List<BatchItemResult<AttestationView>> results = this.batchService.saveAttestations(Arrays.asList(
+                attestationRequest(1L, 10L, sign(keyPair, rootCA.getCertificate()), ALGORITHM),
+                attestationRequest(1L, 11L, sign(keyPair, otherRootCA.getCertificate()), ALGORITHM)));
+
+        assertEquals(BatchItemResult.Status.REJECTED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.REJECTED, results.get(1).getStatus());
+        verify(this.eventPublisher, never()).publishEvent(any(EntityChangeEvent.class));
+    }
+
+    @Test
+    void revocationBatchCreatesTheValidItemsOnly() throws Exception {
+        KeyPair keyPair = keyPair();
+        Attestor attestor = attestor(1, keyPair);
+        RootCA rootCA = rootCA(10);
+        RootCA otherRootCA = rootCA(11);
+        Attestation attestation = attestation(5, attestor, rootCA, keyPair);
+        Attestation revokedAttestation = attestation(6, attestor, otherRootCA, keyPair);
+        revokedAttestation.setRevocation(withId(new Revocation(), 8));
+        Attestation otherAttestation = attestation(7, attestor, otherRootCA, keyPair);
+        when(this.attestationRepository.findAllWithReferencesById(any()))
+                .thenReturn(Arrays.asList(attestation, revokedAttestation, otherAttestation));
+        String signature = sign(keyPair, attestation.getSignature());
+
+        List<BatchItemResult<RevocationView>> results = this.batchService.saveRevocations(Arrays.asList(
+                revocationRequest(1L, 10L, 5L, signature),
+                revocationRequest(1L, 10L, 5L, signature),
+                revocationRequest(1L, 11L, 6L, sign(keyPair, revokedAttestation.getSignature())),
+                revocationRequest(2L, 11L, 7L, signature),
+                revocationRequest(1L, 11L, 99L, signature),
+                revocationRequest(1L, 11L, 7L, null),
+                revocationRequest(1L, 11L, 7L, signature)));
+
+        assertEquals(7, results.size());
+        assertItem(results.get(0), 0, BatchItemResult.Status.CREATED);
+        assertEquals(Long.valueOf(5), results.get(0).getResult().getAttestation());
+        assertRejected(results.get(1), 1, "A similar revocation already exists");
+        assertRejected(results.get(2), 2, "A similar revocation already exists");
+        assertRejected(results.get(3), 3, "The attestation does not exist or was not made by the given attestor for the given root CA");
+        assertRejected(results.get(4), 4, "The attestation does not exist or was not made by the given attestor for the given root CA");
+        assertRejected(results.get(5), 5, "The request did not contain all required attributes");
+        // signed another attestation
+        assertRejected(results.get(6), 6, "The signature of the revocation could not be verified");
+        verify(this.revocationRepository, times(1)).save(any(Revocation.class));
+        verify(this.eventPublisher, times(1)).publishEvent(any(EntityChangeEvent.class));
+    }
+}
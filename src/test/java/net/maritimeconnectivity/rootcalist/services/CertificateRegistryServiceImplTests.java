@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CertificateRegistryServiceImplTests {
+
+    private final AttestorRepository attestorRepository = mock(AttestorRepository.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private CertificateRegistryServiceImpl certificateRegistryService;
+
+    // a transaction is simulated by the synchronizations of the current thread
+    private Set<String> reserve(String... fingerprints) {
+        return this.certificateRegistryService.reserve(EntityType.ATTESTOR, Arrays.asList(fingerprints));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+        TransactionSynchronizationManager.clear();
+    }
+
+    private Set<String> reserveInTransaction(String... fingerprints) {
+        TransactionSynchronizationManager.initSynchronization();
+        Set<String> existing = reserve(fingerprints);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        return existing;
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(this.attestorRepository.findAllFingerprints()).thenReturn(Collections.singletonList("stored"));
+        this.certificateRegistryService = new CertificateRegistryServiceImpl();
+        this.certificateRegistryService.setAttestorRepository(this.attestorRepository);
+        this.certificateRegistryService.setRootCARepository(mock(RootCARepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void knownFingerprintsAreReportedWithoutQueryingTheDatabaseAgain() {
+        assertEquals(Collections.singleton("stored"), reserveInTransaction("stored", "new"));
+        assertEquals(Collections.singleton("new"), reserveInTransaction("new"));
+        assertEquals(Collections.emptySet(), reserveInTransaction("other"));
+
+        verify(this.attestorRepository, times(1)).findAllFingerprints();
+    }
+
+    @Test
+    void fingerprintIsReleasedWhenTheTransactionIsRolledBack() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(Collections.emptySet(), reserve("new"));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // another thread would block if the lock was still held
+        assertEquals(Collections.emptySet(), this.executor.submit(() -> reserveInTransaction("new")).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void concurrentReserveWaitsForTheFirstTransaction() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(Collections.emptySet(), reserve("new"));
+
+        CountDownLatch started = new CountDownLatch(1);
+        Future<Set<String>> concurrent = this.executor.submit(() -> {
+            started.countDown();
+            return reserveInTransaction("new");
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertThrows(TimeoutException.class, () -> concurrent.get(200, TimeUnit.MILLISECONDS));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(Collections.singleton("new"), concurrent.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deletedEntityReleasesItsFingerprint() {
+        Attestor attestor = new Attestor();
+        attestor.setFingerprint("stored");
+        assertEquals(Collections.singleton("stored"), reserveInTransaction("stored"));
+
+        this.certificateRegistryService.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Operation.DELETE, attestor));
+
+        assertEquals(Collections.emptySet(), reserveInTransaction("stored"));
+    }
+
+    @Test
+    void fingerprintsCanOnlyBeReservedInATransaction() {
+        assertThrows(IllegalStateException.class, () -> reserve("new"));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogEntry;
+import net.maritimeconnectivity.rootcalist.repositories.ChangeLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DataVersionServiceImplTests {
+
+    private final ChangeLogRepository changeLogRepository = mock(ChangeLogRepository.class);
+    private DataVersionServiceImpl dataVersionService;
+
+    private static ChangeLogEntry entry(long sequence, long createdAt) {
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setSequence(sequence);
+        entry.setCreatedAt(new Date(createdAt));
+        return entry;
+    }
+
+    private void setRefreshInterval(long millis) {
+        ReflectionTestUtils.setField(this.dataVersionService, "refreshIntervalMillis", millis);
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(this.changeLogRepository.findFirstByOrderBySequenceDesc()).thenReturn(entry(3, 1000));
+        this.dataVersionService = new DataVersionServiceImpl();
+        this.dataVersionService.setChangeLogRepository(this.changeLogRepository);
+        setRefreshInterval(60000);
+    }
+
+    @Test
+    void changesOfOtherInstancesArePickedUpAfterTheRefreshInterval() {
+        assertEquals("\"3\"", this.dataVersionService.getETag());
+        assertEquals(1000, this.dataVersionService.getLastModified());
+
+        // another instance commits, this one still uses the version it has read within the interval
+        when(this.changeLogRepository.findFirstByOrderBySequenceDesc()).thenReturn(entry(7, 2000));
+        assertEquals(3, this.dataVersionService.getVersion());
+        verify(this.changeLogRepository, times(1)).findFirstByOrderBySequenceDesc();
+
+        setRefreshInterval(0);
+        assertEquals(7, this.dataVersionService.getVersion());
+        assertEquals(2000, this.dataVersionService.getLastModified());
+    }
+
+    @Test
+    void changesOfThisInstanceAreFollowedRightAway() {
+        assertEquals(3, this.dataVersionService.getVersion());
+        EntityChangeEvent event = new EntityChangeEvent(EntityChangeEvent.Operation.DELETE, null);
+        event.setSequence(9);
+
+        this.dataVersionService.onEntityChange(event);
+
+        assertEquals(9, this.dataVersionService.getVersion());
+        // a refresh that reads an older entry does not move the version back
+        setRefreshInterval(0);
+        assertEquals(9, this.dataVersionService.getVersion());
+    }
+
+    @Test
+    void failedRefreshKeepsTheVersion() {
+        assertEquals(3, this.dataVersionService.getVersion());
+        setRefreshInterval(0);
+        when(this.changeLogRepository.findFirstByOrderBySequenceDesc()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertEquals(3, this.dataVersionService.getVersion());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.exception.DuplicateCertificateException;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.database.Attestor;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.utils.CryptoUtil;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EntityServiceImplTests {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private final AttestorRepository attestorRepository = mock(AttestorRepository.class);
+    private final CertificateRegistryService certificateRegistryService = mock(CertificateRegistryService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private AttestorServiceImpl attestorService;
+
+    private static Attestor attestor(String commonName) throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(256);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        X500Name name = new X500Name("CN=" + commonName);
+        Attestor attestor = new Attestor();
+        attestor.setName(commonName);
+        attestor.setCertificate(CryptoUtil.toPem(new JcaX509v3CertificateBuilder(name, BigInteger.ONE,
+                new Date(System.currentTimeMillis() - DAY), new Date(System.currentTimeMillis() + DAY), name,
+                keyPair.getPublic()).build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()))));
+        return attestor;
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(this.attestorRepository.save(any(Attestor.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        this.attestorService = new AttestorServiceImpl();
+        this.attestorService.setAttestorRepository(this.attestorRepository);
+        this.attestorService.setCertificateRegistryService(this.certificateRegistryService);
+        this.attestorService.setEventPublisher(this.eventPublisher);
+    }
+
+    @Test
+    void newCertificateIsSavedWithItsFingerprint() throws Exception {
+        Attestor attestor = attestor("New");
+        String fingerprint = CryptoUtil.fingerprint(attestor.getCertificate());
+        when(this.certificateRegistryService.reserve(EntityType.ATTESTOR, Collections.singleton(fingerprint))).thenReturn(Collections.emptySet());
+
+        assertSame(attestor, this.attestorService.save(attestor));
+
+        assertEquals(fingerprint, attestor.getFingerprint());
+        verify(this.attestorRepository).save(attestor);
+    }
+
+    @Test
+    void duplicateCertificateIsRejectedBeforeItReachesTheDatabase() throws Exception {
+        Attestor attestor = attestor("Duplicate");
+        String fingerprint = CryptoUtil.fingerprint(attestor.getCertificate());
+        when(this.certificateRegistryService.reserve(eq(EntityType.ATTESTOR), any())).thenReturn(Collections.singleton(fingerprint));
+
+        DuplicateCertificateException exception = assertThrows(DuplicateCertificateException.class, () -> this.attestorService.save(attestor));
+
+        assertEquals(fingerprint, exception.getFingerprint());
+        verify(this.attestorRepository, never()).save(any(Attestor.class));
+        verify(this.eventPublisher, never()).publishEvent(any());
+    }
+}
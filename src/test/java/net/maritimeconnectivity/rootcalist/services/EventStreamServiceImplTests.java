@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.maritimeconnectivity.rootcalist.model.ChangeSet;
+import net.maritimeconnectivity.rootcalist.model.EntityType;
+import net.maritimeconnectivity.rootcalist.model.database.ChangeLogEntry;
+import net.maritimeconnectivity.rootcalist.model.view.ChangeView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventStreamServiceImplTests {
+
+    private final List<ChangeView> changes = new CopyOnWriteArrayList<>();
+    private EventStreamServiceImpl eventStreamService;
+
+    private void addChanges(long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            ChangeLogEntry entry = new ChangeLogEntry();
+            entry.setSequence(sequence);
+            entry.setCreatedAt(new Date());
+            entry.setEntityType(EntityType.ROOT_CA);
+            entry.setEntityId(sequence);
+            entry.setOperation(EntityChangeEvent.Operation.DELETE);
+            this.changes.add(new ChangeView(entry, null));
+        }
+    }
+
+    private void commit() {
+        this.eventStreamService.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Operation.DELETE, null));
+    }
+
+    private static void assertReceived(RecordingSubscriber subscriber, long from, long to) throws InterruptedException {
+        for (long sequence = from; sequence <= to; sequence++) {
+            assertEquals(Long.valueOf(sequence), subscriber.ids.poll(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.eventStreamService = new EventStreamServiceImpl();
+        this.eventStreamService.setChangeLogService(new InMemoryChangeLog());
+        this.eventStreamService.setObjectMapper(new ObjectMapper());
+        ReflectionTestUtils.setField(this.eventStreamService, "heartbeatSeconds", 3600L);
+        this.eventStreamService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.eventStreamService.shutdown();
+    }
+
+    @Test
+    void changesAfterLastEventIdAreReplayedBeforeLiveEvents() throws Exception {
+        addChanges(1, 1200);
+        this.eventStreamService.onApplicationReady();
+        RecordingSubscriber resumed = new RecordingSubscriber(Integer.MAX_VALUE);
+        RecordingSubscriber fresh = new RecordingSubscriber(Integer.MAX_VALUE);
+
+        this.eventStreamService.subscribe(resumed, 2L);
+        this.eventStreamService.subscribe(fresh, null);
+        // the replay spans several pages of the change log
+        assertReceived(resumed, 3, 1200);
+
+        addChanges(1201, 1202);
+        commit();
+        assertReceived(resumed, 1201, 1202);
+        assertReceived(fresh, 1201, 1202);
+        assertNull(resumed.ids.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscriberThatDoesNotKeepUpIsDropped() throws Exception {
+        addChanges(1, 1);
+        this.eventStreamService.onApplicationReady();
+        RecordingSubscriber slow = new RecordingSubscriber(3);
+        RecordingSubscriber fast = new RecordingSubscriber(Integer.MAX_VALUE);
+        this.eventStreamService.subscribe(slow, 0L);
+        this.eventStreamService.subscribe(fast, 0L);
+        // once the replay has arrived both are subscribed
+        assertReceived(fast, 1, 1);
+
+        addChanges(2, 5);
+        commit();
+        assertReceived(fast, 2, 5);
+        assertTrue(slow.closed);
+        assertEquals(3, slow.received);
+
+        addChanges(6, 6);
+        commit();
+        assertReceived(fast, 6, 6);
+        assertEquals(3, slow.received);
+        assertEquals(4, slow.attempts);
+    }
+
+    @Test
+    void subscriberThatGivesUpDuringTheReplayIsClosed() throws Exception {
+        addChanges(1, 10);
+        this.eventStreamService.onApplicationReady();
+        RecordingSubscriber slow = new RecordingSubscriber(3);
+
+        this.eventStreamService.subscribe(slow, 0L);
+        assertReceived(slow, 1, 3);
+        for (int i = 0; i < 100 && !slow.closed; i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(slow.closed);
+
+        addChanges(11, 11);
+        commit();
+        Thread.sleep(100);
+        assertEquals(4, slow.attempts);
+    }
+
+    // keeps the IDs of the events it has been sent and takes no more than the given number of them
+    private static class RecordingSubscriber implements EventSubscriber {
+
+        private final BlockingQueue<Long> ids = new LinkedBlockingQueue<>();
+        private final int capacity;
+        private volatile int attempts;
+        private volatile int received;
+        private volatile boolean closed;
+
+        private RecordingSubscriber(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean accepts(ChangeView change) {
+            return true;
+        }
+
+        @Override
+        public boolean send(byte[] event) {
+            String text = new String(event, StandardCharsets.UTF_8);
+            if (!text.startsWith("id: ")) {
+                return true;
+            }
+            this.attempts++;
+            if (this.closed || this.received == this.capacity) {
+                return false;
+            }
+            this.received++;
+            this.ids.add(Long.valueOf(text.substring(4, text.indexOf('\n'))));
+            return true;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    private class InMemoryChangeLog implements ChangeLogService {
+
+        @Override
+        public ChangeSet getChanges(long since, int limit) {
+            List<ChangeView> result = new ArrayList<>();
+            boolean more = false;
+            for (ChangeView change : changes) {
+                if (change.getSequence() > since) {
+                    if (result.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    result.add(change);
+                }
+            }
+            long sequence = result.isEmpty() ? since : result.get(result.size() - 1).getSequence();
+            return new ChangeSet(sequence, more, result);
+        }
+
+        @Override
+        public long getLatestSequence() {
+            return changes.isEmpty() ? 0 : changes.get(changes.size() - 1).getSequence();
+        }
+    }
+}
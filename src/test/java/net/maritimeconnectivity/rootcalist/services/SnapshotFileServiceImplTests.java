@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.maritimeconnectivity.rootcalist.model.SnapshotFile;
+import net.maritimeconnectivity.rootcalist.model.SnapshotFormat;
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
+import net.maritimeconnectivity.rootcalist.model.view.RootCAView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SnapshotFileServiceImplTests {
+
+    private final TrustListService trustListService = mock(TrustListService.class);
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private SnapshotFileServiceImpl snapshotFileService;
+
+    @TempDir
+    Path directory;
+
+    private static TrustListSnapshot snapshot(long rootCAId) {
+        return TrustListSnapshot.build(Collections.singletonList(new RootCAView(rootCAId, new Date(), "Root " + rootCAId, "certificate")),
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    // renders the files of the given data and waits until they are served
+    private SnapshotFile render(TrustListSnapshot snapshot, String eTag) throws InterruptedException {
+        when(this.trustListService.getSnapshot()).thenReturn(snapshot);
+        when(this.dataVersionService.getETag()).thenReturn(eTag);
+        this.snapshotFileService.onApplicationReady();
+        await(() -> this.snapshotFileService.getFile(SnapshotFormat.JSON) != null);
+        return this.snapshotFileService.getFile(SnapshotFormat.JSON);
+    }
+
+    private void createService(Duration retention) throws Exception {
+        this.snapshotFileService = new SnapshotFileServiceImpl();
+        this.snapshotFileService.setTrustListService(this.trustListService);
+        this.snapshotFileService.setDataVersionService(this.dataVersionService);
+        TrustListExportService trustListExportService = mock(TrustListExportService.class);
+        when(trustListExportService.getBinaryExport(any(TrustListSnapshot.class))).thenReturn(new byte[]{1});
+        this.snapshotFileService.setTrustListExportService(trustListExportService);
+        this.snapshotFileService.setObjectMapper(new ObjectMapper());
+        ReflectionTestUtils.setField(this.snapshotFileService, "enabled", true);
+        ReflectionTestUtils.setField(this.snapshotFileService, "directoryName", this.directory.toString());
+        ReflectionTestUtils.setField(this.snapshotFileService, "retention", retention);
+        this.snapshotFileService.init();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        createService(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.snapshotFileService.shutdown();
+    }
+
+    @Test
+    void replacedFilesAreKeptForTransfersInProgress() throws Exception {
+        SnapshotFile first = render(snapshot(1), "\"1\"");
+        SnapshotFile second = render(snapshot(2), "\"2\"");
+        SnapshotFile third = render(snapshot(3), "\"3\"");
+
+        assertNotEquals(first.getPath(), third.getPath());
+        // a transfer of the first generation may still be running while the third one is current
+        assertTrue(Files.exists(first.getPath()));
+        assertTrue(Files.exists(second.getPath()));
+        assertTrue(Files.exists(third.getPath()));
+    }
+
+    @Test
+    void replacedFilesAreDeletedAfterTheRetention() throws Exception {
+        this.snapshotFileService.shutdown();
+        createService(Duration.ofMillis(50));
+        SnapshotFile first = render(snapshot(1), "\"1\"");
+        SnapshotFile second = render(snapshot(2), "\"2\"");
+
+        await(() -> !Files.exists(first.getPath()));
+        assertTrue(Files.exists(second.getPath()));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.services;
+
+import net.maritimeconnectivity.rootcalist.model.TrustListSnapshot;
+import net.maritimeconnectivity.rootcalist.model.database.RootCA;
+import net.maritimeconnectivity.rootcalist.repositories.AttestationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.AttestorRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RevocationRepository;
+import net.maritimeconnectivity.rootcalist.repositories.RootCARepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+class TrustListServiceImplTests {
+
+    private TrustListServiceImpl trustListService;
+
+    private static RootCA rootCA(long id) {
+        RootCA rootCA = new RootCA();
+        ReflectionTestUtils.setField(rootCA, "id", id);
+        rootCA.setName("Root " + id);
+        rootCA.setCertificate("certificate " + id);
+        return rootCA;
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.trustListService = new TrustListServiceImpl();
+        this.trustListService.setRootCARepository(mock(RootCARepository.class));
+        this.trustListService.setAttestorRepository(mock(AttestorRepository.class));
+        this.trustListService.setAttestationRepository(mock(AttestationRepository.class));
+        this.trustListService.setRevocationRepository(mock(RevocationRepository.class));
+        this.trustListService.setTransactionManager(mock(PlatformTransactionManager.class));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void bulkTransactionIsAppliedAsOneSnapshotAfterCommit() {
+        TrustListSnapshot initial = this.trustListService.getSnapshot();
+        for (long id = 1; id <= 1000; id++) {
+            this.trustListService.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Operation.SAVE, rootCA(id)));
+        }
+        assertSame(initial, this.trustListService.getSnapshot());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        TrustListSnapshot snapshot = this.trustListService.getSnapshot();
+        assertEquals(initial.getVersion() + 1, snapshot.getVersion());
+        assertEquals(1000, snapshot.getRootCAs().size());
+        assertFalse(TransactionSynchronizationManager.hasResource(this.trustListService));
+    }
+
+    @Test
+    void rolledBackTransactionIsNotApplied() {
+        TrustListSnapshot initial = this.trustListService.getSnapshot();
+        this.trustListService.onEntityChange(new EntityChangeEvent(EntityChangeEvent.Operation.SAVE, rootCA(1)));
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertSame(initial, this.trustListService.getSnapshot());
+        assertFalse(TransactionSynchronizationManager.hasResource(this.trustListService));
+    }
+}
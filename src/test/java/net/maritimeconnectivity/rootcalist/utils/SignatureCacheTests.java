@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignatureCacheTests {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private static X509CertificateHolder selfSigned(Date notAfter) throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(256);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        X500Name name = new X500Name("CN=Signature Cache Test");
+        return new JcaX509v3CertificateBuilder(name, BigInteger.ONE, new Date(System.currentTimeMillis() - DAY), notAfter,
+                name, keyPair.getPublic()).build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()));
+    }
+
+    @Test
+    void repeatedVerificationIsServedFromTheCache() throws Exception {
+        X509CertificateHolder certificate = selfSigned(new Date(System.currentTimeMillis() + DAY));
+        SignatureCache cache = CryptoUtil.getSignatureCache();
+        long hits = cache.getHits();
+
+        assertTrue(CryptoUtil.isSignedBy(certificate, certificate));
+        assertTrue(CryptoUtil.isSignedBy(certificate, certificate));
+
+        assertEquals(hits + 1, cache.getHits());
+    }
+
+    @Test
+    void entriesExpireWithTheCertificates() throws Exception {
+        Date notAfter = new Date(System.currentTimeMillis() + DAY);
+        X509CertificateHolder certificate = selfSigned(notAfter);
+        SignatureCache cache = new SignatureCache(16);
+        String key = SignatureCache.key(certificate, certificate);
+
+        cache.putVerified(key, certificate, certificate);
+
+        assertTrue(cache.isVerified(key, new Date()));
+        assertFalse(cache.isVerified(key, new Date(notAfter.getTime() + 1000)));
+        assertFalse(cache.isVerified(key, new Date()));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 Maritime Connectivity Platform Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.maritimeconnectivity.rootcalist.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrustListBinaryTests {
+
+    private static TrustListBinaryReader.Entry entry(long id, List<TrustListBinaryReader.Attestation> attestations) {
+        byte[] certificate = ("certificate " + id).getBytes(StandardCharsets.UTF_8);
+        return new TrustListBinaryReader.Entry(id, HashUtil.sha256Raw(certificate), "Root " + id, certificate, attestations);
+    }
+
+    @Test
+    void roundTripFindsEveryEntryByFingerprint() throws IOException {
+        List<TrustListBinaryReader.Entry> entries = Arrays.asList(
+                entry(1, Collections.singletonList(new TrustListBinaryReader.Attestation(10, 100, false))),
+                entry(2, Collections.singletonList(new TrustListBinaryReader.Attestation(11, 101, true))),
+                entry(3, Collections.emptyList()));
+
+        TrustListBinaryReader reader = new TrustListBinaryReader(ByteBuffer.wrap(TrustListBinaryWriter.write(entries, 42L)));
+
+        assertEquals(3, reader.size());
+        assertEquals(42L, reader.getGeneratedAt());
+        for (TrustListBinaryReader.Entry expected : entries) {
+            TrustListBinaryReader.Entry actual = reader.find(expected.getFingerprint());
+            assertNotNull(actual);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertArrayEquals(expected.getCertificate(), actual.getCertificate());
+            assertEquals(expected.getAttestations().size(), actual.getAttestations().size());
+        }
+        assertTrue(reader.find(entries.get(0).getFingerprint()).isAttestedBy(100));
+        assertFalse(reader.find(entries.get(1).getFingerprint()).isAttestedBy(101));
+        assertNull(reader.find(new byte[TrustListBinaryReader.FINGERPRINT_LENGTH]));
+    }
+
+    @Test
+    void rejectsOtherData() {
+        assertThrows(IOException.class, () -> new TrustListBinaryReader(ByteBuffer.wrap("not a trust list at all".getBytes(StandardCharsets.UTF_8))));
+    }
+}